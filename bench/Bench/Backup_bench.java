@@ -0,0 +1,121 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Bench;
+
+import Utilities.Backup_engine;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Backing up the database: a full backup, and an incremental one on top of
+ * a full backup taken before the day's work, here a change to every flat,
+ * so that it stores only the chunks that changed.
+ *
+ * @author RtrSuahantNadkar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 8)
+@Fork(1)
+public class Backup_bench {
+
+    @Param({"2000"})
+    public int flats;
+
+    /**
+     * Deflate level, as set on the Backup screen.
+     */
+    @Param({"6"})
+    public int level;
+
+    private File full;
+    private File incremental;
+    private File base;
+    private int changes;
+
+    @Setup(Level.Trial)
+    public void open() throws ClassNotFoundException, SQLException, IOException {
+        Bench_database.open(flats);
+        File dir = new File(System.getProperty("java.io.tmpdir"), "himalaya-bench-backup-" + System.nanoTime());
+        full = new File(dir, "full");
+        incremental = new File(dir, "incremental");
+        full.mkdirs();
+        incremental.mkdirs();
+        base = engine(incremental).backupFull(null).archive;
+    }
+
+    @Setup(Level.Invocation)
+    public void work() throws ClassNotFoundException, SQLException {
+        try (Connection con = Others.Database.connect();
+                Statement st = con.createStatement()) {
+            st.execute("update flat set penelty = penelty + 1");
+        }
+        changes++;
+        clean();
+    }
+
+    private void clean() {
+        for (File f : full.listFiles()) {
+            f.delete();
+        }
+        for (File f : incremental.listFiles()) {
+            if (!f.equals(base)) {
+                f.delete();
+            }
+        }
+    }
+
+    private Backup_engine engine(File directory) {
+        Backup_engine engine = new Backup_engine(directory);
+        engine.setCompressionLevel(level);
+        return engine;
+    }
+
+    @Benchmark
+    public Backup_engine.Result full() throws ClassNotFoundException, SQLException, IOException {
+        return engine(full).backupFull(null);
+    }
+
+    @Benchmark
+    public Backup_engine.Result incremental() throws ClassNotFoundException, SQLException, IOException {
+        return engine(incremental).backup(null);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws ClassNotFoundException, SQLException {
+        try (Connection con = Others.Database.connect();
+                PreparedStatement ps = con.prepareStatement("update flat set penelty = penelty - ?")) {
+            ps.setInt(1, changes);
+            ps.executeUpdate();
+        }
+        clean();
+        base.delete();
+        full.delete();
+        incremental.delete();
+        full.getParentFile().delete();
+        Others.Database.shutdown();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Bench;
+
+import Utilities.Society_generator;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The database the benchmarks run against: a society of a given number of
+ * flats with a year of bills, receipts and vouchers behind it.
+ *
+ * Each size gets its own database under {@code himalaya.bench.dir} (by
+ * default a directory in java.io.tmpdir), made by Society_generator from a
+ * fixed seed the first time that size is asked for and reused afterwards,
+ * so every run of a benchmark sees the same data. Sizes are rounded up to
+ * whole wings of a hundred flats.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Bench_database {
+
+    /**
+     * The year of history.
+     */
+    public static final java.sql.Date FIRST_MONTH = java.sql.Date.valueOf("2025-01-01");
+    public static final java.sql.Date LAST_DAY = java.sql.Date.valueOf("2025-12-31");
+    /**
+     * A month after the history, for benchmarks that raise bills.
+     */
+    public static final java.sql.Date NEXT_MONTH = java.sql.Date.valueOf("2026-01-01");
+
+    static final long SEED = 42;
+    static final int FLOORS = 25;
+    static final int FLATS_PER_FLOOR = 4;
+
+    /**
+     * Points the application at the database for {@code flats} flats,
+     * generating it first if it does not exist yet.
+     */
+    public static void open(int flats) throws ClassNotFoundException, SQLException, IOException {
+        File dir = new File(System.getProperty("himalaya.bench.dir",
+                new File(System.getProperty("java.io.tmpdir"), "himalaya-bench").getPath()), "flats-" + flats);
+        dir.mkdirs();
+        Others.Database.dbDirectory = dir.getPath();
+        try (Connection con = Others.Database.connect()) {
+            if (count(con, "select count(*) from flat") == 0) {
+                Society_generator.Settings settings = new Society_generator.Settings();
+                settings.seed = SEED;
+                settings.floors = FLOORS;
+                settings.flatsPerFloor = FLATS_PER_FLOOR;
+                settings.wings = (flats + FLOORS * FLATS_PER_FLOOR - 1) / (FLOORS * FLATS_PER_FLOOR);
+                settings.years = 1;
+                settings.until = LAST_DAY;
+                new Society_generator(settings).generate(con);
+            }
+        }
+    }
+
+    static int count(Connection con, String sql) throws SQLException {
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Every flat id, in billing order.
+     */
+    public static List<String> fids() throws ClassNotFoundException, SQLException {
+        return column("select fid from flat order by fid");
+    }
+
+    /**
+     * Every flat's owner, in billing order.
+     */
+    public static List<String> owners() throws ClassNotFoundException, SQLException {
+        return column("select owner from flat order by fid");
+    }
+
+    private static List<String> column(String sql) throws ClassNotFoundException, SQLException {
+        List<String> values = new ArrayList<>();
+        try (Connection con = Others.Database.connect();
+                Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+}
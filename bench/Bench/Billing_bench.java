@@ -0,0 +1,91 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Bench;
+
+import Finance.Billing_engine;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The month-end bill run: raising a month's bills for every flat, as
+ * Raise_all_bills does before printing them.
+ *
+ * Each invocation raises the month after the generated history, having
+ * first put the database back as it was before any bill run: the month's
+ * bills are deleted, and the receivables and number sequences are copied
+ * back from snapshots taken the first time the benchmark ran against this
+ * database. A bill run also folds each flat's advance into its new charge,
+ * so deleting the new charges alone would not undo it.
+ *
+ * @author RtrSuahantNadkar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class Billing_bench {
+
+    @Param({"500", "2000"})
+    public int flats;
+
+    private Connection con;
+
+    @Setup(Level.Trial)
+    public void open() throws ClassNotFoundException, SQLException, IOException {
+        Bench_database.open(flats);
+        con = Others.Database.connect();
+        try (Statement st = con.createStatement()) {
+            st.execute("create table if not exists bench_receivables as select * from receivables");
+            st.execute("create table if not exists bench_number_sequence as select * from number_sequence");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void unraise() throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("delete from bills where bill_period_start = ?")) {
+            ps.setDate(1, Bench_database.NEXT_MONTH);
+            ps.executeUpdate();
+        }
+        try (Statement st = con.createStatement()) {
+            st.execute("delete from receivables");
+            st.execute("insert into receivables select * from bench_receivables");
+            st.execute("delete from number_sequence");
+            st.execute("insert into number_sequence select * from bench_number_sequence");
+        }
+        Others.Number_allocator.reset();
+    }
+
+    @Benchmark
+    public Billing_engine.Result raise() throws ClassNotFoundException, SQLException {
+        return new Billing_engine().raise(con, Bench_database.NEXT_MONTH);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        unraise();
+        con.close();
+        Others.Database.shutdown();
+    }
+}
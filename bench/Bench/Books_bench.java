@@ -0,0 +1,90 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Bench;
+
+import Dao.LedgerDao;
+import Finance.Voucher_table_model;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Opening the cash and bank books for the year: what View_Cashbook and
+ * View_Bankbook do when the dates change, reading the first page and a page
+ * from the middle as a user scrolling would, and the book totals they show.
+ *
+ * @author RtrSuahantNadkar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class Books_bench {
+
+    @Param({"2000"})
+    public int flats;
+
+    private Connection con;
+
+    @Setup(Level.Trial)
+    public void open() throws ClassNotFoundException, SQLException, IOException {
+        Bench_database.open(flats);
+        con = Others.Database.connect();
+    }
+
+    @Benchmark
+    public void cashBook(Blackhole bh) throws ClassNotFoundException, SQLException {
+        scroll(new Voucher_table_model("cash_book",
+                "voucher_no, voucher_date, account_code, particulars, debit_credit, amount",
+                new String[]{"Voucher No.", "Voucher Date", "Account Code", "Description", "Mode", "Amount"}), bh);
+    }
+
+    @Benchmark
+    public void bankBook(Blackhole bh) throws ClassNotFoundException, SQLException {
+        scroll(new Voucher_table_model("bank_book",
+                "voucher_no, voucher_date, account_code, particulars, cheque_no, cheque_date, cheque_bank, debit_credit, amount",
+                new String[]{"Voucher No.", "Voucher Date", "Account Code", "Description", "Cheque No.", "Cheque Date", "Drawn on", "Mode", "Amount"}), bh);
+    }
+
+    @Benchmark
+    public LedgerDao.Totals cashTotals() throws SQLException {
+        return new LedgerDao(con).totals(LedgerDao.CASH, null, Bench_database.FIRST_MONTH, Bench_database.LAST_DAY);
+    }
+
+    @Benchmark
+    public LedgerDao.Totals bankTotals() throws SQLException {
+        return new LedgerDao(con).totals(LedgerDao.BANK, null, Bench_database.FIRST_MONTH, Bench_database.LAST_DAY);
+    }
+
+    private static void scroll(Voucher_table_model model, Blackhole bh) throws ClassNotFoundException, SQLException {
+        model.setRange(Bench_database.FIRST_MONTH, Bench_database.LAST_DAY);
+        bh.consume(model.getValueAt(0, 0));
+        bh.consume(model.getValueAt(model.getRowCount() / 2, 0));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        con.close();
+        Others.Database.shutdown();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Bench;
+
+import Others.AutoCompletion;
+import Others.Prefix_index;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The owner combo boxes: building the prefix index over the owners' names,
+ * looking a prefix up in it, and typing a prefix into a combo box with
+ * AutoCompletion, which selects and completes the matching name.
+ *
+ * @author RtrSuahantNadkar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class Lookup_bench {
+
+    @Param({"2000"})
+    public int flats;
+
+    private DefaultComboBoxModel<String> owners;
+    private Prefix_index index;
+    private String[] prefixes;
+    private int next;
+    private JComboBox<String> comboBox;
+    private Document document;
+
+    @Setup(Level.Trial)
+    public void open() throws ClassNotFoundException, SQLException, IOException {
+        Bench_database.open(flats);
+        List<String> names = Bench_database.owners();
+        Others.Database.shutdown();
+        owners = new DefaultComboBoxModel<>();
+        prefixes = new String[names.size()];
+        Random random = new Random(42);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            owners.addElement(name);
+            // what is typed before the completion settles, in no particular case
+            String typed = name.substring(0, Math.min(name.length(), 2 + random.nextInt(8)));
+            prefixes[i] = random.nextBoolean() ? typed.toLowerCase() : typed;
+        }
+        Collections.shuffle(Arrays.asList(prefixes), random);
+        index = new Prefix_index(owners);
+        comboBox = new JComboBox<>(new DefaultComboBoxModel<>(toArray(owners)));
+        AutoCompletion.enable(comboBox);
+        document = ((JTextComponent) comboBox.getEditor().getEditorComponent()).getDocument();
+    }
+
+    private static String[] toArray(DefaultComboBoxModel<String> model) {
+        String[] items = new String[model.getSize()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = model.getElementAt(i);
+        }
+        return items;
+    }
+
+    private String nextPrefix() {
+        next = (next + 1) % prefixes.length;
+        return prefixes[next];
+    }
+
+    @Benchmark
+    public Prefix_index build() {
+        return new Prefix_index(owners);
+    }
+
+    @Benchmark
+    public int find() {
+        return index.find(nextPrefix());
+    }
+
+    @Benchmark
+    public Object type() throws BadLocationException {
+        comboBox.setSelectedItem(null);
+        document.remove(0, document.getLength());
+        document.insertString(0, nextPrefix(), null);
+        return comboBox.getSelectedItem();
+    }
+}
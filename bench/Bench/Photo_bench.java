@@ -0,0 +1,84 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Bench;
+
+import Member.Photo_service;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Member photos: decoding a stored photo to a thumbnail, as View_member
+ * does, and ingesting a camera-sized photo on upload.
+ *
+ * The photo is a generated JPEG with enough detail that it compresses like
+ * a real one.
+ *
+ * @author RtrSuahantNadkar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class Photo_bench {
+
+    /**
+     * Longest side of the photo: 1024 is what is stored, 3000 what a phone
+     * camera uploads.
+     */
+    @Param({"1024", "3000"})
+    public int size;
+
+    private byte[] jpeg;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        BufferedImage image = new BufferedImage(size, size * 3 / 4, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(90, 120, 160), size, size, new Color(220, 190, 150)));
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            g.setColor(new Color(random.nextInt(0x1000000)));
+            g.fillOval(random.nextInt(size), random.nextInt(size * 3 / 4), 4 + random.nextInt(size / 20), 4 + random.nextInt(size / 20));
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        jpeg = out.toByteArray();
+    }
+
+    @Benchmark
+    public BufferedImage thumbnail() throws IOException {
+        return Photo_service.decode(new ByteArrayInputStream(jpeg), Photo_service.THUMB_SIZE);
+    }
+
+    @Benchmark
+    public byte[] ingest() throws IOException {
+        return Photo_service.ingest(new ByteArrayInputStream(jpeg));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Bench;
+
+import Finance.Raise_all_bills;
+import Reports.Report_registry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.sf.jasperreports.engine.JRException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Printing the month's maintenance bills: filling Maintenance_bill for each
+ * flat and exporting them as one PDF, as Raise_all_bills does after the
+ * bill run. Bulk_report streams each flat's pages to the exporter as it
+ * fills them, so the two are measured together; the PDF is discarded.
+ *
+ * @author RtrSuahantNadkar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class Report_bench {
+
+    @Param({"2000"})
+    public int flats;
+
+    /**
+     * How many of the flats' bills are printed.
+     */
+    @Param({"100"})
+    public int bills;
+
+    private Connection con;
+    private List<String> keys;
+
+    @Setup(Level.Trial)
+    public void open() throws ClassNotFoundException, SQLException, IOException, JRException {
+        Bench_database.open(flats);
+        con = Others.Database.connect();
+        List<String> fids = Bench_database.fids();
+        keys = fids.subList(0, Math.min(bills, fids.size()));
+        Report_registry.get(Report_registry.MAINTENANCE_BILL);
+    }
+
+    @Benchmark
+    public int maintenanceBills() throws SQLException, JRException {
+        return Raise_all_bills.MAINTENANCE_BILL.writePdf(con, keys, new HashMap<String, Object>(), null, new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        con.close();
+        Others.Database.shutdown();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads and writes bank book vouchers.
+ *
+ * Posting vouchers also adds them to the book's running balances in
+ * {@link LedgerDao}, in the same transaction.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class BankBookDao {
+
+    public static class Voucher {
+
+        public int voucherNo;
+        public java.sql.Date voucherDate;
+        public String accountCode;
+        public String particulars;
+        public int chequeNo;
+        public java.sql.Date chequeDate;
+        /**
+         * Debit or Credit, or P or R from the voucher screen.
+         */
+        public String debitCredit;
+        public String chequeBank;
+        public int amount;
+    }
+
+    private final Connection con;
+
+    public BankBookDao(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * @return rows added
+     */
+    public int insert(Voucher v) throws SQLException {
+        return insert(Collections.singletonList(v));
+    }
+
+    /**
+     * Adds the vouchers as one batch.
+     *
+     * @return rows added
+     */
+    public int insert(List<Voucher> vouchers) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement("insert into bank_book(voucher_no, voucher_date, account_code, particulars,"
+                + " cheque_no, cheque_date, debit_credit, cheque_bank, amount) values(?,?,?,?,?,?,?,?,?)")) {
+            for (Voucher v : vouchers) {
+                ps.setInt(1, v.voucherNo);
+                ps.setDate(2, v.voucherDate);
+                ps.setString(3, v.accountCode);
+                // the column has always been written with a blank rather than left empty
+                ps.setString(4, v.particulars == null || v.particulars.equals("") ? " " : v.particulars);
+                ps.setInt(5, v.chequeNo);
+                ps.setDate(6, v.chequeDate);
+                ps.setString(7, v.debitCredit);
+                ps.setString(8, v.chequeBank);
+                ps.setInt(9, v.amount);
+                ps.addBatch();
+            }
+            int added = 0;
+            for (int n : ps.executeBatch()) {
+                added += n;
+            }
+            LedgerDao ledger = new LedgerDao(con);
+            for (Voucher v : vouchers) {
+                ledger.post(LedgerDao.BANK, v.accountCode, v.voucherDate, v.debitCredit, v.amount);
+            }
+            if (autoCommit) {
+                con.commit();
+            }
+            return added;
+        } catch (SQLException ex) {
+            if (autoCommit) {
+                con.rollback();
+            }
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Vouchers dated {@code from} to {@code to} inclusive, in voucher order.
+     */
+    public List<Voucher> between(java.sql.Date from, java.sql.Date to) throws SQLException {
+        List<Voucher> vouchers = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("select voucher_no, voucher_date, account_code, particulars, cheque_no, cheque_date,"
+                + " debit_credit, cheque_bank, amount from bank_book where voucher_date between ? and ? order by voucher_date, voucher_no")) {
+            ps.setDate(1, from);
+            ps.setDate(2, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Voucher v = new Voucher();
+                    v.voucherNo = rs.getInt(1);
+                    v.voucherDate = rs.getDate(2);
+                    v.accountCode = rs.getString(3);
+                    v.particulars = rs.getString(4);
+                    v.chequeNo = rs.getInt(5);
+                    v.chequeDate = rs.getDate(6);
+                    v.debitCredit = rs.getString(7);
+                    v.chequeBank = rs.getString(8);
+                    v.amount = rs.getInt(9);
+                    vouchers.add(v);
+                }
+            }
+        }
+        return vouchers;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes maintenance bills.
+ *
+ * Bills are written in batches; callers that need several writes to stand
+ * or fall together run them in their own transaction.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class BillDao {
+
+    public static class Bill {
+
+        public int bid;
+        public String acCode;
+        public java.sql.Date billDate;
+        public java.sql.Date periodStart;
+        public java.sql.Date periodEnd;
+        public int billAmount;
+        public int receivedAmount;
+        public String status;
+        public int balanceAmount;
+        public int interestAmount;
+    }
+
+    /**
+     * An amount paid towards a flat's bill for one period.
+     */
+    public static class Payment {
+
+        public String acCode;
+        public java.sql.Date periodStart;
+        public int amount;
+
+        public Payment(String acCode, java.sql.Date periodStart, int amount) {
+            this.acCode = acCode;
+            this.periodStart = periodStart;
+            this.amount = amount;
+        }
+    }
+
+    static final int BATCH_SIZE = 500;
+
+    private final Connection con;
+
+    public BillDao(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * The flat's bill for the period starting on {@code periodStart}, or
+     * null.
+     */
+    public Bill find(String acCode, java.sql.Date periodStart) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select * from bills where ac_code = ? and bill_period_start = ?")) {
+            ps.setString(1, acCode);
+            ps.setDate(2, periodStart);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? read(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Every bill of a flat, oldest period first.
+     */
+    public List<Bill> forFlat(String acCode) throws SQLException {
+        List<Bill> bills = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("select * from bills where ac_code = ? order by bill_period_start")) {
+            ps.setString(1, acCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    bills.add(read(rs));
+                }
+            }
+        }
+        return bills;
+    }
+
+    /**
+     * The flats that have a bill for the period starting on
+     * {@code periodStart}, in flat order.
+     */
+    public List<String> billedFlats(java.sql.Date periodStart) throws SQLException {
+        List<String> flats = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("select ac_code from bills where bill_period_start = ? order by ac_code")) {
+            ps.setDate(1, periodStart);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    flats.add(rs.getString(1));
+                }
+            }
+        }
+        return flats;
+    }
+
+    public int insert(List<Bill> bills) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("insert into bills(bid, ac_code, bill_date, bill_period_start, bill_period_end,"
+                + " bill_amount, received_amount, status, balance_amount, interest_amount) values(?,?,?,?,?,?,?,?,?,?)")) {
+            int pending = 0;
+            for (Bill b : bills) {
+                ps.setInt(1, b.bid);
+                ps.setString(2, b.acCode);
+                ps.setDate(3, b.billDate);
+                ps.setDate(4, b.periodStart);
+                ps.setDate(5, b.periodEnd);
+                ps.setInt(6, b.billAmount);
+                ps.setInt(7, b.receivedAmount);
+                ps.setString(8, b.status);
+                ps.setInt(9, b.balanceAmount);
+                ps.setInt(10, b.interestAmount);
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+        return bills.size();
+    }
+
+    /**
+     * Records payments against bills, working from the stored balance so
+     * nothing is read back first.
+     *
+     * @return rows updated per payment; 0 where the flat has no bill for
+     * that period
+     */
+    public int[] settle(List<Payment> payments) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("update bills set received_amount = received_amount + ?,"
+                + " balance_amount = balance_amount - ?,"
+                + " status = case when balance_amount - ? > 0 then 'pending' else 'paid' end"
+                + " where ac_code = ? and bill_period_start = ?")) {
+            for (Payment p : payments) {
+                ps.setInt(1, p.amount);
+                ps.setInt(2, p.amount);
+                ps.setInt(3, p.amount);
+                ps.setString(4, p.acCode);
+                ps.setDate(5, p.periodStart);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        }
+    }
+
+    private static Bill read(ResultSet rs) throws SQLException {
+        Bill b = new Bill();
+        b.bid = rs.getInt("bid");
+        b.acCode = rs.getString("ac_code");
+        b.billDate = rs.getDate("bill_date");
+        b.periodStart = rs.getDate("bill_period_start");
+        b.periodEnd = rs.getDate("bill_period_end");
+        b.billAmount = rs.getInt("bill_amount");
+        b.receivedAmount = rs.getInt("received_amount");
+        b.status = rs.getString("status");
+        b.balanceAmount = rs.getInt("balance_amount");
+        b.interestAmount = rs.getInt("interest_amount");
+        return b;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes cash book vouchers.
+ *
+ * Posting a voucher also adds it to the book's running balances in
+ * {@link LedgerDao}, in the same transaction.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class CashBookDao {
+
+    public static class Voucher {
+
+        public int voucherNo;
+        public java.sql.Date voucherDate;
+        public String accountCode;
+        public String particulars;
+        /**
+         * Debit or Credit, or P or R from the voucher screen.
+         */
+        public String debitCredit;
+        public int amount;
+    }
+
+    private final Connection con;
+
+    public CashBookDao(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * @return rows added
+     */
+    public int insert(Voucher v) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement("insert into cash_book(voucher_no, voucher_date, account_code, particulars,"
+                + " debit_credit, amount) values(?,?,?,?,?,?)")) {
+            ps.setInt(1, v.voucherNo);
+            ps.setDate(2, v.voucherDate);
+            ps.setString(3, v.accountCode);
+            // the column has always been written with a blank rather than left empty
+            ps.setString(4, v.particulars == null || v.particulars.equals("") ? " " : v.particulars);
+            ps.setString(5, v.debitCredit);
+            ps.setInt(6, v.amount);
+            int added = ps.executeUpdate();
+            new LedgerDao(con).post(LedgerDao.CASH, v.accountCode, v.voucherDate, v.debitCredit, v.amount);
+            if (autoCommit) {
+                con.commit();
+            }
+            return added;
+        } catch (SQLException ex) {
+            if (autoCommit) {
+                con.rollback();
+            }
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Vouchers dated {@code from} to {@code to} inclusive, in voucher order.
+     */
+    public List<Voucher> between(java.sql.Date from, java.sql.Date to) throws SQLException {
+        List<Voucher> vouchers = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("select voucher_no, voucher_date, account_code, particulars, debit_credit, amount"
+                + " from cash_book where voucher_date between ? and ? order by voucher_date, voucher_no")) {
+            ps.setDate(1, from);
+            ps.setDate(2, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Voucher v = new Voucher();
+                    v.voucherNo = rs.getInt(1);
+                    v.voucherDate = rs.getDate(2);
+                    v.accountCode = rs.getString(3);
+                    v.particulars = rs.getString(4);
+                    v.debitCredit = rs.getString(5);
+                    v.amount = rs.getInt(6);
+                    vouchers.add(v);
+                }
+            }
+        }
+        return vouchers;
+    }
+}
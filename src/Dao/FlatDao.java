@@ -0,0 +1,259 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads and writes flats and their parking allotment.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class FlatDao {
+
+    /**
+     * One row of flat; the charges are monthly amounts.
+     */
+    public static class Flat {
+
+        public String fid;
+        public int useOfPremises;
+        public int penelty;
+        public boolean cable;
+        public int rateOfPropertyTax;
+        public int serviceTax;
+        public int sinkingFund;
+        public int sublittingCharge;
+        public int municipalTax;
+        public int otherCharge;
+        public int repairs;
+        public int otherMunicipalTax;
+        public int bankCharge;
+        public String owner;
+        public int total;
+    }
+
+    public static class Parking {
+
+        public String fid;
+        public int twoWheeler;
+        public int fourWheeler;
+    }
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String UPDATE = "update flat set use_of_premises = ?, penelty = ?, cable = ?,"
+            + " rate_of_property_tax = ?, service_tax = ?, sinking_fund = ?, sublitting_charge = ?, municipal_tax = ?,"
+            + " other_charge = ?, repairs = ?, other_municipal_tax = ?, bank_charge = ?, owner = ?, total = ? where fid = ?";
+
+    private final Connection con;
+
+    public FlatDao(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * The flat, or null if there is none with that id.
+     */
+    public Flat find(String fid) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select * from flat where fid = ?")) {
+            ps.setString(1, fid);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Flat f = new Flat();
+                f.fid = rs.getString("fid");
+                f.useOfPremises = rs.getInt("use_of_premises");
+                f.penelty = rs.getInt("penelty");
+                f.cable = rs.getBoolean("cable");
+                f.rateOfPropertyTax = rs.getInt("rate_of_property_tax");
+                f.serviceTax = rs.getInt("service_tax");
+                f.sinkingFund = rs.getInt("sinking_fund");
+                f.sublittingCharge = rs.getInt("sublitting_charge");
+                f.municipalTax = rs.getInt("municipal_tax");
+                f.otherCharge = rs.getInt("other_charge");
+                f.repairs = rs.getInt("repairs");
+                f.otherMunicipalTax = rs.getInt("other_municipal_tax");
+                f.bankCharge = rs.getInt("bank_charge");
+                f.owner = rs.getString("owner");
+                f.total = rs.getInt("total");
+                return f;
+            }
+        }
+    }
+
+    /**
+     * The flat's parking, or null if none has been allotted.
+     */
+    public Parking parking(String fid) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select two_wheeler, four_wheeler from parking where fid = ?")) {
+            ps.setString(1, fid);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Parking p = new Parking();
+                p.fid = fid;
+                p.twoWheeler = rs.getInt(1);
+                p.fourWheeler = rs.getInt(2);
+                return p;
+            }
+        }
+    }
+
+    /**
+     * Updates everything but the id.
+     *
+     * @return rows updated
+     */
+    public int update(Flat f) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(UPDATE)) {
+            bind(ps, f);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Updates the flats in batches. Callers that need all or nothing run it
+     * in a transaction.
+     *
+     * @return flats updated
+     */
+    public int update(List<Flat> flats) throws SQLException {
+        int updated = 0;
+        try (PreparedStatement ps = con.prepareStatement(UPDATE)) {
+            int pending = 0;
+            for (Flat f : flats) {
+                bind(ps, f);
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    updated += sum(ps.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += sum(ps.executeBatch());
+            }
+        }
+        return updated;
+    }
+
+    private static void bind(PreparedStatement ps, Flat f) throws SQLException {
+        ps.setInt(1, f.useOfPremises);
+        ps.setInt(2, f.penelty);
+        ps.setBoolean(3, f.cable);
+        ps.setInt(4, f.rateOfPropertyTax);
+        ps.setInt(5, f.serviceTax);
+        ps.setInt(6, f.sinkingFund);
+        ps.setInt(7, f.sublittingCharge);
+        ps.setInt(8, f.municipalTax);
+        ps.setInt(9, f.otherCharge);
+        ps.setInt(10, f.repairs);
+        ps.setInt(11, f.otherMunicipalTax);
+        ps.setInt(12, f.bankCharge);
+        ps.setString(13, f.owner);
+        ps.setInt(14, f.total);
+        ps.setString(15, f.fid);
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int n : counts) {
+            sum += n;
+        }
+        return sum;
+    }
+
+    /**
+     * Ids of every flat, as stored.
+     */
+    public Set<String> fids() throws SQLException {
+        Set<String> fids = new HashSet<>();
+        try (PreparedStatement ps = con.prepareStatement("select fid from flat");
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                fids.add(rs.getString(1));
+            }
+        }
+        return fids;
+    }
+
+    /**
+     * Adds empty flats with their member account and parking rows, in
+     * batches. Callers that need all or nothing run it in a transaction.
+     *
+     * @return flats added
+     */
+    public int create(List<String> fids) throws SQLException {
+        try (PreparedStatement flat = con.prepareStatement("insert into flat(fid) values(?)");
+                PreparedStatement account = con.prepareStatement("insert into member_ac_master(code) values(?)");
+                PreparedStatement parking = con.prepareStatement("insert into parking(fid) values(?)")) {
+            int pending = 0;
+            for (String fid : fids) {
+                flat.setString(1, fid);
+                flat.addBatch();
+                account.setString(1, fid);
+                account.addBatch();
+                parking.setString(1, fid);
+                parking.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    flat.executeBatch();
+                    account.executeBatch();
+                    parking.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                flat.executeBatch();
+                account.executeBatch();
+                parking.executeBatch();
+            }
+        }
+        return fids.size();
+    }
+
+    public int updateParking(Parking p) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("update parking set two_wheeler = ?, four_wheeler = ? where fid = ?")) {
+            ps.setInt(1, p.twoWheeler);
+            ps.setInt(2, p.fourWheeler);
+            ps.setString(3, p.fid);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Updates the parking allotments in batches.
+     *
+     * @return rows updated
+     */
+    public int updateParking(List<Parking> allotments) throws SQLException {
+        int updated = 0;
+        try (PreparedStatement ps = con.prepareStatement("update parking set two_wheeler = ?, four_wheeler = ? where fid = ?")) {
+            int pending = 0;
+            for (Parking p : allotments) {
+                ps.setInt(1, p.twoWheeler);
+                ps.setInt(2, p.fourWheeler);
+                ps.setString(3, p.fid);
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    updated += sum(ps.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += sum(ps.executeBatch());
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Running balances of the cash and bank books, kept per book, account code
+ * and day in ledger_daily and per month in ledger_monthly.
+ *
+ * Each voucher adds its amount to the debit or credit total of its day and
+ * month as it is posted, in the same transaction as the voucher itself. The
+ * totals are movements rather than closing balances so a back-dated voucher
+ * touches two rows instead of every later day. The balance at the end of a
+ * day is the months before it plus the days of its own month, and a
+ * statement reads one row per day of its range, however many vouchers lie
+ * behind them.
+ *
+ * Debit and P (payment) vouchers are debits, Credit and R (receipt) ones
+ * credits; a book's balance is its credits less its debits.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class LedgerDao {
+
+    public static final String CASH = "cash";
+    public static final String BANK = "bank";
+
+    /**
+     * Recomputes both tables from the voucher books; run by the schema
+     * migration that adds them and by {@link #rebuild()}.
+     */
+    public static final String[] REBUILD = {
+        "delete from ledger_daily",
+        "delete from ledger_monthly",
+        daily(CASH, "cash_book"),
+        daily(BANK, "bank_book"),
+        "insert into ledger_monthly(book, account_code, month, debit, credit, entries)"
+        + " select book, account_code, dateadd('day', 1 - day_of_month(day), day), sum(debit), sum(credit), sum(entries)"
+        + " from ledger_daily group by book, account_code, dateadd('day', 1 - day_of_month(day), day)"
+    };
+
+    private static String daily(String book, String table) {
+        return "insert into ledger_daily(book, account_code, day, debit, credit, entries)"
+                + " select '" + book + "', coalesce(account_code, ''), voucher_date,"
+                + " sum(case when debit_credit in ('Debit', 'P') then amount else 0 end),"
+                + " sum(case when debit_credit in ('Debit', 'P') then 0 else amount end), count(*)"
+                + " from " + table + " where voucher_date is not null and amount is not null group by account_code, voucher_date";
+    }
+
+    /**
+     * Movements of one day of a statement and the balances either side.
+     */
+    public static class Day {
+
+        public java.sql.Date day;
+        public long debit;
+        public long credit;
+        public long opening;
+        public long closing;
+    }
+
+    /**
+     * Opening and closing balances of a date range and the movements
+     * between them.
+     */
+    public static class Totals {
+
+        public long opening;
+        public long debit;
+        public long credit;
+        public long closing;
+    }
+
+    private final Connection con;
+
+    public LedgerDao(Connection con) {
+        this.con = con;
+    }
+
+    public static boolean isDebit(String debitCredit) {
+        return "Debit".equals(debitCredit) || "P".equals(debitCredit);
+    }
+
+    /**
+     * Adds a voucher to its day and month. Runs in the caller's transaction.
+     */
+    public void post(String book, String accountCode, java.sql.Date day, String debitCredit, int amount) throws SQLException {
+        if (day == null) {
+            return;
+        }
+        long debit = isDebit(debitCredit) ? amount : 0;
+        long credit = isDebit(debitCredit) ? 0 : amount;
+        String account = accountCode == null ? "" : accountCode;
+        add("ledger_daily", "day", book, account, day, debit, credit);
+        add("ledger_monthly", "month", book, account, monthOf(day), debit, credit);
+    }
+
+    private void add(String table, String key, String book, String account, java.sql.Date date, long debit, long credit) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("update " + table + " set debit = debit + ?, credit = credit + ?, entries = entries + 1"
+                + " where book = ? and account_code = ? and " + key + " = ?")) {
+            ps.setLong(1, debit);
+            ps.setLong(2, credit);
+            ps.setString(3, book);
+            ps.setString(4, account);
+            ps.setDate(5, date);
+            if (ps.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement("insert into " + table + "(book, account_code, " + key + ", debit, credit, entries)"
+                + " values(?,?,?,?,?,1)")) {
+            ps.setString(1, book);
+            ps.setString(2, account);
+            ps.setDate(3, date);
+            ps.setLong(4, debit);
+            ps.setLong(5, credit);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * The book's balance at the end of {@code day}.
+     *
+     * @param accountCode one account code, or null for the whole book
+     */
+    public long balance(String book, String accountCode, java.sql.Date day) throws SQLException {
+        java.sql.Date month = monthOf(day);
+        return sum("ledger_monthly", "month < ?", book, accountCode, month, null)
+                + sum("ledger_daily", "day between ? and ?", book, accountCode, month, day);
+    }
+
+    private long sum(String table, String range, String book, String accountCode, java.sql.Date a, java.sql.Date b) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select coalesce(sum(credit - debit), 0) from " + table
+                + " where book = ?" + (accountCode != null ? " and account_code = ?" : "") + " and " + range)) {
+            int i = 1;
+            ps.setString(i++, book);
+            if (accountCode != null) {
+                ps.setString(i++, accountCode);
+            }
+            ps.setDate(i++, a);
+            if (b != null) {
+                ps.setDate(i, b);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * One entry per day from {@code from} to {@code to} that has vouchers,
+     * with the running balance carried from the day before {@code from}.
+     *
+     * @param accountCode one account code, or null for the whole book
+     */
+    public List<Day> statement(String book, String accountCode, java.sql.Date from, java.sql.Date to) throws SQLException {
+        Calendar c = Calendar.getInstance();
+        c.setTime(from);
+        c.add(Calendar.DAY_OF_MONTH, -1);
+        long balance = balance(book, accountCode, new java.sql.Date(c.getTimeInMillis()));
+        List<Day> days = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("select day, sum(debit), sum(credit) from ledger_daily where book = ?"
+                + (accountCode != null ? " and account_code = ?" : "") + " and day between ? and ? group by day order by day")) {
+            int i = 1;
+            ps.setString(i++, book);
+            if (accountCode != null) {
+                ps.setString(i++, accountCode);
+            }
+            ps.setDate(i++, from);
+            ps.setDate(i, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Day d = new Day();
+                    d.day = rs.getDate(1);
+                    d.debit = rs.getLong(2);
+                    d.credit = rs.getLong(3);
+                    d.opening = balance;
+                    balance += d.credit - d.debit;
+                    d.closing = balance;
+                    days.add(d);
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * @param accountCode one account code, or null for the whole book
+     */
+    public Totals totals(String book, String accountCode, java.sql.Date from, java.sql.Date to) throws SQLException {
+        Totals t = new Totals();
+        List<Day> days = statement(book, accountCode, from, to);
+        if (days.isEmpty()) {
+            t.opening = balance(book, accountCode, to);
+        } else {
+            t.opening = days.get(0).opening;
+        }
+        for (Day d : days) {
+            t.debit += d.debit;
+            t.credit += d.credit;
+        }
+        t.closing = t.opening + t.credit - t.debit;
+        return t;
+    }
+
+    /**
+     * Recomputes the balances from the voucher books, for when vouchers
+     * were changed outside the application.
+     */
+    public void rebuild() throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (Statement st = con.createStatement()) {
+            for (String sql : REBUILD) {
+                st.execute(sql);
+            }
+            con.commit();
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    static java.sql.Date monthOf(java.sql.Date day) {
+        Calendar c = Calendar.getInstance();
+        c.setTime(day);
+        c.set(Calendar.DAY_OF_MONTH, 1);
+        return new java.sql.Date(c.getTimeInMillis());
+    }
+}
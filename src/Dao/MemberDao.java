@@ -0,0 +1,301 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Dao;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes members: their master row and the flat they belong to.
+ *
+ * Photos are only read by {@link #photo(int)} and only written when a new
+ * one is given, so looking members up never drags the images along. A new
+ * photo clears the stored thumbnail, which {@link Member.Photo_service}
+ * makes again from it.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class MemberDao {
+
+    public static class Member {
+
+        public int mid;
+        public String firstName;
+        public String middleName;
+        public String lastName;
+        public java.sql.Date dob;
+        public long contact;
+        public String sex;
+        public String pan;
+        public String fid;
+
+        public String getName() {
+            return firstName + " " + middleName + " " + lastName;
+        }
+    }
+
+    private static final String SELECT = "select m.mid, m.first_name, m.middle_name, m.last_name, m.dob, m.contact, m.sex, m.pan, f.fid"
+            + " from master m left join family f on f.mid = m.mid";
+
+    private final Connection con;
+
+    public MemberDao(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * The member, or null if there is none with that id.
+     */
+    public Member find(int mid) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SELECT + " where m.mid = ?")) {
+            ps.setInt(1, mid);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? read(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Every member without their photo, ordered by mid: once for each flat
+     * they belong to, or once with no flat.
+     */
+    public List<Member> all() throws SQLException {
+        List<Member> members = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(SELECT + " order by m.mid");
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                members.add(read(rs));
+            }
+        }
+        return members;
+    }
+
+    /**
+     * The member once for each flat they belong to, as {@link #all()} lists
+     * them; empty if there is none with that id.
+     */
+    public List<Member> findAll(int mid) throws SQLException {
+        List<Member> members = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(SELECT + " where m.mid = ?")) {
+            ps.setInt(1, mid);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    members.add(read(rs));
+                }
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Members of a flat, in the order they were added.
+     */
+    public List<Member> byFlat(String fid) throws SQLException {
+        List<Member> members = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("select m.mid, m.first_name, m.middle_name, m.last_name, m.dob, m.contact, m.sex, m.pan, f.fid"
+                + " from family f join master m on m.mid = f.mid where f.fid = ? order by m.mid")) {
+            ps.setString(1, fid);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    members.add(read(rs));
+                }
+            }
+        }
+        return members;
+    }
+
+    /**
+     * The member's photo, or null.
+     */
+    public byte[] photo(int mid) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select photo from master where mid = ?")) {
+            ps.setInt(1, mid);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Size in bytes of every stored photo, by mid.
+     */
+    public Map<Integer, Long> photoSizes() throws SQLException {
+        Map<Integer, Long> sizes = new LinkedHashMap<>();
+        try (PreparedStatement ps = con.prepareStatement("select mid, length(photo) from master where photo is not null order by mid");
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                sizes.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Replaces the member's photo and clears its thumbnail.
+     */
+    public int replacePhoto(int mid, InputStream photo, long photoLength) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("update master set photo = ?, photo_thumb = null where mid = ?")) {
+            ps.setBinaryStream(1, photo, photoLength);
+            ps.setInt(2, mid);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * The member's stored thumbnail, or null if none has been made yet.
+     */
+    public byte[] thumbnail(int mid) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select photo_thumb from master where mid = ?")) {
+            ps.setInt(1, mid);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        }
+    }
+
+    public int storeThumbnail(int mid, byte[] thumbnail) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("update master set photo_thumb = ? where mid = ?")) {
+            ps.setBytes(1, thumbnail);
+            ps.setInt(2, mid);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Id to offer for the next new member.
+     */
+    public int nextMid() throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select max(mid) from master");
+                ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1) + 1;
+        }
+    }
+
+    /**
+     * Adds the member and links them to their flat in one transaction.
+     *
+     * @param photo the image, or null for none
+     * @return rows added to master
+     */
+    public int insert(Member m, InputStream photo, long photoLength) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement("insert into master(first_name, middle_name, last_name, dob, contact, photo, mid, sex, pan)"
+                + " values(?,?,?,?,?,?,?,?,?)");
+                PreparedStatement family = con.prepareStatement("insert into family(mid, fid) values(?,?)")) {
+            ps.setString(1, m.firstName);
+            ps.setString(2, m.middleName);
+            ps.setString(3, m.lastName);
+            ps.setDate(4, m.dob);
+            ps.setLong(5, m.contact);
+            if (photo != null) {
+                ps.setBinaryStream(6, photo, photoLength);
+            } else {
+                ps.setNull(6, Types.BLOB);
+            }
+            ps.setInt(7, m.mid);
+            ps.setString(8, m.sex);
+            ps.setString(9, m.pan);
+            int count = ps.executeUpdate();
+            family.setInt(1, m.mid);
+            family.setString(2, m.fid);
+            family.executeUpdate();
+            con.commit();
+            return count;
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Updates the member and their flat in one transaction.
+     *
+     * @param photo a new image, or null to keep the current one
+     * @return rows updated in master and family together
+     */
+    public int update(Member m, InputStream photo, long photoLength) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement(photo != null
+                ? "update master set first_name = ?, middle_name = ?, last_name = ?, dob = ?, contact = ?, sex = ?, pan = ?, photo = ?, photo_thumb = null where mid = ?"
+                : "update master set first_name = ?, middle_name = ?, last_name = ?, dob = ?, contact = ?, sex = ?, pan = ? where mid = ?");
+                PreparedStatement family = con.prepareStatement("update family set fid = ? where mid = ?")) {
+            int i = 1;
+            ps.setString(i++, m.firstName);
+            ps.setString(i++, m.middleName);
+            ps.setString(i++, m.lastName);
+            ps.setDate(i++, m.dob);
+            ps.setLong(i++, m.contact);
+            ps.setString(i++, m.sex);
+            ps.setString(i++, m.pan);
+            if (photo != null) {
+                ps.setBinaryStream(i++, photo, photoLength);
+            }
+            ps.setInt(i, m.mid);
+            int count = ps.executeUpdate();
+            family.setString(1, m.fid);
+            family.setInt(2, m.mid);
+            count += family.executeUpdate();
+            con.commit();
+            return count;
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Removes the member and their link to a flat.
+     *
+     * @return rows removed from master
+     */
+    public int delete(int mid) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement("delete from master where mid = ?");
+                PreparedStatement family = con.prepareStatement("delete from family where mid = ?")) {
+            ps.setInt(1, mid);
+            int count = ps.executeUpdate();
+            family.setInt(1, mid);
+            family.executeUpdate();
+            con.commit();
+            return count;
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static Member read(ResultSet rs) throws SQLException {
+        Member m = new Member();
+        m.mid = rs.getInt(1);
+        m.firstName = rs.getString(2);
+        m.middleName = rs.getString(3);
+        m.lastName = rs.getString(4);
+        m.dob = rs.getDate(5);
+        m.contact = rs.getLong(6);
+        m.sex = rs.getString(7);
+        m.pan = rs.getString(8);
+        m.fid = rs.getString(9);
+        return m;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What each flat owes, kept as the charges it has not yet paid off.
+ *
+ * Every bill adds its charge, the month's maintenance and interest, dated
+ * the first day of the period it bills; every receipt pays off the flat's
+ * oldest charges first. Both happen in the transaction that writes the bill
+ * or the receipt. A charge that is paid in full is deleted, so receivables
+ * only holds what is outstanding and ageing it reads a few rows per flat
+ * however long the bills history grows. Money received beyond what is owed
+ * is kept as one negative row, dated the day it came in, and set against the
+ * next charge.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class ReceivablesDao {
+
+    /**
+     * Recomputes receivables from the bills; run by the schema migration
+     * that adds the table and by {@link #rebuild()}. Each flat's latest
+     * balance is spread over its most recent bills, as if every receipt had
+     * paid off the oldest charges first.
+     */
+    public static final String[] REBUILD = {
+        "delete from receivables",
+        "insert into receivables(ac_code, charge_date, amount)"
+        + " select ac_code, bill_period_start, sum(case"
+        + " when latest <= 0 then case when newer = 0 then latest else 0 end"
+        + " when older = 0 then greatest(latest - newer, 0)"
+        + " else least(greatest(latest - newer, 0), bill_amount) end)"
+        + " from (select b.ac_code, b.bill_period_start, coalesce(b.bill_amount, 0) bill_amount,"
+        + " (select coalesce(sum(n.bill_amount), 0) from bills n where n.ac_code = b.ac_code and n.bill_period_start > b.bill_period_start) newer,"
+        + " (select count(*) from bills o where o.ac_code = b.ac_code and o.bill_period_start < b.bill_period_start) older,"
+        + " coalesce((select l.balance_amount from bills l where l.ac_code = b.ac_code order by l.bill_period_start desc limit 1), 0) latest"
+        + " from bills b where b.ac_code is not null and b.bill_period_start is not null)"
+        + " group by ac_code, bill_period_start",
+        "delete from receivables where amount = 0"
+    };
+
+    static final String AGING = "select a.ac_code, f.owner,"
+            + " sum(case when a.age <= 30 then a.amount else 0 end),"
+            + " sum(case when a.age between 31 and 60 then a.amount else 0 end),"
+            + " sum(case when a.age between 61 and 90 then a.amount else 0 end),"
+            + " sum(case when a.age > 90 then a.amount else 0 end),"
+            + " sum(a.amount), min(a.charge_date)"
+            + " from (select ac_code, charge_date, amount, datediff('day', charge_date, current_date) age from receivables) a"
+            + " left join flat f on f.fid = a.ac_code"
+            + " group by a.ac_code, f.owner having sum(a.amount) > 0 order by sum(a.amount) desc, a.ac_code";
+
+    /**
+     * An amount a flat was charged, or paid in advance if negative.
+     */
+    public static class Charge {
+
+        public String acCode;
+        public java.sql.Date chargeDate;
+        public int amount;
+
+        public Charge(String acCode, java.sql.Date chargeDate, int amount) {
+            this.acCode = acCode;
+            this.chargeDate = chargeDate;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * What a flat owes, by how long it has been owed.
+     */
+    public static class Aging {
+
+        public String acCode;
+        public String owner;
+        public long current;
+        public long days31To60;
+        public long days61To90;
+        public long over90;
+        public long total;
+        public java.sql.Date oldest;
+    }
+
+    private final Connection con;
+
+    public ReceivablesDao(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * Adds the charges of a bill run, first setting each against any advance
+     * the flat has paid. Runs in the caller's transaction.
+     */
+    public void charge(List<Charge> charges) throws SQLException {
+        Map<String, Charge> credits = new HashMap<>();
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("select ac_code, charge_date, amount from receivables where amount < 0")) {
+            while (rs.next()) {
+                credits.put(rs.getString(1), new Charge(rs.getString(1), rs.getDate(2), rs.getInt(3)));
+            }
+        }
+        List<Charge> rows = new ArrayList<>(charges.size());
+        List<Charge> used = new ArrayList<>();
+        for (Charge c : charges) {
+            Charge credit = credits.remove(c.acCode);
+            if (credit == null) {
+                rows.add(c);
+                continue;
+            }
+            used.add(credit);
+            int net = c.amount + credit.amount;
+            if (net > 0) {
+                rows.add(new Charge(c.acCode, c.chargeDate, net));
+            } else if (net < 0) {
+                rows.add(new Charge(credit.acCode, credit.chargeDate, net));
+            }
+        }
+        if (!used.isEmpty()) {
+            try (PreparedStatement ps = con.prepareStatement("delete from receivables where ac_code = ? and charge_date = ?")) {
+                for (Charge credit : used) {
+                    ps.setString(1, credit.acCode);
+                    ps.setDate(2, credit.chargeDate);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+        add(rows);
+    }
+
+    /**
+     * Adds the amounts to the flats' rows for their dates, inserting the rows
+     * that do not exist yet.
+     */
+    private void add(List<Charge> rows) throws SQLException {
+        List<Charge> missing = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("update receivables set amount = amount + ? where ac_code = ? and charge_date = ?")) {
+            for (int from = 0; from < rows.size(); from += BillDao.BATCH_SIZE) {
+                List<Charge> batch = rows.subList(from, Math.min(rows.size(), from + BillDao.BATCH_SIZE));
+                for (Charge c : batch) {
+                    ps.setInt(1, c.amount);
+                    ps.setString(2, c.acCode);
+                    ps.setDate(3, c.chargeDate);
+                    ps.addBatch();
+                }
+                int[] updated = ps.executeBatch();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        missing.add(batch.get(i));
+                    }
+                }
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement("insert into receivables(ac_code, charge_date, amount) values(?,?,?)")) {
+            int pending = 0;
+            for (Charge c : missing) {
+                ps.setString(1, c.acCode);
+                ps.setDate(2, c.chargeDate);
+                ps.setInt(3, c.amount);
+                ps.addBatch();
+                if (++pending == BillDao.BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Pays off the flat's oldest charges with an amount received on
+     * {@code day}. Runs in the caller's transaction.
+     */
+    public void pay(String acCode, java.sql.Date day, int amount) throws SQLException {
+        if (amount <= 0) {
+            return;
+        }
+        int left = amount;
+        Charge credit = null;
+        try (PreparedStatement update = con.prepareStatement("update receivables set amount = ? where ac_code = ? and charge_date = ?");
+                PreparedStatement delete = con.prepareStatement("delete from receivables where ac_code = ? and charge_date = ?")) {
+            for (Charge c : open(acCode)) {
+                if (c.amount < 0) {
+                    credit = c;
+                } else if (left >= c.amount) {
+                    delete.setString(1, acCode);
+                    delete.setDate(2, c.chargeDate);
+                    delete.executeUpdate();
+                    left -= c.amount;
+                } else if (left > 0) {
+                    update.setInt(1, c.amount - left);
+                    update.setString(2, acCode);
+                    update.setDate(3, c.chargeDate);
+                    update.executeUpdate();
+                    left = 0;
+                }
+            }
+        }
+        if (left > 0) {
+            // paid more than was owed; kept against the next bill
+            add(Collections.singletonList(new Charge(acCode, credit != null ? credit.chargeDate : day, -left)));
+        }
+    }
+
+    /**
+     * The flat's outstanding charges, oldest first.
+     */
+    public List<Charge> open(String acCode) throws SQLException {
+        List<Charge> charges = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("select charge_date, amount from receivables where ac_code = ? order by charge_date")) {
+            ps.setString(1, acCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    charges.add(new Charge(acCode, rs.getDate(1), rs.getInt(2)));
+                }
+            }
+        }
+        return charges;
+    }
+
+    /**
+     * Every flat that owes money today, with what it owes by age: up to 30
+     * days, 31 to 60, 61 to 90 and over 90. Largest debts first. Only the
+     * open charges are kept, so there is no such view for a past date.
+     */
+    public List<Aging> defaulters() throws SQLException {
+        List<Aging> flats = new ArrayList<>();
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery(AGING)) {
+            while (rs.next()) {
+                Aging a = new Aging();
+                a.acCode = rs.getString(1);
+                a.owner = rs.getString(2);
+                a.current = rs.getLong(3);
+                a.days31To60 = rs.getLong(4);
+                a.days61To90 = rs.getLong(5);
+                a.over90 = rs.getLong(6);
+                a.total = rs.getLong(7);
+                a.oldest = rs.getDate(8);
+                flats.add(a);
+            }
+        }
+        return flats;
+    }
+
+    /**
+     * Recomputes receivables from the bills, for when bills were changed
+     * outside the application.
+     */
+    public void rebuild() throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (Statement st = con.createStatement()) {
+            for (String sql : REBUILD) {
+                st.execute(sql);
+            }
+            con.commit();
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+}
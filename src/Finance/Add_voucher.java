@@ -5,13 +5,14 @@
  */
 package Finance;
 
+import Dao.BankBookDao;
+import Dao.CashBookDao;
+import Others.Number_allocator;
+import Others.Reference_data;
 import com.ezware.dialog.task.TaskDialogs;
 import java.awt.event.ItemEvent;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -402,30 +403,24 @@ public class Add_voucher extends javax.swing.JFrame {
             ev = evt;
             cash.setSelected(true);
             jRadioButton3.setSelected(true);
-            Connection con = Others.Database.connect();
-            Statement st = con.createStatement();
-            ResultSet rs = st.executeQuery("select code from account_code");
             account_code.removeAllItems();
             jComboBox1.removeAllItems();
             jComboBox2.removeAllItems();
             account_code.addItem("Select account code");
             jComboBox1.addItem("Select bank");
             jComboBox2.addItem("Select member's bank");
-            while (rs.next()) {
-                account_code.addItem(rs.getString("code"));
+            for (String code : Reference_data.accountCodes()) {
+                account_code.addItem(code);
             }
-            rs = st.executeQuery("select fid from flat");
-            while (rs.next()) {
-                account_code.addItem(rs.getString("fid"));
+            for (String fid : Reference_data.flatIds()) {
+                account_code.addItem(fid);
             }
-            rs = st.executeQuery("select * from bank");
-            while (rs.next()) {
-                jComboBox1.addItem(rs.getString("name"));
-                cb1bkid.add(rs.getString("bkid"));
+            for (Reference_data.Bank b : Reference_data.banks()) {
+                jComboBox1.addItem(b.name);
+                cb1bkid.add(b.bkid);
             }
-            rs = st.executeQuery("select * from member_bank");
-            while (rs.next()) {
-                jComboBox2.addItem(rs.getString("name"));
+            for (String name : Reference_data.memberBanks()) {
+                jComboBox2.addItem(name);
             }
             
             //to be removed later
@@ -440,26 +435,15 @@ public class Add_voucher extends javax.swing.JFrame {
         // TODO add your handling code here:
         if (cash.isSelected() == true && jRadioButton5.isSelected() == false) {
             try {
-
-                Connection con = Others.Database.connect();
-                Statement st = con.createStatement();
-                ResultSet rs = st.executeQuery("select code from account_code");
                 account_code.removeAllItems();
                 account_code.addItem("Select account code");
-                while (rs.next()) {
-                    account_code.addItem(rs.getString("code"));
+                for (String code : Reference_data.accountCodes()) {
+                    account_code.addItem(code);
                 }
-                rs = st.executeQuery("select fid from flat");
-                while (rs.next()) {
-                    account_code.addItem(rs.getString("fid"));
+                for (String fid : Reference_data.flatIds()) {
+                    account_code.addItem(fid);
                 }
-                con = Others.Database.connect();
-                st = con.createStatement();
-                rs = st.executeQuery("select max(voucher_no) from cash_book");
-                rs.next();
-                int vno = rs.getInt(1);
-                vno += 1;
-                voucher_no.setText(Integer.toString(vno));
+                voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.CASH_VOUCHER)));
                 cheque_date.setEnabled(false);
                 jTextField2.setEnabled(false);
                 jComboBox2.setEnabled(false);
@@ -470,15 +454,12 @@ public class Add_voucher extends javax.swing.JFrame {
             }
         } else if (cash.isSelected() == true && jRadioButton5.isSelected() == true) {
             try {
-                Connection con = Others.Database.connect();
-                Statement st = con.createStatement();
-                ResultSet rs = st.executeQuery("select * from bank");
                 account_code.removeAllItems();
                 account_code.addItem("Select account code");
                 acbkid.clear();
-                while (rs.next()) {
-                    account_code.addItem(rs.getString("name"));
-                    acbkid.add(rs.getString("bkid"));
+                for (Reference_data.Bank b : Reference_data.banks()) {
+                    account_code.addItem(b.name);
+                    acbkid.add(b.bkid);
                 }
                 cheque_date.setEnabled(false);
                 jTextField2.setEnabled(false);
@@ -494,13 +475,7 @@ public class Add_voucher extends javax.swing.JFrame {
         // TODO add your handling code here:
         if (bank.isSelected() == true && jRadioButton5.isSelected() == false) {
             try {
-                Connection con = Others.Database.connect();
-                Statement st = con.createStatement();
-                ResultSet rs = st.executeQuery("select max(voucher_no) from bank_book");
-                rs.next();
-                int vno = rs.getInt(1);
-                vno += 1;
-                voucher_no.setText(Integer.toString(vno));
+                voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.BANK_VOUCHER)));
                 cheque_date.setEnabled(true);
                 jTextField2.setEnabled(true);
                 jComboBox2.setEnabled(true);
@@ -511,25 +486,18 @@ public class Add_voucher extends javax.swing.JFrame {
             }
         } else if (bank.isSelected() == true && jRadioButton5.isSelected() == true) {
             try {
-                Connection con = Others.Database.connect();
-                Statement st = con.createStatement();
-                ResultSet rs = st.executeQuery("select max(voucher_no) from bank_book");
-                rs.next();
-                int vno = rs.getInt(1);
-                vno += 1;
-                voucher_no.setText(Integer.toString(vno));
+                voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.BANK_VOUCHER)));
                 cheque_date.setEnabled(true);
                 jTextField2.setEnabled(true);
                 jComboBox2.setEnabled(true);
                 jComboBox1.setEnabled(true);
                 account_code.removeAllItems();
                 account_code.addItem("Select account code");
-                rs = st.executeQuery("select * from bank");
                 acbkid.clear();
-                while (rs.next()) {
-                    if (!rs.getString("name").equals(jComboBox1.getSelectedItem().toString())) {
-                        account_code.addItem(rs.getString("name"));
-                        acbkid.add(rs.getString("bkid"));
+                for (Reference_data.Bank b : Reference_data.banks()) {
+                    if (!b.name.equals(jComboBox1.getSelectedItem().toString())) {
+                        account_code.addItem(b.name);
+                        acbkid.add(b.bkid);
                     }
                 }
                 account_code.addItem("CASH");
@@ -550,11 +518,7 @@ public class Add_voucher extends javax.swing.JFrame {
     }//GEN-LAST:event_jButton1ActionPerformed
     private void casd() {
 
-        try {
-            Connection con = Others.Database.connect();
-            Statement st = con.createStatement();
-            PreparedStatement ps;
-            ResultSet rs;
+        try (Connection con = Others.Database.connect()) {
             Matcher num = Others.Constant.NUM.matcher(voucher_no.getText() + jTextField2.getText() + jTextField3.getText());
             if (cash.isSelected() && jRadioButton3.isSelected()) {
                 if (!voucher_date.getDate().toString().equals("") && !voucher_no.getText().equals("") && !account_code.getSelectedItem().toString().equals("Select account code") && !jTextField3.getText().equals("")) {
@@ -566,14 +530,14 @@ public class Add_voucher extends javax.swing.JFrame {
                         String strDate = sdf.format(dd);
                         java.util.Date date = sdf.parse(strDate);
                         java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                        ps = con.prepareStatement("insert into cash_book values(?,?,?,?,?,?)");
-                        ps.setInt(1, Integer.parseInt(voucher_no.getText()));
-                        ps.setDate(2, sqlDate);
-                        ps.setString(3, account_code.getSelectedItem().toString());
-                        ps.setString(4, jTextArea1.getText().equals("") ? " " : jTextArea1.getText());
-                        ps.setString(5, "P");
-                        ps.setInt(6, Integer.parseInt(jTextField3.getText()));
-                        ps.execute();
+                        CashBookDao.Voucher v = new CashBookDao.Voucher();
+                        v.voucherNo = Number_allocator.next(Number_allocator.CASH_VOUCHER);
+                        v.voucherDate = sqlDate;
+                        v.accountCode = account_code.getSelectedItem().toString();
+                        v.particulars = jTextArea1.getText();
+                        v.debitCredit = "P";
+                        v.amount = Integer.parseInt(jTextField3.getText());
+                        int count = new CashBookDao(con).insert(v);
                         //2nd effect
                         /*ps = con.prepareStatement("insert into cash_book values(?,?,?,?,?,?)");
                         ps.setInt(1, Integer.parseInt(voucher_no.getText()) + 1);
@@ -583,8 +547,8 @@ public class Add_voucher extends javax.swing.JFrame {
                         ps.setString(5, "R");
                         ps.setInt(6, Integer.parseInt(jTextField3.getText()));
                         ps.execute();*/
-                        if (ps.getUpdateCount() > 0) {
-                            JOptionPane.showMessageDialog(parentFrame, "Record entered");
+                        if (count > 0) {
+                            JOptionPane.showMessageDialog(parentFrame, "Record entered as voucher no. " + v.voucherNo);
                             jComboBox1.setSelectedIndex(0);
                             jComboBox2.setSelectedIndex(0);
                             account_code.setSelectedIndex(0);
@@ -595,11 +559,9 @@ public class Add_voucher extends javax.swing.JFrame {
                             voucher_date.setDate(null);
                             cheque_date.setDate(null);
                             formWindowOpened(ev);
-                            rs = st.executeQuery("select max(voucher_no) from bank_book");
-                            rs.next();
-                            int vno = rs.getInt(1);
-                            vno += 1;
-                            voucher_no.setText(Integer.toString(vno));
+                            if (voucher_no.getText().equals("")) {
+                                voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.CASH_VOUCHER)));
+                            }
                         } else {
                             JOptionPane.showMessageDialog(parentFrame, "Some error occured");
                         }
@@ -619,14 +581,14 @@ public class Add_voucher extends javax.swing.JFrame {
                         String strDate = sdf.format(dd);
                         java.util.Date date = sdf.parse(strDate);
                         java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                        ps = con.prepareStatement("insert into cash_book values(?,?,?,?,?,?)");
-                        ps.setInt(1, Integer.parseInt(voucher_no.getText()));
-                        ps.setDate(2, sqlDate);
-                        ps.setString(3, "CASH");
-                        ps.setString(4, jTextArea1.getText().equals("") ? " " : jTextArea1.getText());
-                        ps.setString(5, "R");
-                        ps.setInt(6, Integer.parseInt(jTextField3.getText()));
-                        ps.execute();
+                        CashBookDao.Voucher v = new CashBookDao.Voucher();
+                        v.voucherNo = Number_allocator.next(Number_allocator.CASH_VOUCHER);
+                        v.voucherDate = sqlDate;
+                        v.accountCode = "CASH";
+                        v.particulars = jTextArea1.getText();
+                        v.debitCredit = "R";
+                        v.amount = Integer.parseInt(jTextField3.getText());
+                        int count = new CashBookDao(con).insert(v);
                         //2nd effect 
                         /*ps = con.prepareStatement("insert into cash_book values(?,?,?,?,?,?)");
                         ps.setInt(1, Integer.parseInt(voucher_no.getText()) + 1);
@@ -636,8 +598,8 @@ public class Add_voucher extends javax.swing.JFrame {
                         ps.setString(5, "P");
                         ps.setInt(6, Integer.parseInt(jTextField3.getText()));
                         ps.execute();*/
-                        if (ps.getUpdateCount() > 0) {
-                            JOptionPane.showMessageDialog(parentFrame, "Record entered");
+                        if (count > 0) {
+                            JOptionPane.showMessageDialog(parentFrame, "Record entered as voucher no. " + v.voucherNo);
                             jComboBox1.setSelectedIndex(0);
                             jComboBox2.setSelectedIndex(0);
                             account_code.setSelectedIndex(0);
@@ -648,11 +610,9 @@ public class Add_voucher extends javax.swing.JFrame {
                             voucher_date.setDate(null);
                             cheque_date.setDate(null);
                             formWindowOpened(ev);
-                            rs = st.executeQuery("select max(voucher_no) from bank_book");
-                            rs.next();
-                            int vno = rs.getInt(1);
-                            vno += 1;
-                            voucher_no.setText(Integer.toString(vno));
+                            if (voucher_no.getText().equals("")) {
+                                voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.CASH_VOUCHER)));
+                            }
                         } else {
                             JOptionPane.showMessageDialog(parentFrame, "Some error occured");
                         }
@@ -704,11 +664,9 @@ public class Add_voucher extends javax.swing.JFrame {
                             voucher_date.setDate(null);
                             cheque_date.setDate(null);
                             formWindowOpened(ev);
-                            rs = st.executeQuery("select max(voucher_no) from bank_book");
-                            rs.next();
-                            int vno = rs.getInt(1);
-                            vno += 1;
-                            voucher_no.setText(Integer.toString(vno));
+                            if (voucher_no.getText().equals("")) {
+                                voucher_no.setText(Integer.toString(Number_allocator.next(Number_allocator.CASH_VOUCHER)));
+                            }
                         } else {
                             JOptionPane.showMessageDialog(parentFrame, "Some error occured");
                         }
@@ -728,22 +686,22 @@ public class Add_voucher extends javax.swing.JFrame {
                         String strDate = sdf.format(dd);
                         java.util.Date date = sdf.parse(strDate);
                         java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                        ps = con.prepareStatement("insert into bank_book values(?,?,?,?,?,?,?,?,?)");
-                        ps.setInt(1, Integer.parseInt(voucher_no.getText()));
-                        ps.setDate(2, sqlDate);
-                        ps.setString(3, account_code.getSelectedItem().toString());
-                        ps.setString(4, jTextArea1.getText().equals("") ? " " : jTextArea1.getText());
-                        ps.setInt(5, Integer.parseInt(jTextField2.getText()));
+                        BankBookDao.Voucher v = new BankBookDao.Voucher();
+                        v.voucherNo = Number_allocator.next(Number_allocator.BANK_VOUCHER);
+                        v.voucherDate = sqlDate;
+                        v.accountCode = account_code.getSelectedItem().toString();
+                        v.particulars = jTextArea1.getText();
+                        v.chequeNo = Integer.parseInt(jTextField2.getText());
                         dd = cheque_date.getDate();
                         sdf = new SimpleDateFormat("ddmmyyyy");
                         strDate = sdf.format(dd);
                         date = sdf.parse(strDate);
                         sqlDate = new java.sql.Date(date.getTime());
-                        ps.setDate(6, sqlDate);
-                        ps.setString(7, "P");
-                        ps.setString(8, cb1bkid.get(jComboBox1.getSelectedIndex()));
-                        ps.setInt(9, Integer.parseInt(jTextField3.getText()));
-                        ps.execute();
+                        v.chequeDate = sqlDate;
+                        v.debitCredit = "P";
+                        v.chequeBank = cb1bkid.get(jComboBox1.getSelectedIndex());
+                        v.amount = Integer.parseInt(jTextField3.getText());
+                        int count = new BankBookDao(con).insert(v);
                         //2nd effect
                         /*ps = con.prepareStatement("insert into bank_book values(?,?,?,?,?,?,?,?,?)");
                         ps.setInt(1, Integer.parseInt(voucher_no.getText()));
@@ -761,8 +719,8 @@ public class Add_voucher extends javax.swing.JFrame {
                         ps.setString(8, jComboBox2.getSelectedItem().toString());
                         ps.setInt(9, Integer.parseInt(jTextField3.getText()));
                         ps.execute();*/
-                        if (ps.getUpdateCount() > 0) {
-                            JOptionPane.showMessageDialog(parentFrame, "Record entered");
+                        if (count > 0) {
+                            JOptionPane.showMessageDialog(parentFrame, "Record entered as voucher no. " + v.voucherNo);
                             jComboBox1.setSelectedIndex(0);
                             jComboBox2.setSelectedIndex(0);
                             account_code.setSelectedIndex(0);
@@ -773,11 +731,9 @@ public class Add_voucher extends javax.swing.JFrame {
                             voucher_date.setDate(null);
                             cheque_date.setDate(null);
                             formWindowOpened(ev);
-                            rs = st.executeQuery("select max(voucher_no) from bank_book");
-                            rs.next();
-                            int vno = rs.getInt(1);
-                            vno += 1;
-                            voucher_no.setText(Integer.toString(vno));
+                            if (voucher_no.getText().equals("")) {
+                                voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.CASH_VOUCHER)));
+                            }
                         } else {
                             JOptionPane.showMessageDialog(parentFrame, "Some error occured");
                         }
@@ -797,22 +753,22 @@ public class Add_voucher extends javax.swing.JFrame {
                         String strDate = sdf.format(dd);
                         java.util.Date date = sdf.parse(strDate);
                         java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                        ps = con.prepareStatement("insert into bank_book values(?,?,?,?,?,?,?,?,?)");
-                        ps.setInt(1, Integer.parseInt(voucher_no.getText()));
-                        ps.setDate(2, sqlDate);
-                        ps.setString(3, account_code.getSelectedItem().toString());
-                        ps.setString(4, jTextArea1.getText().equals("") ? " " : jTextArea1.getText());
-                        ps.setInt(5, Integer.parseInt(jTextField2.getText()));
+                        BankBookDao.Voucher v = new BankBookDao.Voucher();
+                        v.voucherNo = Number_allocator.next(Number_allocator.BANK_VOUCHER);
+                        v.voucherDate = sqlDate;
+                        v.accountCode = account_code.getSelectedItem().toString();
+                        v.particulars = jTextArea1.getText();
+                        v.chequeNo = Integer.parseInt(jTextField2.getText());
                         dd = cheque_date.getDate();
                         sdf = new SimpleDateFormat("ddmmyyyy");
                         strDate = sdf.format(dd);
                         date = sdf.parse(strDate);
                         sqlDate = new java.sql.Date(date.getTime());
-                        ps.setDate(6, sqlDate);
-                        ps.setString(7, "R");
-                        ps.setString(8, cb1bkid.get(jComboBox1.getSelectedIndex()));
-                        ps.setInt(9, Integer.parseInt(jTextField3.getText()));
-                        ps.execute();
+                        v.chequeDate = sqlDate;
+                        v.debitCredit = "R";
+                        v.chequeBank = cb1bkid.get(jComboBox1.getSelectedIndex());
+                        v.amount = Integer.parseInt(jTextField3.getText());
+                        int count = new BankBookDao(con).insert(v);
                         //2nd effect
                         /*ps = con.prepareStatement("insert into bank_book values(?,?,?,?,?,?,?,?,?)");
                         ps.setInt(1, Integer.parseInt(voucher_no.getText()));
@@ -830,8 +786,8 @@ public class Add_voucher extends javax.swing.JFrame {
                         ps.setString(8, jComboBox2.getSelectedItem().toString());
                         ps.setInt(9, Integer.parseInt(jTextField3.getText()));
                         ps.execute();*/
-                        if (ps.getUpdateCount() > 0) {
-                            JOptionPane.showMessageDialog(parentFrame, "Record entered");
+                        if (count > 0) {
+                            JOptionPane.showMessageDialog(parentFrame, "Record entered as voucher no. " + v.voucherNo);
                             jComboBox1.setSelectedIndex(0);
                             jComboBox2.setSelectedIndex(0);
                             account_code.setSelectedIndex(0);
@@ -842,11 +798,9 @@ public class Add_voucher extends javax.swing.JFrame {
                             voucher_date.setDate(null);
                             cheque_date.setDate(null);
                             formWindowOpened(ev);
-                            rs = st.executeQuery("select max(voucher_no) from bank_book");
-                            rs.next();
-                            int vno = rs.getInt(1);
-                            vno += 1;
-                            voucher_no.setText(Integer.toString(vno));
+                            if (voucher_no.getText().equals("")) {
+                                voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.CASH_VOUCHER)));
+                            }
                         } else {
                             JOptionPane.showMessageDialog(parentFrame, "Some error occured");
                         }
@@ -976,15 +930,12 @@ public class Add_voucher extends javax.swing.JFrame {
         if (jRadioButton5.isSelected() == true) {
             if (cash.isSelected()) {
                 try {
-                    Connection con = Others.Database.connect();
-                    Statement st = con.createStatement();
-                    ResultSet rs = st.executeQuery("select * from bank");
                     account_code.removeAllItems();
                     acbkid.clear();
                     account_code.addItem("Select account code");
-                    while (rs.next()) {
-                        account_code.addItem(rs.getString("name"));
-                        acbkid.add(rs.getString("bkid"));
+                    for (Reference_data.Bank b : Reference_data.banks()) {
+                        account_code.addItem(b.name);
+                        acbkid.add(b.bkid);
                     }
                 } catch (ClassNotFoundException | SQLException ex) {
                     TaskDialogs.showException(ex);//Dialogs.showError(this, ex.getMessage(), ex);
@@ -992,18 +943,14 @@ public class Add_voucher extends javax.swing.JFrame {
 
             } else if (bank.isSelected()) {
                 try {
-                    Connection con = Others.Database.connect();
-                    Statement st = con.createStatement();
-                    ResultSet rs;
                     account_code.removeAllItems();
                     account_code.addItem("Select account code");
                     account_code.addItem("CASH");
-                    rs = st.executeQuery("select * from bank");
                     acbkid.clear();
-                    while (rs.next()) {
-                        if (!rs.getString("name").equals(jComboBox1.getSelectedItem().toString())) {
-                            account_code.addItem(rs.getString("name"));
-                            acbkid.add(rs.getString("bkid"));
+                    for (Reference_data.Bank b : Reference_data.banks()) {
+                        if (!b.name.equals(jComboBox1.getSelectedItem().toString())) {
+                            account_code.addItem(b.name);
+                            acbkid.add(b.bkid);
                         }
                     }
                 } catch (ClassNotFoundException | SQLException ex) {
@@ -1016,16 +963,12 @@ public class Add_voucher extends javax.swing.JFrame {
             try {
                 account_code.removeAllItems();
                 //cash.setSelected(true);jRadioButton3.setSelected(true);
-                Connection con = Others.Database.connect();
-                Statement st = con.createStatement();
-                ResultSet rs = st.executeQuery("select code from account_code");
                 account_code.addItem("Select account code");
-                while (rs.next()) {
-                    account_code.addItem(rs.getString("code"));
+                for (String code : Reference_data.accountCodes()) {
+                    account_code.addItem(code);
                 }
-                rs = st.executeQuery("select fid from flat");
-                while (rs.next()) {
-                    account_code.addItem(rs.getString("fid"));
+                for (String fid : Reference_data.flatIds()) {
+                    account_code.addItem(fid);
                 }
             } catch (SQLException | ClassNotFoundException ex) {
                 TaskDialogs.showException(ex);//Dialogs.showError(this, ex.getMessage(), ex);
@@ -1039,18 +982,14 @@ public class Add_voucher extends javax.swing.JFrame {
         if (bank.isSelected() == true && jRadioButton5.isSelected() == true) {
             if (evt.getStateChange() == ItemEvent.SELECTED) {
                 try {
-                    Connection con = Others.Database.connect();
-                    Statement st = con.createStatement();
-                    ResultSet rs;
                     account_code.removeAllItems();
                     account_code.addItem("Select account code");
                     account_code.addItem("CASH");
-                    rs = st.executeQuery("select * from bank");
                     acbkid.clear();
-                    while (rs.next()) {
-                        if (!rs.getString("name").equals(jComboBox1.getSelectedItem().toString())) {
-                            account_code.addItem(rs.getString("name"));
-                            acbkid.add(rs.getString("bkid"));
+                    for (Reference_data.Bank b : Reference_data.banks()) {
+                        if (!b.name.equals(jComboBox1.getSelectedItem().toString())) {
+                            account_code.addItem(b.name);
+                            acbkid.add(b.bkid);
                         }
                     }
                 } catch (ClassNotFoundException | SQLException ex) {
@@ -6,11 +6,11 @@
 package Finance;
 
 import com.ezware.dialog.task.TaskDialogs;
+import Dao.BankBookDao;
+import Others.Number_allocator;
+import Others.Reference_data;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -325,34 +325,30 @@ public class Bank_voucher_entry extends javax.swing.JFrame {
         Matcher num = Others.Constant.NUM.matcher(voucher_no.getText() + jTextField2.getText() + jTextField3.getText());
         if (!voucher_date.getDate().toString().equals("") && !voucher_no.getText().equals("") && !account_code.getSelectedItem().toString().equals("Select account code") && !jTextField2.getText().equals("") && !jTextField3.getText().equals("") && !jComboBox2.getSelectedItem().toString().equals("Select member's bank")) {
             if (num.matches()) {
-                try {
-                    Connection con = Others.Database.connect();
-                    Statement st = con.createStatement();
-                    PreparedStatement ps;
-                    ResultSet rs;
+                try (Connection con = Others.Database.connect()) {
                     Date dd = voucher_date.getDate();
                     SimpleDateFormat sdf = new SimpleDateFormat("ddMMyyyy");
                     String strDate = sdf.format(dd);
                     java.util.Date date = sdf.parse(strDate);
                     java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                    ps = con.prepareStatement("insert into bank_book values(?,?,?,?,?,?,?,?,?)");
-                    ps.setInt(1, Integer.parseInt(voucher_no.getText()));
-                    ps.setDate(2, sqlDate);
-                    ps.setString(3, account_code.getSelectedItem().toString());
-                    ps.setString(4, jTextArea1.getText().equals("") ? " " : jTextArea1.getText());
-                    ps.setInt(5, Integer.parseInt(jTextField2.getText()));
+                    BankBookDao.Voucher v = new BankBookDao.Voucher();
+                    v.voucherNo = Number_allocator.next(Number_allocator.BANK_VOUCHER);
+                    v.voucherDate = sqlDate;
+                    v.accountCode = account_code.getSelectedItem().toString();
+                    v.particulars = jTextArea1.getText();
+                    v.chequeNo = Integer.parseInt(jTextField2.getText());
                     dd = cheque_date.getDate();
                     sdf = new SimpleDateFormat("ddMMyyyy");
                     strDate = sdf.format(dd);
                     date = sdf.parse(strDate);
                     sqlDate = new java.sql.Date(date.getTime());
-                    ps.setDate(6, sqlDate);
-                    ps.setString(7, jRadioButton3.isSelected() ? "Debit" : "Credit");
-                    ps.setString(8, jComboBox2.getSelectedItem().toString());
-                    ps.setInt(9, Integer.parseInt(jTextField3.getText()));
-                    ps.execute();
-                    if (ps.getUpdateCount() > 0) {
-                        JOptionPane.showMessageDialog(parentFrame, "Record entered");
+                    v.chequeDate = sqlDate;
+                    v.debitCredit = jRadioButton3.isSelected() ? "Debit" : "Credit";
+                    v.chequeBank = jComboBox2.getSelectedItem().toString();
+                    v.amount = Integer.parseInt(jTextField3.getText());
+                    int count = new BankBookDao(con).insert(v);
+                    if (count > 0) {
+                        JOptionPane.showMessageDialog(parentFrame, "Record entered as voucher no. " + v.voucherNo);
                         jComboBox2.setSelectedIndex(0);
                         account_code.setSelectedIndex(0);
                         voucher_no.setText("");
@@ -362,11 +358,6 @@ public class Bank_voucher_entry extends javax.swing.JFrame {
                         voucher_date.setDate(null);
                         cheque_date.setDate(null);
                         formWindowOpened(ev);
-                        rs = st.executeQuery("select max(voucher_no) from bank_book");
-                        rs.next();
-                        int vno = rs.getInt(1);
-                        vno += 1;
-                        voucher_no.setText(Integer.toString(vno));
                     } else {
                         JOptionPane.showMessageDialog(parentFrame, "Some error occured");
                     }
@@ -393,33 +384,20 @@ public class Bank_voucher_entry extends javax.swing.JFrame {
             // TODO add your handling code here:
             ev = evt;
             jRadioButton3.setSelected(true);
-            Connection con = Others.Database.connect();
-            Statement st = con.createStatement();
-            ResultSet rs = st.executeQuery("select code from account_code");
             account_code.removeAllItems();
             jComboBox2.removeAllItems();
             account_code.addItem("Select account code");
             jComboBox2.addItem("Select member's bank");
-            while (rs.next()) {
-                account_code.addItem(rs.getString("code"));
+            for (String code : Reference_data.accountCodes()) {
+                account_code.addItem(code);
             }
-            rs = st.executeQuery("select fid from flat");
-            while (rs.next()) {
-                account_code.addItem(rs.getString("fid"));
+            for (String fid : Reference_data.flatIds()) {
+                account_code.addItem(fid);
             }
-            rs = st.executeQuery("select * from member_bank");
-            while (rs.next()) {
-                jComboBox2.addItem(rs.getString("name"));
+            for (String name : Reference_data.memberBanks()) {
+                jComboBox2.addItem(name);
             }
-            rs = st.executeQuery("select * from member_bank");
-            while (rs.next()) {
-                jComboBox2.addItem(rs.getString("name"));
-            }
-            rs = st.executeQuery("select max(voucher_no) from bank_book");
-                        rs.next();
-                        int vno = rs.getInt(1);
-                        vno += 1;
-                        voucher_no.setText(Integer.toString(vno));
+            voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.BANK_VOUCHER)));
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(Bank_voucher_entry.class.getName()).log(Level.SEVERE, null, ex);
         }
@@ -0,0 +1,178 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Finance;
+
+import Dao.BillDao;
+import Dao.ReceivablesDao;
+import Others.Number_allocator;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Raises the monthly maintenance bill of every flat in one pass.
+ *
+ * Flats, what each still owes and the interest rate are read with a constant
+ * number of queries, interest and arrears are worked out in memory and all
+ * bills are written with batched inserts inside a single transaction, which
+ * also adds each bill's charge to the flat's receivables.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Billing_engine {
+
+    /**
+     * Outcome of one billing run.
+     */
+    public static class Result {
+
+        public final List<String> flats = new ArrayList<>();
+        public java.sql.Date periodStart;
+        public int skipped;
+        public long millis;
+
+        public int getBills() {
+            return flats.size();
+        }
+
+        public double getBillsPerSecond() {
+            return millis == 0 ? flats.size() * 1000.0 : flats.size() * 1000.0 / millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d bills in %.2f s (%.0f bills/s), %d already billed",
+                    flats.size(), millis / 1000.0, getBillsPerSecond(), skipped);
+        }
+    }
+
+    private static class Bill {
+
+        String fid;
+        int maintenance;
+        int interest;
+        int balance;
+    }
+
+    /**
+     * Raises bills for the month containing {@code billDate}. Flats that
+     * already have a bill for that month are left alone.
+     */
+    public Result raise(Connection con, Date billDate) throws ClassNotFoundException, SQLException {
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+        java.sql.Date periodStart = firstDayOfMonth(billDate, 0);
+        java.sql.Date periodEnd = lastDayOfMonth(billDate);
+        result.periodStart = periodStart;
+
+        int rate = 0;
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("select interest_charged from administrator")) {
+            if (rs.next()) {
+                rate = rs.getInt(1);
+            }
+        }
+
+        List<Bill> bills = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(
+                "select f.fid, f.total, r.outstanding, c.bid"
+                + " from flat f"
+                + " left join (select ac_code, sum(amount) outstanding from receivables group by ac_code) r on r.ac_code = f.fid"
+                + " left join bills c on c.ac_code = f.fid and c.bill_period_start = ?"
+                + " order by f.fid")) {
+            ps.setDate(1, periodStart);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getObject(4) != null) {
+                        result.skipped++;
+                        continue;
+                    }
+                    Bill b = new Bill();
+                    b.fid = rs.getString(1);
+                    b.maintenance = rs.getInt(2);
+                    int previousBalance = rs.getInt(3);
+                    b.interest = previousBalance > 0 ? (b.maintenance * rate) / 100 : 0;
+                    b.balance = b.maintenance + previousBalance + b.interest;
+                    bills.add(b);
+                }
+            }
+        }
+
+        if (bills.isEmpty()) {
+            result.millis = System.currentTimeMillis() - start;
+            return result;
+        }
+        int bid = Number_allocator.reserve(Number_allocator.BILL, bills.size());
+        java.sql.Date today = toSqlDate(Calendar.getInstance());
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            List<BillDao.Bill> rows = new ArrayList<>(bills.size());
+            List<ReceivablesDao.Charge> charges = new ArrayList<>(bills.size());
+            for (Bill b : bills) {
+                BillDao.Bill row = new BillDao.Bill();
+                row.bid = bid++;
+                row.acCode = b.fid;
+                row.billDate = today;
+                row.periodStart = periodStart;
+                row.periodEnd = periodEnd;
+                row.billAmount = b.maintenance + b.interest;
+                row.receivedAmount = 0;
+                row.status = "pending";
+                row.balanceAmount = b.balance;
+                row.interestAmount = b.interest;
+                rows.add(row);
+                charges.add(new ReceivablesDao.Charge(b.fid, periodStart, row.billAmount));
+            }
+            new BillDao(con).insert(rows);
+            new ReceivablesDao(con).charge(charges);
+            con.commit();
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+
+        for (Bill b : bills) {
+            result.flats.add(b.fid);
+        }
+        result.millis = System.currentTimeMillis() - start;
+        Logger.getLogger(Billing_engine.class.getName()).log(Level.INFO, "Raised {0}", result);
+        return result;
+    }
+
+    static java.sql.Date firstDayOfMonth(Date date, int monthOffset) {
+        Calendar c = Calendar.getInstance();
+        c.setTime(date);
+        c.set(Calendar.DAY_OF_MONTH, 1);
+        c.add(Calendar.MONTH, monthOffset);
+        return toSqlDate(c);
+    }
+
+    static java.sql.Date lastDayOfMonth(Date date) {
+        Calendar c = Calendar.getInstance();
+        c.setTime(date);
+        c.set(Calendar.DAY_OF_MONTH, c.getActualMaximum(Calendar.DAY_OF_MONTH));
+        return toSqlDate(c);
+    }
+
+    static java.sql.Date toSqlDate(Calendar c) {
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+        return new java.sql.Date(c.getTimeInMillis());
+    }
+}
@@ -6,11 +6,11 @@
 package Finance;
 
 import com.ezware.dialog.task.TaskDialogs;
+import Dao.CashBookDao;
+import Others.Number_allocator;
+import Others.Reference_data;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -271,36 +271,28 @@ public class Cash_voucher_entry extends javax.swing.JFrame {
         if (!voucher_date.getDate().toString().equals("") && !account_code.getSelectedItem().toString().equals("Select account code") && !jTextField3.getText().equals("")) {
             if (num.matches()) {
 
-                try {
-                    Connection con = Others.Database.connect();
-                    Statement st = con.createStatement();
-                    PreparedStatement ps;
-                    ResultSet rs;
+                try (Connection con = Others.Database.connect()) {
                     Date dd = voucher_date.getDate();
                     SimpleDateFormat sdf = new SimpleDateFormat("ddMMyyyy");
                     String strDate = sdf.format(dd);
                     java.util.Date date = sdf.parse(strDate);
                     java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                    ps = con.prepareStatement("insert into cash_book values(?,?,?,?,?,?)");
-                    ps.setInt(1, Integer.parseInt(voucher_no.getText()));
-                    ps.setDate(2, sqlDate);
-                    ps.setString(3, account_code.getSelectedItem().toString());
-                    ps.setString(4, jTextArea1.getText().equals("") ? " " : jTextArea1.getText());
-                    ps.setString(5, jRadioButton3.isSelected() ? "Debit" : "Credit");
-                    ps.setInt(6, Integer.parseInt(jTextField3.getText()));
-                    ps.execute();
-                    if (ps.getUpdateCount() > 0) {
-                        JOptionPane.showMessageDialog(parentFrame, "Record entered");
+                    CashBookDao.Voucher v = new CashBookDao.Voucher();
+                    v.voucherNo = Number_allocator.next(Number_allocator.CASH_VOUCHER);
+                    v.voucherDate = sqlDate;
+                    v.accountCode = account_code.getSelectedItem().toString();
+                    v.particulars = jTextArea1.getText();
+                    v.debitCredit = jRadioButton3.isSelected() ? "Debit" : "Credit";
+                    v.amount = Integer.parseInt(jTextField3.getText());
+                    int count = new CashBookDao(con).insert(v);
+                    if (count > 0) {
+                        JOptionPane.showMessageDialog(parentFrame, "Record entered as voucher no. " + v.voucherNo);
                         account_code.setSelectedIndex(0);
                         voucher_no.setText("");
                         jTextField3.setText("");
                         jTextArea1.setText("");
                         voucher_date.setDate(null);
-                        rs = st.executeQuery("select max(voucher_no) from cash_book");
-                        rs.next();
-                        int vno = rs.getInt(1);
-                        vno += 1;
-                        voucher_no.setText(Integer.toString(vno));
+                        voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.CASH_VOUCHER)));
                     } else {
                         JOptionPane.showMessageDialog(parentFrame, "Some error occured");
                     }
@@ -326,23 +318,15 @@ public class Cash_voucher_entry extends javax.swing.JFrame {
         try {
             // TODO add your handling code here:
             jRadioButton3.setSelected(true);
-            Connection con = Others.Database.connect();
-            Statement st = con.createStatement();
-            ResultSet rs = st.executeQuery("select code from account_code");
             account_code.removeAllItems();
             account_code.addItem("Select account code");
-            while (rs.next()) {
-                account_code.addItem(rs.getString("code"));
+            for (String code : Reference_data.accountCodes()) {
+                account_code.addItem(code);
             }
-            rs = st.executeQuery("select fid from flat");
-            while (rs.next()) {
-                account_code.addItem(rs.getString("fid"));
+            for (String fid : Reference_data.flatIds()) {
+                account_code.addItem(fid);
             }
-            rs = st.executeQuery("select max(voucher_no) from cash_book");
-            rs.next();
-            int vno = rs.getInt(1);
-            vno += 1;
-            voucher_no.setText(Integer.toString(vno));
+            voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.CASH_VOUCHER)));
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(Cash_voucher_entry.class.getName()).log(Level.SEVERE, null, ex);
         }
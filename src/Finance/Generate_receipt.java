@@ -5,6 +5,13 @@
  */
 package Finance;
 
+import Others.Background_task;
+import Others.PdfViewer;
+import Others.Task_runner;
+import Reports.Bulk_report;
+import Reports.Report_registry;
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -15,16 +22,9 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JRPrintPage;
-import net.sf.jasperreports.engine.JasperFillManager;
-import net.sf.jasperreports.engine.JasperPrint;
-import net.sf.jasperreports.view.JasperViewer;
 
 /**
  *
@@ -32,47 +32,57 @@ import net.sf.jasperreports.view.JasperViewer;
  */
 public class Generate_receipt {
 
-    public Generate_receipt(JFrame parent) {
-        try {
-            Connection con = Others.Database.connect();
-            Statement st = con.createStatement();
-            ResultSet rs = st.executeQuery("select fid from flat");
-            ArrayList<String> accode = new ArrayList<>();
-            int bid = 0, count = 0;
-            while (rs.next()) {
-                accode.add(rs.getString("fid"));
+    public static final Bulk_report MAINTENANCE_RECEIPT = new Bulk_report(Report_registry.MAINTENANCE_RECEIPT,
+            "select bills.bid, bills.ac_code, bills.bill_date, bills.received_amount, flat.owner"
+            + " from bills, flat where bills.ac_code = flat.fid and bills.ac_code in (%s)"
+            + " order by bills.ac_code, bills.bid",
+            "ac_code", "accode");
+
+    public Generate_receipt(final JFrame parent) {
+        Task_runner.submit(new Background_task<File>("Generating receipts") {
+            @Override
+            protected File work() throws ClassNotFoundException, SQLException, JRException, ParseException, IOException {
+                try (Connection con = Others.Database.connect()) {
+                    return MAINTENANCE_RECEIPT.renderPdf(con, flats(con), parameters());
+                }
             }
-            boolean flag = true;
-            JasperPrint mainjprint = null, jprint = null;
-            for (int i = 0; i < accode.size(); i++) {
-                HashMap hm = new HashMap();
-                hm.put("accode", accode.get(i));
-                hm.put("previousmonth", firstDayOfPreviousMonth());
-                hm.put("ststus", "pending");
-                String jasperFileName = Raise_all_bills.class.getResource("/Resource/Maintenance_receipt.jasper").toString().substring(6);
-                if (flag == true) {
-                    mainjprint = (JasperPrint) JasperFillManager.fillReport(jasperFileName, hm, con);
-                    flag = false;
-                } else {
-                    jprint = (JasperPrint) JasperFillManager.fillReport(jasperFileName, hm, con);
-                    List pages = jprint.getPages();
-                    for (int j = 0; j < pages.size(); j++) {
-                        JRPrintPage object = (JRPrintPage) pages.get(j);
-                        mainjprint.addPage(object);
-                    }
+
+            @Override
+            protected void succeeded(File receipts) {
+                JOptionPane.showMessageDialog(parent,"Receipt sucessfully generated");
+                if (receipts != null) {
+                    PdfViewer.view(receipts.getPath());
                 }
             }
-            JOptionPane.showMessageDialog(parent,"Receipt sucessfully generated");
-            JasperViewer jv = new JasperViewer(mainjprint, false);
-            jv.setVisible(true);
-            jv.toFront();
-        } catch (ClassNotFoundException | SQLException | JRException | ParseException ex) {
-            Logger.getLogger(Generate_receipt.class.getName()).log(Level.SEVERE, null, ex);
+        });
+    }
+
+    /**
+     * Every flat; their receipts are printed in account code order.
+     */
+    public static ArrayList<String> flats(Connection con) throws SQLException {
+        ArrayList<String> accode = new ArrayList<>();
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("select fid from flat")) {
+            while (rs.next()) {
+                accode.add(rs.getString("fid"));
+            }
         }
+        return accode;
+    }
 
+    /**
+     * Report parameters for this month's receipts, which cover last month's
+     * bills.
+     */
+    public static HashMap<String, Object> parameters() throws ParseException {
+        HashMap<String, Object> hm = new HashMap<>();
+        hm.put("previousmonth", firstDayOfPreviousMonth());
+        hm.put("ststus", "pending");
+        return hm;
     }
 
-    private java.sql.Date firstDayOfPreviousMonth() throws ParseException {
+    private static java.sql.Date firstDayOfPreviousMonth() throws ParseException {
         Calendar c = Calendar.getInstance();
         c.set(Calendar.DAY_OF_MONTH, c.getActualMinimum(Calendar.DAY_OF_MONTH));
         c.set(Calendar.MONTH, c.get(Calendar.MONTH) - 1);
@@ -6,11 +6,12 @@
 package Finance;
 
 import com.ezware.dialog.task.TaskDialogs;
+import Others.Background_task;
+import Others.Number_allocator;
+import Others.Reference_data;
+import Others.Task_runner;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -291,68 +292,54 @@ public class Maintenance_receipt extends javax.swing.JFrame {
         if (!voucher_date.getDate().toString().equals("") && !voucher_no.getText().equals("") && !account_code.getSelectedItem().toString().equals("Select flat") && !jTextField2.getText().equals("") && !jTextField3.getText().equals("") && !jComboBox2.getSelectedItem().toString().equals("Select member's bank")) {
             if (num.matches()) {
                 try {
-                    Connection con = Others.Database.connect();
-                    Statement st = con.createStatement();
-                    PreparedStatement ps;
-                    ResultSet rs;
-                    Date dd = voucher_date.getDate();
+                    final Receipt_posting.Receipt r = new Receipt_posting.Receipt();
+                                        Date dd = voucher_date.getDate();
                     SimpleDateFormat sdf = new SimpleDateFormat("ddMMyyyy");
                     String strDate = sdf.format(dd);
                     java.util.Date date = sdf.parse(strDate);
-                    java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                    ps = con.prepareStatement("insert into bank_book values(?,?,?,?,?,?,?,?,?)");
-                    ps.setInt(1, Integer.parseInt(voucher_no.getText()));
-                    ps.setDate(2, sqlDate);
-                    ps.setString(3, account_code.getSelectedItem().toString());
-                    ps.setString(4, jTextArea1.getText().equals("") ? " " : jTextArea1.getText());
-                    ps.setInt(5, Integer.parseInt(jTextField2.getText()));
+                    r.voucherDate = new java.sql.Date(date.getTime());
+                    r.flat = account_code.getSelectedItem().toString();
+                    r.particulars = jTextArea1.getText();
+                    r.chequeNo = Integer.parseInt(jTextField2.getText());
                     dd = cheque_date.getDate();
-                    sdf = new SimpleDateFormat("ddMMyyyy");
                     strDate = sdf.format(dd);
                     date = sdf.parse(strDate);
-                    sqlDate = new java.sql.Date(date.getTime());
-                    ps.setDate(6, sqlDate);
-                    ps.setString(7, "Credit");
-                    ps.setString(8, jComboBox2.getSelectedItem().toString());
-                    ps.setInt(9, Integer.parseInt(jTextField3.getText()));
-                    ps.execute();
-                    
-                    rs = st.executeQuery("select * from bills where ac_code = '" + account_code.getSelectedItem().toString() + "' and bill_period_start = '" + firstDayOfPreviousMonth() + "'");
-                    rs.next();
-                    int balance_amount = rs.getInt("balance_amount");
-                    ps = con.prepareStatement("update bills set received_amount = ?,status = ?,balance_amount = ? where ac_code = ?");
-                    ps.setInt(1,Integer.parseInt(jTextField3.getText()));
-                    if(balance_amount - Integer.parseInt(jTextField3.getText()) > 0) {
-                        ps.setString(2,"pending");
-                    } else if(balance_amount - Integer.parseInt(jTextField3.getText()) <= 0) {
-                        ps.setString(2,"paid");
-                    }
-                    ps.setInt(3,balance_amount - Integer.parseInt(jTextField3.getText()));
-                    ps.setString(4,account_code.getSelectedItem().toString());
-                    ps.execute();
-                    
-                    if (ps.getUpdateCount() > 0) {
-                        JOptionPane.showMessageDialog(parentFrame, "Record entered");
-                        jComboBox2.setSelectedIndex(0);
-                        account_code.setSelectedIndex(0);
-                        voucher_no.setText("");
-                        jTextField2.setText("");
-                        jTextField3.setText("");
-                        jTextArea1.setText("");
-                        voucher_date.setDate(null);
-                        cheque_date.setDate(null);
-                        formWindowOpened(ev);
-                        rs = st.executeQuery("select max(voucher_no) from bank_book");
-                        rs.next();
-                        int vno = rs.getInt(1);
-                        vno += 1;
-                        voucher_no.setText(Integer.toString(vno));
-                        //generate receipt
-                        Generate_receipt gr = new Generate_receipt(this);
-                    } else {
-                        JOptionPane.showMessageDialog(parentFrame, "Some error occured");
-                    }
-                } catch (ClassNotFoundException | SQLException | ParseException ex) {
+                    r.chequeDate = new java.sql.Date(date.getTime());
+                    r.memberBank = jComboBox2.getSelectedItem().toString();
+                    r.amount = Integer.parseInt(jTextField3.getText());
+                    r.period = firstDayOfPreviousMonth();
+                    jButton1.setEnabled(false);
+                    Task_runner.submit(new Background_task<Receipt_posting.Result>("Posting receipt", false) {
+                        @Override
+                        protected Receipt_posting.Result work() throws ClassNotFoundException, SQLException {
+                            // the number shown is provisional; the voucher takes its own when it is saved
+                            r.voucherNo = Number_allocator.next(Number_allocator.BANK_VOUCHER);
+                            try (Connection con = Others.Database.connect()) {
+                                return new Receipt_posting().post(con, r);
+                            }
+                        }
+
+                        @Override
+                        protected void succeeded(Receipt_posting.Result result) {
+                            JOptionPane.showMessageDialog(parentFrame, "Record entered as voucher no. " + r.voucherNo);
+                            jComboBox2.setSelectedIndex(0);
+                            account_code.setSelectedIndex(0);
+                            jTextField2.setText("");
+                            jTextField3.setText("");
+                            jTextArea1.setText("");
+                            voucher_date.setDate(null);
+                            cheque_date.setDate(null);
+                            voucher_no.setText(Integer.toString(result.nextVoucherNo));
+                            //generate receipt
+                            Generate_receipt gr = new Generate_receipt(Maintenance_receipt.this);
+                        }
+
+                        @Override
+                        protected void finished() {
+                            jButton1.setEnabled(true);
+                        }
+                    });
+                } catch (ParseException ex) {
                     Logger.getLogger(Maintenance_receipt.class.getName()).log(Level.SEVERE, null, ex);
                 }
             } else {
@@ -374,33 +361,17 @@ public class Maintenance_receipt extends javax.swing.JFrame {
         try {
             // TODO add your handling code here:
             ev = evt;
-            Connection con = Others.Database.connect();
-            Statement st = con.createStatement();
-            ResultSet rs;// = st.executeQuery("select code from account_code");
             account_code.removeAllItems();
             jComboBox2.removeAllItems();
             account_code.addItem("Select flat");
             jComboBox2.addItem("Select member's bank");
-//            while (rs.next()) {
-//                account_code.addItem(rs.getString("code"));
-//            }
-            rs = st.executeQuery("select fid from flat");
-            while (rs.next()) {
-                account_code.addItem(rs.getString("fid"));
+            for (String fid : Reference_data.flatIds()) {
+                account_code.addItem(fid);
             }
-            rs = st.executeQuery("select * from member_bank");
-            while (rs.next()) {
-                jComboBox2.addItem(rs.getString("name"));
+            for (String name : Reference_data.memberBanks()) {
+                jComboBox2.addItem(name);
             }
-            rs = st.executeQuery("select * from member_bank");
-            while (rs.next()) {
-                jComboBox2.addItem(rs.getString("name"));
-            }
-            rs = st.executeQuery("select max(voucher_no) from bank_book");
-                        rs.next();
-                        int vno = rs.getInt(1);
-                        vno += 1;
-                        voucher_no.setText(Integer.toString(vno));
+            voucher_no.setText(Integer.toString(Number_allocator.peek(Number_allocator.BANK_VOUCHER)));
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(Maintenance_receipt.class.getName()).log(Level.SEVERE, null, ex);
         }
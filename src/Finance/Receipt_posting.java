@@ -0,0 +1,136 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Finance;
+
+import Dao.BankBookDao;
+import Dao.BillDao;
+import Dao.ReceivablesDao;
+import Others.Number_allocator;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Posts maintenance receipts: the cheque is credited to bank_book and the
+ * flat's bill for the given period is settled, all in one transaction.
+ *
+ * The bill is settled with a single update that works from the stored
+ * balance, so nothing is read back first, and only the bill of that period
+ * is touched. A batch, e.g. a day's cheque deposit, is written with one
+ * batched insert and one batched update; if any flat has no bill for its
+ * period nothing is posted. The amount also pays off the flat's oldest
+ * outstanding charges in its receivables.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Receipt_posting {
+
+    /**
+     * One cheque received from a flat.
+     */
+    public static class Receipt {
+
+        /**
+         * Voucher number, or 0 to take the next one from the bank voucher
+         * sequence.
+         */
+        public int voucherNo;
+        public java.sql.Date voucherDate;
+        public String flat;
+        public String particulars;
+        public int chequeNo;
+        public java.sql.Date chequeDate;
+        public String memberBank;
+        public int amount;
+        /**
+         * First day of the billing period the cheque pays for.
+         */
+        public java.sql.Date period;
+    }
+
+    /**
+     * Outcome of a posting.
+     */
+    public static class Result {
+
+        public int posted;
+        /**
+         * Voucher number to offer for the next receipt.
+         */
+        public int nextVoucherNo;
+
+        @Override
+        public String toString() {
+            return posted + " receipts posted, next voucher " + nextVoucherNo;
+        }
+    }
+
+    public Result post(Connection con, Receipt receipt) throws ClassNotFoundException, SQLException {
+        return post(con, Collections.singletonList(receipt));
+    }
+
+    public Result post(Connection con, List<Receipt> receipts) throws ClassNotFoundException, SQLException {
+        Result result = new Result();
+        int unnumbered = 0;
+        for (Receipt r : receipts) {
+            if (r.voucherNo == 0) {
+                unnumbered++;
+            }
+        }
+        int voucherNo = unnumbered == 0 ? 0 : Number_allocator.reserve(Number_allocator.BANK_VOUCHER, unnumbered);
+
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            List<BankBookDao.Voucher> credits = new ArrayList<>(receipts.size());
+            List<BillDao.Payment> payments = new ArrayList<>(receipts.size());
+            for (Receipt r : receipts) {
+                if (r.voucherNo == 0) {
+                    r.voucherNo = voucherNo++;
+                }
+                BankBookDao.Voucher v = new BankBookDao.Voucher();
+                v.voucherNo = r.voucherNo;
+                v.voucherDate = r.voucherDate;
+                v.accountCode = r.flat;
+                v.particulars = r.particulars;
+                v.chequeNo = r.chequeNo;
+                v.chequeDate = r.chequeDate;
+                v.debitCredit = "Credit";
+                v.chequeBank = r.memberBank;
+                v.amount = r.amount;
+                credits.add(v);
+                payments.add(new BillDao.Payment(r.flat, r.period, r.amount));
+            }
+            new BankBookDao(con).insert(credits);
+            int[] settled = new BillDao(con).settle(payments);
+            for (int i = 0; i < settled.length; i++) {
+                if (settled[i] == 0) {
+                    Receipt r = receipts.get(i);
+                    throw new SQLException("No bill for " + r.flat + " for the period starting " + r.period);
+                }
+            }
+            ReceivablesDao receivables = new ReceivablesDao(con);
+            for (Receipt r : receipts) {
+                receivables.pay(r.flat, r.voucherDate, r.amount);
+            }
+            con.commit();
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+
+        result.posted = receipts.size();
+        result.nextVoucherNo = Number_allocator.peek(Number_allocator.BANK_VOUCHER);
+        Logger.getLogger(Receipt_posting.class.getName()).log(Level.INFO, "Posted {0}", result);
+        return result;
+    }
+}
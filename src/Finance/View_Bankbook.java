@@ -5,17 +5,15 @@
  */
 package Finance;
 
+import Dao.LedgerDao;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFrame;
-import javax.swing.table.DefaultTableModel;
 
 /**
  *
@@ -24,9 +22,9 @@ import javax.swing.table.DefaultTableModel;
 public class View_Bankbook extends javax.swing.JFrame {
 
     JFrame parentFrame;
-    DefaultTableModel model;
-    Statement st;
-    ResultSet rs;
+    Voucher_table_model model = new Voucher_table_model("bank_book",
+            "voucher_no, voucher_date, account_code, particulars, cheque_no, cheque_date, cheque_bank, debit_credit, amount",
+            new String[]{"Voucher No.", "Voucher Date", "Account Code", "Description", "Cheque No.", "Cheque Date", "Drawn on", "Mode", "Amount"});
     Boolean flag;
 
     /**
@@ -34,11 +32,13 @@ public class View_Bankbook extends javax.swing.JFrame {
      */
     public View_Bankbook() {
         initComponents();
+        jTable1.setModel(model);
     }
 
     public View_Bankbook(JFrame frame) {
         parentFrame = frame;
         initComponents();
+        jTable1.setModel(model);
     }
 
     /**
@@ -59,6 +59,7 @@ public class View_Bankbook extends javax.swing.JFrame {
         jDateChooser2 = new com.toedter.calendar.JDateChooser();
         jLabel2 = new javax.swing.JLabel();
         jLabel3 = new javax.swing.JLabel();
+        jLabel4 = new javax.swing.JLabel();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
         addWindowListener(new java.awt.event.WindowAdapter() {
@@ -148,26 +149,33 @@ public class View_Bankbook extends javax.swing.JFrame {
         gridBagConstraints.insets = new java.awt.Insets(5, 15, 5, 0);
         getContentPane().add(jLabel3, gridBagConstraints);
 
+        jLabel4.setText(" ");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 3;
+        gridBagConstraints.gridwidth = 4;
+        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
+        gridBagConstraints.insets = new java.awt.Insets(5, 15, 0, 15);
+        getContentPane().add(jLabel4, gridBagConstraints);
+
         pack();
         setLocationRelativeTo(null);
     }// </editor-fold>//GEN-END:initComponents
 
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         try {
-            // TODO add your handling code here:
             flag = true;
-            Connection con = Others.Database.connect();
-            st = con.createStatement();
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            rs = st.executeQuery("Select * from bank_book");
-            model = (DefaultTableModel) jTable1.getModel();
-            while (rs.next()) {
-                model.addRow(new Object[]{rs.getObject(1), rs.getObject(2), rs.getObject(3), rs.getObject(4), rs.getObject(5), rs.getObject(6), rs.getObject(8), rs.getObject(7), rs.getObject(9)});
+            Date from;
+            try (Connection con = Others.Database.connect();
+                    Statement st = con.createStatement();
+                    ResultSet rs = st.executeQuery("select ac_period_from from administrator")) {
+                rs.next();
+                from = rs.getDate(1);
             }
-            rs = st.executeQuery("select ac_period_from from administrator");
-            rs.next();
-            jDateChooser1.setDate(rs.getDate(1));
+            jDateChooser1.setDate(from);
             jDateChooser2.setDate(new Date());
+            model.setRange(from, jDateChooser2.getDate());
+            showBalances();
             flag = false;
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(View_Bankbook.class.getName()).log(Level.SEVERE, null, ex);
@@ -175,40 +183,38 @@ public class View_Bankbook extends javax.swing.JFrame {
     }//GEN-LAST:event_formWindowOpened
 
     private void jDateChooser1PropertyChange(java.beans.PropertyChangeEvent evt) {//GEN-FIRST:event_jDateChooser1PropertyChange
-        try {
-            if ("date".equals(evt.getPropertyName()) && flag == false) {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                rs = st.executeQuery("Select * from bank_book where voucher_date between '" + sdf.format(jDateChooser1.getDate()) + "' and '" + sdf.format(jDateChooser2.getDate()) + "'");
-                model = (DefaultTableModel) jTable1.getModel();
-                for (int i = model.getRowCount() - 1; i >= 0; i--) {
-                    model.removeRow(i);
-                }
-                while (rs.next()) {
-                    model.addRow(new Object[]{rs.getObject(1), rs.getObject(2), rs.getObject(3), rs.getObject(4), rs.getObject(5), rs.getObject(6), rs.getObject(8), rs.getObject(7), rs.getObject(9)});
-                }
-            }
-        } catch (SQLException ex) {
-            Logger.getLogger(View_Bankbook.class.getName()).log(Level.SEVERE, null, ex);
+        if ("date".equals(evt.getPropertyName()) && flag == false) {
+            dateRangeChanged();
         }
     }//GEN-LAST:event_jDateChooser1PropertyChange
 
     private void jDateChooser2PropertyChange(java.beans.PropertyChangeEvent evt) {//GEN-FIRST:event_jDateChooser2PropertyChange
-        // TODO add your handling code here:
+        if ("date".equals(evt.getPropertyName()) && flag == false) {
+            dateRangeChanged();
+        }
+    }//GEN-LAST:event_jDateChooser2PropertyChange
+
+    private void dateRangeChanged() {
+        if (jDateChooser1.getDate() == null || jDateChooser2.getDate() == null) {
+            return;
+        }
         try {
-            if ("date".equals(evt.getPropertyName()) && flag == false) {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                rs = st.executeQuery("Select * from bank_book where voucher_date between '" + sdf.format(jDateChooser1.getDate()) + "' and '" + sdf.format(jDateChooser2.getDate()) + "'");
-                for (int i = model.getRowCount() - 1; i >= 0; i--) {
-                    model.removeRow(i);
-                }
-                while (rs.next()) {
-                    model.addRow(new Object[]{rs.getObject(1), rs.getObject(2), rs.getObject(3), rs.getObject(4), rs.getObject(5), rs.getObject(6), rs.getObject(8), rs.getObject(7), rs.getObject(9)});
-                }
-            }
-        } catch (SQLException ex) {
+            model.setRange(jDateChooser1.getDate(), jDateChooser2.getDate());
+            showBalances();
+        } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(View_Bankbook.class.getName()).log(Level.SEVERE, null, ex);
         }
-    }//GEN-LAST:event_jDateChooser2PropertyChange
+    }
+
+    private void showBalances() throws ClassNotFoundException, SQLException {
+        LedgerDao.Totals t;
+        try (Connection con = Others.Database.connect()) {
+            t = new LedgerDao(con).totals(LedgerDao.BANK, null, new java.sql.Date(jDateChooser1.getDate().getTime()),
+                    new java.sql.Date(jDateChooser2.getDate().getTime()));
+        }
+        jLabel4.setText("Opening balance " + t.opening + "    Receipts " + t.credit + "    Payments " + t.debit
+                + "    Closing balance " + t.closing);
+    }
 
     private void formWindowClosed(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowClosed
         // TODO add your handling code here:
@@ -259,6 +265,7 @@ public class View_Bankbook extends javax.swing.JFrame {
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
+    private javax.swing.JLabel jLabel4;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JSeparator jSeparator1;
     private javax.swing.JTable jTable1;
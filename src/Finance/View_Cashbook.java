@@ -5,17 +5,16 @@
  */
 package Finance;
 
+import Dao.LedgerDao;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFrame;
-import javax.swing.table.DefaultTableModel;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JasperCompileManager;
 import net.sf.jasperreports.engine.JasperFillManager;
@@ -31,9 +30,9 @@ import net.sf.jasperreports.view.JasperViewer;
 public class View_Cashbook extends javax.swing.JFrame {
 
     JFrame parentFrame;
-    DefaultTableModel model;
-    Statement st;
-    ResultSet rs;
+    Voucher_table_model model = new Voucher_table_model("cash_book",
+            "voucher_no, voucher_date, account_code, particulars, debit_credit, amount",
+            new String[]{"Voucher No.", "Voucher Date", "Account Code", "Description", "Mode", "Amount"});
     Boolean flag;
 
     /**
@@ -41,11 +40,13 @@ public class View_Cashbook extends javax.swing.JFrame {
      */
     public View_Cashbook() {
         initComponents();
+        jTable1.setModel(model);
     }
 
     public View_Cashbook(JFrame frame) {
         parentFrame = frame;
         initComponents();
+        jTable1.setModel(model);
     }
 
     /**
@@ -66,6 +67,7 @@ public class View_Cashbook extends javax.swing.JFrame {
         jDateChooser2 = new com.toedter.calendar.JDateChooser();
         jLabel2 = new javax.swing.JLabel();
         jLabel3 = new javax.swing.JLabel();
+        jLabel4 = new javax.swing.JLabel();
         jButton1 = new javax.swing.JButton();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
@@ -156,6 +158,15 @@ public class View_Cashbook extends javax.swing.JFrame {
         gridBagConstraints.insets = new java.awt.Insets(5, 15, 5, 0);
         getContentPane().add(jLabel3, gridBagConstraints);
 
+        jLabel4.setText(" ");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 3;
+        gridBagConstraints.gridwidth = 5;
+        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
+        gridBagConstraints.insets = new java.awt.Insets(5, 15, 0, 15);
+        getContentPane().add(jLabel4, gridBagConstraints);
+
         jButton1.setText("Print");
         jButton1.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -175,20 +186,18 @@ public class View_Cashbook extends javax.swing.JFrame {
 
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         try {
-            // TODO add your handling code here:
             flag = true;
-            Connection con = Others.Database.connect();
-            st = con.createStatement();
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            rs = st.executeQuery("Select * from cash_book");
-            model = (DefaultTableModel) jTable1.getModel();
-            while (rs.next()) {
-                model.addRow(new Object[]{rs.getObject(1), rs.getObject(2), rs.getObject(3), rs.getObject(4), rs.getObject(5), rs.getObject(6)});
+            Date from;
+            try (Connection con = Others.Database.connect();
+                    Statement st = con.createStatement();
+                    ResultSet rs = st.executeQuery("select ac_period_from from administrator")) {
+                rs.next();
+                from = rs.getDate(1);
             }
-            rs = st.executeQuery("select ac_period_from from administrator");
-            rs.next();
-            jDateChooser1.setDate(rs.getDate(1));
+            jDateChooser1.setDate(from);
             jDateChooser2.setDate(new Date());
+            model.setRange(from, jDateChooser2.getDate());
+            showBalances();
             flag = false;
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(View_Cashbook.class.getName()).log(Level.SEVERE, null, ex);
@@ -196,40 +205,38 @@ public class View_Cashbook extends javax.swing.JFrame {
     }//GEN-LAST:event_formWindowOpened
 
     private void jDateChooser1PropertyChange(java.beans.PropertyChangeEvent evt) {//GEN-FIRST:event_jDateChooser1PropertyChange
-        try {
-            if ("date".equals(evt.getPropertyName()) && flag == false) {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                rs = st.executeQuery("Select * from cash_book where voucher_date between '" + sdf.format(jDateChooser1.getDate()) + "' and '" + sdf.format(jDateChooser2.getDate()) + "'");
-                model = (DefaultTableModel) jTable1.getModel();
-                for (int i = model.getRowCount() - 1; i >= 0; i--) {
-                    model.removeRow(i);
-                }
-                while (rs.next()) {
-                    model.addRow(new Object[]{rs.getObject(1), rs.getObject(2), rs.getObject(3), rs.getObject(4), rs.getObject(5), rs.getObject(6)});
-                }
-            }
-        } catch (SQLException ex) {
-            Logger.getLogger(View_Cashbook.class.getName()).log(Level.SEVERE, null, ex);
+        if ("date".equals(evt.getPropertyName()) && flag == false) {
+            dateRangeChanged();
         }
     }//GEN-LAST:event_jDateChooser1PropertyChange
 
     private void jDateChooser2PropertyChange(java.beans.PropertyChangeEvent evt) {//GEN-FIRST:event_jDateChooser2PropertyChange
-        // TODO add your handling code here:
+        if ("date".equals(evt.getPropertyName()) && flag == false) {
+            dateRangeChanged();
+        }
+    }//GEN-LAST:event_jDateChooser2PropertyChange
+
+    private void dateRangeChanged() {
+        if (jDateChooser1.getDate() == null || jDateChooser2.getDate() == null) {
+            return;
+        }
         try {
-            if ("date".equals(evt.getPropertyName()) && flag == false) {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                rs = st.executeQuery("Select * from cash_book where voucher_date between '" + sdf.format(jDateChooser1.getDate()) + "' and '" + sdf.format(jDateChooser2.getDate()) + "'");
-                for (int i = model.getRowCount() - 1; i >= 0; i--) {
-                    model.removeRow(i);
-                }
-                while (rs.next()) {
-                    model.addRow(new Object[]{rs.getObject(1), rs.getObject(2), rs.getObject(3), rs.getObject(4), rs.getObject(5), rs.getObject(6)});
-                }
-            }
-        } catch (SQLException ex) {
+            model.setRange(jDateChooser1.getDate(), jDateChooser2.getDate());
+            showBalances();
+        } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(View_Cashbook.class.getName()).log(Level.SEVERE, null, ex);
         }
-    }//GEN-LAST:event_jDateChooser2PropertyChange
+    }
+
+    private void showBalances() throws ClassNotFoundException, SQLException {
+        LedgerDao.Totals t;
+        try (Connection con = Others.Database.connect()) {
+            t = new LedgerDao(con).totals(LedgerDao.CASH, null, new java.sql.Date(jDateChooser1.getDate().getTime()),
+                    new java.sql.Date(jDateChooser2.getDate().getTime()));
+        }
+        jLabel4.setText("Opening balance " + t.opening + "    Receipts " + t.credit + "    Payments " + t.debit
+                + "    Closing balance " + t.closing);
+    }
 
     private void formWindowClosed(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowClosed
         // TODO add your handling code here:
@@ -284,6 +291,7 @@ public class View_Cashbook extends javax.swing.JFrame {
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
+    private javax.swing.JLabel jLabel4;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JSeparator jSeparator1;
     private javax.swing.JTable jTable1;
@@ -0,0 +1,161 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Finance;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Read-only table model over a voucher book (cash_book, bank_book) that only
+ * fetches the rows the table actually paints.
+ *
+ * Rows are ordered by voucher_date, voucher_no and read in pages. A page
+ * whose predecessor has already been read is fetched with a keyset condition
+ * on the last key of that page; a page reached by jumping (dragging the
+ * scroll bar) falls back to an offset. Only the most recently used pages are
+ * kept in memory.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Voucher_table_model extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int PAGE_SIZE = 200;
+    static final int CACHED_PAGES = 16;
+
+    private final String[] columnNames;
+    private final String select;
+    private final String count;
+    private final String keysetPage;
+    private final String offsetPage;
+
+    private java.sql.Date from;
+    private java.sql.Date to;
+    private int rowCount;
+    private final Map<Integer, List<Object[]>> pages = new LinkedHashMap<Integer, List<Object[]>>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    // last (voucher_date, voucher_no) of each page read so far, so the next page can seek
+    private final Map<Integer, Object[]> lastKeys = new LinkedHashMap<>();
+
+    /**
+     * @param table voucher book to show
+     * @param columns columns to select, in display order; the first two must
+     * be voucher_no and voucher_date
+     * @param columnNames headers shown in the table
+     */
+    public Voucher_table_model(String table, String columns, String[] columnNames) {
+        this.columnNames = columnNames;
+        this.select = "select " + columns + " from " + table + " where voucher_date between ? and ?";
+        this.count = "select count(*) from " + table + " where voucher_date between ? and ?";
+        this.keysetPage = select + " and (voucher_date > ? or (voucher_date = ? and voucher_no > ?))"
+                + " order by voucher_date, voucher_no limit ?";
+        this.offsetPage = select + " order by voucher_date, voucher_no limit ? offset ?";
+    }
+
+    /**
+     * Switches to another date range and resets the table in one event.
+     */
+    public void setRange(Date from, Date to) throws SQLException, ClassNotFoundException {
+        this.from = new java.sql.Date(from.getTime());
+        this.to = new java.sql.Date(to.getTime());
+        pages.clear();
+        lastKeys.clear();
+        try (Connection con = Others.Database.connect();
+                PreparedStatement ps = con.prepareStatement(count)) {
+            ps.setDate(1, this.from);
+            ps.setDate(2, this.to);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                rowCount = rs.getInt(1);
+            }
+        }
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        List<Object[]> page = page(rowIndex / PAGE_SIZE);
+        int i = rowIndex % PAGE_SIZE;
+        return i < page.size() ? page.get(i)[columnIndex] : null;
+    }
+
+    private List<Object[]> page(int index) {
+        List<Object[]> page = pages.get(index);
+        if (page == null) {
+            try {
+                page = fetch(index);
+            } catch (ClassNotFoundException | SQLException ex) {
+                Logger.getLogger(Voucher_table_model.class.getName()).log(Level.SEVERE, null, ex);
+                page = new ArrayList<>();
+            }
+            pages.put(index, page);
+        }
+        return page;
+    }
+
+    private List<Object[]> fetch(int index) throws ClassNotFoundException, SQLException {
+        Object[] after = lastKeys.get(index - 1);
+        List<Object[]> page = new ArrayList<>(PAGE_SIZE);
+        try (Connection con = Others.Database.connect();
+                PreparedStatement ps = con.prepareStatement(after != null ? keysetPage : offsetPage)) {
+            ps.setDate(1, from);
+            ps.setDate(2, to);
+            if (after != null) {
+                ps.setObject(3, after[1]);
+                ps.setObject(4, after[1]);
+                ps.setObject(5, after[0]);
+                ps.setInt(6, PAGE_SIZE);
+            } else {
+                ps.setInt(3, PAGE_SIZE);
+                ps.setInt(4, index * PAGE_SIZE);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                int n = columnNames.length;
+                while (rs.next()) {
+                    Object[] row = new Object[n];
+                    for (int c = 0; c < n; c++) {
+                        row[c] = rs.getObject(c + 1);
+                    }
+                    page.add(row);
+                }
+            }
+        }
+        if (!page.isEmpty()) {
+            lastKeys.put(index, page.get(page.size() - 1));
+        }
+        return page;
+    }
+}
@@ -5,12 +5,9 @@
  */
 package Flat;
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.sql.Statement;
+import Others.Background_task;
+import Others.Task_runner;
 import java.util.ArrayList;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -26,7 +23,8 @@ public class Add_room extends javax.swing.JFrame {
      * Variable declaration
      */
     ArrayList <String> wing = new ArrayList<>();
-    ArrayList <String>room = new ArrayList();
+    // every wing's rooms, written together once the last wing is done
+    Flat_provisioning.Layout layout = new Flat_provisioning.Layout();
     int floor = 0;
     JFrame parentFrame;
     /**
@@ -384,16 +382,14 @@ public class Add_room extends javax.swing.JFrame {
         String str = jTextPane2.getText();
         if(!"".equals(jTextField2.getText()) && !"".equals(jTextField3.getText())) {
             if(num.matches()) {
-                jTextPane2.setText(str+jTextField2.getText().toUpperCase()+" - "+jTextField3.getText().toUpperCase()+"\n");
-                for(int i = Integer.parseInt(jTextField2.getText()); i <= Integer.parseInt(jTextField3.getText());i++) {
-                    if(i < 10){
-                        room.add("00"+i+"");
-                    } else if (i < 100) {
-                        room.add("0"+i+"");
-                    } else {
-                        room.add(+i+"");
-                    }
+                try {
+                    layout.addRooms(wing.get(0), Integer.parseInt(jTextField2.getText()), Integer.parseInt(jTextField3.getText()));
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(rootPane, ex.getMessage());
+                    jTextField2.requestFocus();
+                    return;
                 }
+                jTextPane2.setText(str+jTextField2.getText().toUpperCase()+" - "+jTextField3.getText().toUpperCase()+"\n");
                 floor++;
                 jLabel14.setText(floor+"");
                 jTextField2.setText("");
@@ -428,23 +424,7 @@ public class Add_room extends javax.swing.JFrame {
     private void floor_okActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_floor_okActionPerformed
         // TODO add your handling code here:
         if(!"".equals(jTextPane2.getText())) {
-            int executeUpdate1 = 0,executeUpdate2 = 0,executeUpdate3 = 0,executeUpdate4 = 0;
             if(!wing.isEmpty()){
-                String str = wing.get(0);
-                for (String room1 : room) {
-                    try {
-                        //add data to database here:
-                        Connection con = Others.Database.connect();
-                        Statement s = con.createStatement();
-                        executeUpdate1 = s.executeUpdate("insert into flat(fid) values('"+str+room1+"')");
-                        executeUpdate2 = s.executeUpdate("insert into owner(fid) values('"+str+room1+"')");
-                        executeUpdate3 = s.executeUpdate("insert into member_ac_master(code) values('"+str+room1+"')");
-                        executeUpdate4 = s.executeUpdate("insert into parking(fid) values('"+str+room1+"')");
-                    } catch (ClassNotFoundException | SQLException ex) {
-                        Logger.getLogger(Add_room.class.getName()).log(Level.SEVERE, null, ex);
-                    }
-                }
-                room.clear();
                 wing.remove(0);
                 if (!wing.isEmpty()) {
                     jLabel1.setText(wing.get(0));
@@ -452,11 +432,29 @@ public class Add_room extends javax.swing.JFrame {
                     jLabel14.setText("Ground");
                     jTextPane2.setText("");
                     jTextField2.requestFocus();
-                } else if(executeUpdate1 >= 0 && executeUpdate2 >= 0 && executeUpdate3 >= 0 && executeUpdate4 >= 0)   {
-                    JOptionPane.showMessageDialog(rootPane,executeUpdate1+" flats entered");
-                    JOptionPane.showMessageDialog(rootPane,"Wing setup complete");
-                    parentFrame.setEnabled(true);
-                    this.dispose();
+                } else {
+                    floor_ok.setEnabled(false);
+                    Task_runner.submit(new Background_task<Flat_provisioning.Result>("Setting up " + layout.size() + " flats") {
+                        @Override
+                        protected Flat_provisioning.Result work() throws Exception {
+                            return Flat_provisioning.provision(layout);
+                        }
+
+                        @Override
+                        protected void succeeded(Flat_provisioning.Result result) {
+                            JOptionPane.showMessageDialog(rootPane,result.added+" flats entered"
+                                    +(result.skipped > 0 ? ", "+result.skipped+" already existed" : ""));
+                            JOptionPane.showMessageDialog(rootPane,"Wing setup complete");
+                            parentFrame.setEnabled(true);
+                            dispose();
+                        }
+
+                        @Override
+                        protected void failed(Throwable cause) {
+                            super.failed(cause);
+                            floor_ok.setEnabled(true);
+                        }
+                    });
                 }
             }
         } else {
@@ -5,12 +5,13 @@
  */
 package Flat;
 
+import Dao.FlatDao;
+import Dao.MemberDao;
 import Member.Modify_member;
 import Others.*;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -495,10 +496,9 @@ public class Add_room_details extends javax.swing.JFrame {
             // TODO add your handling code here:
             Connection con = Database.connect();
             Statement st2 = con.createStatement();
-            ResultSet rss = st2.executeQuery("select fid from flat");
             jComboBox1.addItem("Select a room");
-            while(rss.next()) {
-                jComboBox1.addItem(rss.getString("fid"));
+            for (String fid : Others.Reference_data.flatIds()) {
+                jComboBox1.addItem(fid);
             }
             
             jComboBox1.addItemListener(new ItemListener(){
@@ -506,18 +506,13 @@ public class Add_room_details extends javax.swing.JFrame {
                 public void itemStateChanged(ItemEvent e){
 
                     if(e.getStateChange()==ItemEvent.SELECTED){
-                        try {
+                        try (Connection con = Others.Database.connect()) {
                             jComboBox2.removeAllItems();
                             l.clear();
-                            Connection con = Others.Database.connect();
-                            Statement st2 = con.createStatement();
-                            ResultSet rss = st2.executeQuery("select first_name,middle_name,last_name,master.mid from master,family where master.mid = family.mid and fid = '"+e.getItem().toString().toUpperCase()+"'");
                             jComboBox2.addItem("Select owner");
-                            String member;
-                            while(rss.next()) {
-                                member = rss.getString("first_name")+" "+rss.getString("middle_name")+" "+rss.getString("last_name");
-                                jComboBox2.addItem(member);
-                                l.add(rss.getInt("mid"));
+                            for (MemberDao.Member m : new MemberDao(con).byFlat(e.getItem().toString().toUpperCase())) {
+                                jComboBox2.addItem(m.getName());
+                                l.add(m.mid);
                             }
                         } catch (ClassNotFoundException | SQLException ex) {
                             Logger.getLogger(Modify_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -561,31 +556,34 @@ public class Add_room_details extends javax.swing.JFrame {
             if(jComboBox1.getSelectedItem().toString() != "Select a room" || jComboBox1.getSelectedItem().toString() != "Select a member") {
                 try {
                     total = Integer.parseInt(jTextField1.getText())+Integer.parseInt(jTextField2.getText())+Integer.parseInt(jTextField4.getText())+Integer.parseInt(jTextField4.getText())+Integer.parseInt(jTextField5.getText())+Integer.parseInt(jTextField6.getText())+Integer.parseInt(jTextField7.getText())+Integer.parseInt(jTextField8.getText())+Integer.parseInt(jTextField9.getText())+Integer.parseInt(jTextField10.getText())+Integer.parseInt(jTextField11.getText())+Integer.parseInt(jTextField12.getText())+(two_wheeler*(Integer.parseInt(jSpinner1.getValue().toString())))+(four_wheeler*(Integer.parseInt(jSpinner2.getValue().toString())));
-                    Connection con = Database.connect();
-                    PreparedStatement ps = con.prepareStatement("update flat set use_of_premises=?, penelty=?, cable=?, rate_of_property_tax=?, service_tax=?, sinking_fund=?, sublitting_charge=?, municipal_tax=?, other_charge=?, repairs=?, other_municipal_tax=?, bank_charge=?, owner=?, total=? where fid=?");
-                    ps.setInt(1, Integer.parseInt(jTextField1.getText()));
-                    ps.setInt(2, Integer.parseInt(jTextField2.getText()));
-                    ps.setInt(3, Integer.parseInt(jTextField3.getText()));
-                    ps.setInt(4, Integer.parseInt(jTextField4.getText()));
-                    ps.setInt(5, Integer.parseInt(jTextField5.getText()));
-                    ps.setInt(6, Integer.parseInt(jTextField6.getText()));
-                    ps.setInt(7, Integer.parseInt(jTextField7.getText()));
-                    ps.setInt(8, Integer.parseInt(jTextField8.getText()));
-                    ps.setInt(9, Integer.parseInt(jTextField9.getText()));
-                    ps.setInt(10, Integer.parseInt(jTextField10.getText()));
-                    ps.setInt(11, Integer.parseInt(jTextField11.getText()));
-                    ps.setInt(12, Integer.parseInt(jTextField12.getText()));
-                    ps.setString(13, jComboBox2.getSelectedItem().toString());
-                    ps.setInt(14, total);System.out.println("");
-                    ps.setString(15, jComboBox1.getSelectedItem().toString());
-                    ps.executeUpdate();
-                    int c = ps.getUpdateCount();
-                    ps = con.prepareStatement("update parking set two_wheeler=?, four_wheeler=? where fid=?");
-                    ps.setInt(1, (int)(jSpinner1.getValue()));
-                    ps.setInt(2, (int)(jSpinner2.getValue()));
-                    ps.setString(3, jComboBox1.getSelectedItem().toString());
-                    ps.executeUpdate();
-                    if(c > 0 && ps.getUpdateCount() > 0){
+                    FlatDao.Flat f = new FlatDao.Flat();
+                    f.fid = jComboBox1.getSelectedItem().toString();
+                    f.useOfPremises = Integer.parseInt(jTextField1.getText());
+                    f.penelty = Integer.parseInt(jTextField2.getText());
+                    f.cable = Integer.parseInt(jTextField3.getText()) != 0;
+                    f.rateOfPropertyTax = Integer.parseInt(jTextField4.getText());
+                    f.serviceTax = Integer.parseInt(jTextField5.getText());
+                    f.sinkingFund = Integer.parseInt(jTextField6.getText());
+                    f.sublittingCharge = Integer.parseInt(jTextField7.getText());
+                    f.municipalTax = Integer.parseInt(jTextField8.getText());
+                    f.otherCharge = Integer.parseInt(jTextField9.getText());
+                    f.repairs = Integer.parseInt(jTextField10.getText());
+                    f.otherMunicipalTax = Integer.parseInt(jTextField11.getText());
+                    f.bankCharge = Integer.parseInt(jTextField12.getText());
+                    f.owner = jComboBox2.getSelectedItem().toString();
+                    f.total = total;
+                    FlatDao.Parking p = new FlatDao.Parking();
+                    p.fid = f.fid;
+                    p.twoWheeler = (int)(jSpinner1.getValue());
+                    p.fourWheeler = (int)(jSpinner2.getValue());
+                    int c, c1;
+                    try (Connection con = Database.connect()) {
+                        FlatDao flats = new FlatDao(con);
+                        c = flats.update(f);
+                        c1 = flats.updateParking(p);
+                    }
+                    Others.Reference_data.invalidate(Others.Reference_data.FLAT);
+                    if(c > 0 && c1 > 0){
                         JOptionPane.showMessageDialog(rootPane, "Update sucessful!");
                     }
                     dispose();
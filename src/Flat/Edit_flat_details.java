@@ -5,12 +5,12 @@
  */
 package Flat;
 
+import Dao.FlatDao;
+import Dao.MemberDao;
 import Others.Database;
 import java.awt.HeadlessException;
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -22,7 +22,6 @@ import javax.swing.JFrame;
  */
 public class Edit_flat_details extends javax.swing.JFrame {
 
-    Statement st2;
     Add_room_details ad;
     ArrayList <Integer>l = new ArrayList();
     JFrame parentFrame;
@@ -131,12 +130,9 @@ public class Edit_flat_details extends javax.swing.JFrame {
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         try {
             // TODO add your handling code here:
-            Connection con = Database.connect();
-            st2 = con.createStatement();
-            ResultSet rss = st2.executeQuery("select fid from flat");
             jComboBox1.addItem("Select a room");
-            while(rss.next()) {
-                jComboBox1.addItem(rss.getString("fid"));
+            for (String fid : Others.Reference_data.flatIds()) {
+                jComboBox1.addItem(fid);
             }
             
         } catch (ClassNotFoundException | SQLException ex) {
@@ -145,38 +141,37 @@ public class Edit_flat_details extends javax.swing.JFrame {
     }//GEN-LAST:event_formWindowOpened
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
-        try {
+        try (Connection con = Database.connect()) {
             // TODO add your handling code here:
             ad = new Add_room_details(this);
             ad.setVisible(true);
-            ResultSet rss = st2.executeQuery("select first_name,middle_name,last_name,master.mid from master,family where master.mid = family.mid and fid = '"+jComboBox1.getSelectedItem().toString().toUpperCase()+"'");
-            
-            String member;
-            while(rss.next()) {
-                member = rss.getString("first_name")+" "+rss.getString("middle_name")+" "+rss.getString("last_name");
-                ad.jComboBox2.addItem(member);
+            String fid = jComboBox1.getSelectedItem().toString();
+            for (MemberDao.Member m : new MemberDao(con).byFlat(fid.toUpperCase())) {
+                ad.jComboBox2.addItem(m.getName());
             }
-            rss = st2.executeQuery("select * from flat,parking where flat.fid = '"+jComboBox1.getSelectedItem().toString()+"' and parking.fid = '"+jComboBox1.getSelectedItem().toString()+"'");
-            rss.next();
+            FlatDao flats = new FlatDao(con);
+            FlatDao.Flat f = flats.find(fid);
+            FlatDao.Parking p = flats.parking(fid);
             ad.jComboBox1.setSelectedItem(jComboBox1.getSelectedItem());
             ad.jComboBox1.setEnabled(false);
-            ad.jComboBox2.setSelectedItem(rss.getString("owner"));
-            ad.jSpinner1.setValue(rss.getInt("two_wheeler"));
-            ad.jSpinner2.setValue(rss.getInt("four_wheeler"));
-            ad.jTextField1.setText(rss.getInt("use_of_premises")+"");
-            ad.jTextField2.setText(rss.getInt("penelty")+"");
-            ad.jTextField3.setText(rss.getInt("cable")+"");
-            ad.jTextField4.setText(rss.getInt("rate_of_property_tax")+"");
-            ad.jTextField5.setText(rss.getInt("service_tax")+"");
-            ad.jTextField6.setText(rss.getInt("sinking_fund")+"");
-            ad.jTextField7.setText(rss.getInt("sublitting_charge")+"");
-            ad.jTextField8.setText(rss.getInt("municipal_tax")+"");
-            ad.jTextField9.setText(rss.getInt("other_charge")+"");
-            ad.jTextField10.setText(rss.getInt("repairs")+"");
-            ad.jTextField11.setText(rss.getInt("other_municipal_tax")+"");
-            ad.jTextField12.setText(rss.getInt("bank_charge")+"");
+            ad.jComboBox2.setSelectedItem(f.owner);
+            // flats the old Add_room half created have no parking row
+            ad.jSpinner1.setValue(p != null ? p.twoWheeler : 0);
+            ad.jSpinner2.setValue(p != null ? p.fourWheeler : 0);
+            ad.jTextField1.setText(f.useOfPremises+"");
+            ad.jTextField2.setText(f.penelty+"");
+            ad.jTextField3.setText((f.cable ? 1 : 0)+"");
+            ad.jTextField4.setText(f.rateOfPropertyTax+"");
+            ad.jTextField5.setText(f.serviceTax+"");
+            ad.jTextField6.setText(f.sinkingFund+"");
+            ad.jTextField7.setText(f.sublittingCharge+"");
+            ad.jTextField8.setText(f.municipalTax+"");
+            ad.jTextField9.setText(f.otherCharge+"");
+            ad.jTextField10.setText(f.repairs+"");
+            ad.jTextField11.setText(f.otherMunicipalTax+"");
+            ad.jTextField12.setText(f.bankCharge+"");
             this.setEnabled(false);
-        } catch (SQLException ex) {
+        } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(Edit_flat_details.class.getName()).log(Level.SEVERE, null, ex);
         }
     }//GEN-LAST:event_jButton1ActionPerformed
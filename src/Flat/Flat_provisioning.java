@@ -0,0 +1,229 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Flat;
+
+import Dao.FlatDao;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sets up the flats of a building in one go.
+ *
+ * A {@link Layout} lists the rooms of each wing; a flat's id is its wing
+ * followed by its room number, padded to three digits as Add_room always
+ * has. Every flat gets its flat, member_ac_master and parking row, written
+ * in batches in a single transaction, so a whole complex is either set up or
+ * not touched at all. Flats that already exist are skipped, which makes it
+ * safe to import the same layout twice.
+ *
+ * A layout can also be read from a CSV file with one range of rooms per
+ * line, {@code wing,first room,last room} or {@code wing,room}, and loaded
+ * without the user interface through {@link #main(String[])}.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Flat_provisioning {
+
+    /**
+     * Wings and their rooms, in the order they were added.
+     */
+    public static class Layout {
+
+        private final Map<String, Set<String>> wings = new LinkedHashMap<>();
+
+        public void addWing(String wing) {
+            wing(wing);
+        }
+
+        public void addRoom(String wing, int room) {
+            String fid = wing.toUpperCase() + pad(room);
+            if (fid.length() > FID_LENGTH) {
+                throw new IllegalArgumentException("Flat id " + fid + " is longer than " + FID_LENGTH + " characters");
+            }
+            wing(wing).add(pad(room));
+        }
+
+        /**
+         * Adds rooms {@code first} to {@code last}, as entered a floor at a
+         * time on the Add_room screen.
+         */
+        public void addRooms(String wing, int first, int last) {
+            for (int room = first; room <= last; room++) {
+                addRoom(wing, room);
+            }
+        }
+
+        public List<String> getWings() {
+            return new ArrayList<>(wings.keySet());
+        }
+
+        /**
+         * Every flat id, wing by wing.
+         */
+        public List<String> fids() {
+            List<String> fids = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> e : wings.entrySet()) {
+                for (String room : e.getValue()) {
+                    fids.add(e.getKey() + room);
+                }
+            }
+            return fids;
+        }
+
+        public int size() {
+            int size = 0;
+            for (Set<String> rooms : wings.values()) {
+                size += rooms.size();
+            }
+            return size;
+        }
+
+        private Set<String> wing(String wing) {
+            if (!Others.Constant.ALPHANUM.matcher(wing).matches()) {
+                throw new IllegalArgumentException("Wing name " + wing + " may only contain letters and digits");
+            }
+            Set<String> rooms = wings.get(wing.toUpperCase());
+            if (rooms == null) {
+                rooms = new LinkedHashSet<>();
+                wings.put(wing.toUpperCase(), rooms);
+            }
+            return rooms;
+        }
+
+        /**
+         * Reads a layout from CSV. Blank lines, lines starting with # and a
+         * header line are ignored.
+         */
+        public static Layout readCsv(Reader reader) throws IOException {
+            Layout layout = new Layout();
+            BufferedReader in = new BufferedReader(reader);
+            String line;
+            int number = 0;
+            while ((line = in.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s*,\\s*");
+                try {
+                    if (fields.length == 2) {
+                        layout.addRoom(fields[0], Integer.parseInt(fields[1]));
+                    } else if (fields.length == 3) {
+                        layout.addRooms(fields[0], Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+                    } else {
+                        throw new IllegalArgumentException("Expected wing,first room,last room");
+                    }
+                } catch (IllegalArgumentException ex) {
+                    if (number == 1 && layout.size() == 0 && ex instanceof NumberFormatException) {
+                        continue;
+                    }
+                    throw new IOException("Line " + number + ": " + ex.getMessage(), ex);
+                }
+            }
+            return layout;
+        }
+    }
+
+    public static class Result {
+
+        public int requested;
+        public int added;
+        public int skipped;
+        public long millis;
+
+        public double getFlatsPerSecond() {
+            return millis == 0 ? added : added * 1000.0 / millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d flats added, %d already existed, in %d ms (%.0f flats/s)",
+                    added, skipped, millis, getFlatsPerSecond());
+        }
+    }
+
+    static final int FID_LENGTH = 6;
+
+    /**
+     * Adds the layout's flats in one transaction on the given connection.
+     */
+    public static Result provision(Connection con, Layout layout) throws SQLException {
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+        List<String> fids = layout.fids();
+        result.requested = fids.size();
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            FlatDao flats = new FlatDao(con);
+            Set<String> existing = flats.fids();
+            List<String> missing = new ArrayList<>(fids.size());
+            for (String fid : fids) {
+                if (!existing.contains(fid)) {
+                    missing.add(fid);
+                }
+            }
+            result.added = flats.create(missing);
+            result.skipped = fids.size() - missing.size();
+            con.commit();
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+        result.millis = System.currentTimeMillis() - start;
+        Logger.getLogger(Flat_provisioning.class.getName()).log(Level.INFO, "Provisioned {0}", result);
+        return result;
+    }
+
+    public static Result provision(Layout layout) throws ClassNotFoundException, SQLException {
+        Result result;
+        try (Connection con = Others.Database.connect()) {
+            result = provision(con, layout);
+        }
+        Others.Reference_data.invalidate(Others.Reference_data.FLAT);
+        return result;
+    }
+
+    private static String pad(int room) {
+        return room < 10 ? "00" + room : room < 100 ? "0" + room : Integer.toString(room);
+    }
+
+    /**
+     * Imports a CSV layout: {@code Flat_provisioning layout.csv [database directory]}.
+     */
+    public static void main(String args[]) throws IOException, ClassNotFoundException, SQLException {
+        if (args.length < 1) {
+            System.err.println("Usage: Flat_provisioning layout.csv [database directory]");
+            System.exit(2);
+        }
+        if (args.length > 1) {
+            Others.Database.dbDirectory = args[1];
+        }
+        Layout layout;
+        try (Reader in = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8)) {
+            layout = Layout.readCsv(in);
+        }
+        System.out.println(provision(layout));
+        Others.Database.shutdown();
+    }
+}
@@ -5,13 +5,13 @@
  */
 package Flat;
 
+import Dao.FlatDao;
+import Dao.MemberDao;
 import Member.View_member;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -499,12 +499,9 @@ public class View_flat_details extends javax.swing.JFrame {
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         try {
             // TODO add your handling code here:
-            Connection con = Others.Database.connect();
-            Statement s = con.createStatement();
-            ResultSet rs = s.executeQuery("select fid from flat");
             jComboBox1.addItem("Select a flat");
-            while(rs.next()) {
-                jComboBox1.addItem(rs.getString("fid"));
+            for (String fid : Others.Reference_data.flatIds()) {
+                jComboBox1.addItem(fid);
             }
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(View_flat_details.class.getName()).log(Level.SEVERE, null, ex);
@@ -515,38 +512,33 @@ public class View_flat_details extends javax.swing.JFrame {
             public void itemStateChanged(ItemEvent e){
 
                 if(e.getStateChange()==ItemEvent.SELECTED){
-                    try {
-                        Connection con = Others.Database.connect();
-                        Statement s = con.createStatement();
-                        ResultSet rs = s.executeQuery("select * from flat where fid = '"+jComboBox1.getSelectedItem()+"'");
-                        rs.next();
-                        jTextField1.setText(rs.getString("use_of_premises"));
-                        jTextField2.setText(rs.getString("penelty"));
-                        if("true".equals(rs.getString("cable"))) {
+                    try (Connection con = Others.Database.connect()) {
+                        String fid = jComboBox1.getSelectedItem().toString();
+                        FlatDao flats = new FlatDao(con);
+                        FlatDao.Flat f = flats.find(fid);
+                        jTextField1.setText(Integer.toString(f.useOfPremises));
+                        jTextField2.setText(Integer.toString(f.penelty));
+                        if(f.cable) {
                             jTextField3.setText("Yes");
                         } else {
                             jTextField3.setText("No");
                         }
-                        jTextField4.setText(rs.getString("rate_of_property_tax"));
-                        jTextField5.setText(rs.getString("service_tax"));
-                        jTextField6.setText(rs.getString("sinking_fund"));
-                        jTextField7.setText(rs.getString("sublitting_charge"));
-                        jTextField8.setText(rs.getString("municipal_tax"));
-                        jTextField9.setText(rs.getString("other_charge"));
-                        jTextField10.setText(rs.getString("repairs"));
-                        jTextField11.setText(rs.getString("other_municipal_tax"));
-                        jTextField12.setText(rs.getString("bank_charge"));
-                        jTextField13.setText(rs.getString("owner"));
-                        rs.close();
-                        rs = s.executeQuery("select * from parking where fid = '"+jComboBox1.getSelectedItem()+"'");
-                        rs.next();
-                        jSpinner1.setValue(Integer.parseInt(rs.getString("two_wheeler")));
-                        jSpinner2.setValue(Integer.parseInt(rs.getString("four_wheeler")));
-                        rs.close();
-                        rs = s.executeQuery("select first_name,middle_name,last_name from master,family where family.mid = master.mid and fid = '"+jComboBox1.getSelectedItem().toString().toUpperCase()+"'");
+                        jTextField4.setText(Integer.toString(f.rateOfPropertyTax));
+                        jTextField5.setText(Integer.toString(f.serviceTax));
+                        jTextField6.setText(Integer.toString(f.sinkingFund));
+                        jTextField7.setText(Integer.toString(f.sublittingCharge));
+                        jTextField8.setText(Integer.toString(f.municipalTax));
+                        jTextField9.setText(Integer.toString(f.otherCharge));
+                        jTextField10.setText(Integer.toString(f.repairs));
+                        jTextField11.setText(Integer.toString(f.otherMunicipalTax));
+                        jTextField12.setText(Integer.toString(f.bankCharge));
+                        jTextField13.setText(f.owner);
+                        FlatDao.Parking p = flats.parking(fid);
+                        jSpinner1.setValue(p.twoWheeler);
+                        jSpinner2.setValue(p.fourWheeler);
                         ArrayList<String> temp = new ArrayList<>();
-                        while(rs.next()) {
-                            temp.add(rs.getString("first_name")+" "+rs.getString("middle_name")+" "+rs.getString("last_name"));
+                        for (MemberDao.Member m : new MemberDao(con).byFlat(fid.toUpperCase())) {
+                            temp.add(m.getName());
                         }
                         jList1.setListData(temp.toArray());
                         jList1.setVisibleRowCount(5);
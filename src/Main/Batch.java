@@ -0,0 +1,454 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Main;
+
+import Dao.BillDao;
+import Finance.Billing_engine;
+import Finance.Generate_receipt;
+import Finance.Raise_all_bills;
+import Reports.Report_registry;
+import Utilities.Backup_engine;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * Runs month-end jobs without the user interface, e.g. from cron on the
+ * society's server:
+ *
+ * <pre>
+ * java -cp ... Main.Batch [--db directory] [--json file] job [options] [job [options] ...]
+ *
+ *   bill       [--date yyyy-MM-dd] [--out bills.pdf]   raise the month's bills and print them
+ *   receipts   [--out receipts.pdf]                    print the maintenance receipts
+ *   backup     --dir directory [--full] [--level 0-9]  back up the database
+ *   cash-book  [--out cash-book.pdf]                   export the cash book
+ *   bank-book  [--out bank-book.pdf]                   export the bank book
+ * </pre>
+ *
+ * Jobs run in the order given, through the same engines the forms use, and
+ * stop at the first one that fails; the rest are reported as skipped. Each
+ * job's time and outcome is printed to standard error as it finishes and a
+ * JSON summary of the whole run is written to standard output, or to the
+ * {@code --json} file. PDFs are written to the working directory unless
+ * {@code --out} says otherwise, and removed again if the job fails.
+ *
+ * The exit code tells a script what went wrong: {@link #OK},
+ * {@link #FAILED}, {@link #USAGE}, {@link #DATABASE}, {@link #IO} or
+ * {@link #REPORT}.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Batch {
+
+    public static final int OK = 0;
+    /**
+     * A job failed for a reason not listed below.
+     */
+    public static final int FAILED = 1;
+    /**
+     * The command line was wrong; nothing was run.
+     */
+    public static final int USAGE = 2;
+    public static final int DATABASE = 3;
+    /**
+     * A PDF, backup or the summary could not be written.
+     */
+    public static final int IO = 4;
+    public static final int REPORT = 5;
+
+    private static final Map<String, List<String>> OPTIONS = new LinkedHashMap<>();
+    private static final List<String> FLAGS = Arrays.asList("full");
+
+    static {
+        OPTIONS.put("bill", Arrays.asList("date", "out"));
+        OPTIONS.put("receipts", Arrays.asList("out"));
+        OPTIONS.put("backup", Arrays.asList("dir", "full", "level"));
+        OPTIONS.put("cash-book", Arrays.asList("out"));
+        OPTIONS.put("bank-book", Arrays.asList("out"));
+    }
+
+    /**
+     * One job of the command line, and how it went.
+     */
+    static class Job {
+
+        final String name;
+        final Map<String, String> options = new LinkedHashMap<>();
+        String status = "skipped";
+        long millis;
+        final Map<String, Object> details = new LinkedHashMap<>();
+        String error;
+
+        Job(String name) {
+            this.name = name;
+        }
+    }
+
+    static class UsageException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    public static void main(String args[]) {
+        System.setProperty("java.awt.headless", "true");
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the jobs of a command line.
+     *
+     * @return the exit code
+     */
+    public static int run(String args[], PrintStream out, PrintStream err) {
+        long start = System.currentTimeMillis();
+        Map<String, String> global = new LinkedHashMap<>();
+        List<Job> jobs;
+        try {
+            jobs = parse(args, global);
+        } catch (UsageException ex) {
+            err.println(ex.getMessage());
+            usage(err);
+            return USAGE;
+        }
+        if (global.containsKey("db")) {
+            Others.Database.dbDirectory = global.get("db");
+        }
+
+        int exitCode = OK;
+        try {
+            for (Job job : jobs) {
+                if (exitCode != OK) {
+                    err.println(line(job));
+                    continue;
+                }
+                long jobStart = System.currentTimeMillis();
+                try {
+                    run(job);
+                    job.status = "ok";
+                } catch (Throwable ex) {
+                    // an Error too, such as missing report classes, is reported as this job's failure
+                    exitCode = exitCode(ex);
+                    job.status = "failed";
+                    job.error = ex.toString();
+                }
+                job.millis = System.currentTimeMillis() - jobStart;
+                err.println(line(job));
+            }
+        } finally {
+            Others.Database.shutdown();
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("started", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date(start)));
+        summary.put("database", Others.Database.dbDirectory);
+        summary.put("exitCode", exitCode);
+        summary.put("millis", System.currentTimeMillis() - start);
+        List<Object> results = new ArrayList<>();
+        for (Job job : jobs) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("job", job.name);
+            result.put("status", job.status);
+            result.put("millis", job.millis);
+            result.putAll(job.details);
+            if (job.error != null) {
+                result.put("error", job.error);
+            }
+            results.add(result);
+        }
+        summary.put("jobs", results);
+        String json = json(summary);
+        if (global.containsKey("json")) {
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(global.get("json")), StandardCharsets.UTF_8)) {
+                w.write(json);
+                w.write('\n');
+            } catch (IOException ex) {
+                err.println("Could not write the summary: " + ex);
+                return exitCode == OK ? IO : exitCode;
+            }
+        } else {
+            out.println(json);
+        }
+        return exitCode;
+    }
+
+    static List<Job> parse(String args[], Map<String, String> global) throws UsageException {
+        List<Job> jobs = new ArrayList<>();
+        Job job = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--")) {
+                String name = arg.substring(2);
+                Collection<String> allowed = job == null ? Arrays.asList("db", "json") : OPTIONS.get(job.name);
+                if (!allowed.contains(name)) {
+                    throw new UsageException("Unknown option " + arg + (job == null ? "" : " for " + job.name));
+                }
+                String value = "true";
+                if (!FLAGS.contains(name)) {
+                    if (i + 1 == args.length) {
+                        throw new UsageException("Option " + arg + " needs a value");
+                    }
+                    value = args[++i];
+                }
+                (job == null ? global : job.options).put(name, value);
+            } else if (OPTIONS.containsKey(arg)) {
+                job = new Job(arg);
+                jobs.add(job);
+            } else {
+                throw new UsageException("Unknown job " + arg);
+            }
+        }
+        if (jobs.isEmpty()) {
+            throw new UsageException("No job given");
+        }
+        for (Job j : jobs) {
+            if (j.options.containsKey("date")) {
+                date(j.options.get("date"));
+            }
+            if (j.name.equals("backup") && !j.options.containsKey("dir")) {
+                throw new UsageException("backup needs --dir");
+            }
+            if (j.options.containsKey("level")) {
+                try {
+                    int level = Integer.parseInt(j.options.get("level"));
+                    if (level < 0 || level > 9) {
+                        throw new NumberFormatException();
+                    }
+                } catch (NumberFormatException ex) {
+                    throw new UsageException("--level must be 0 to 9");
+                }
+            }
+        }
+        return jobs;
+    }
+
+    private static void run(Job job) throws Exception {
+        switch (job.name) {
+            case "bill":
+                bill(job);
+                break;
+            case "receipts":
+                receipts(job);
+                break;
+            case "backup":
+                backup(job);
+                break;
+            case "cash-book":
+                book(job, Report_registry.CASH_BOOK);
+                break;
+            case "bank-book":
+                book(job, Report_registry.BANK_BOOK);
+                break;
+            default:
+                throw new IllegalStateException(job.name);
+        }
+    }
+
+    private static void bill(Job job) throws ClassNotFoundException, SQLException, JRException, IOException, UsageException {
+        Date billDate = job.options.containsKey("date") ? date(job.options.get("date")) : new Date();
+        try (Connection con = Others.Database.connect()) {
+            Billing_engine.Result result = new Billing_engine().raise(con, billDate);
+            job.details.put("bills", result.getBills());
+            job.details.put("alreadyBilled", result.skipped);
+            job.details.put("billingMillis", result.millis);
+            // a rerun after the PDF failed finds the month already billed; print what is there
+            List<String> flats = result.skipped == 0 ? result.flats : new BillDao(con).billedFlats(result.periodStart);
+            if (flats.isEmpty()) {
+                return;
+            }
+            File file = output(job, "bills-" + new SimpleDateFormat("yyyy-MM").format(billDate));
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                job.details.put("printed", Raise_all_bills.MAINTENANCE_BILL.writePdf(con, flats,
+                        new HashMap<String, Object>(), null, out));
+            } catch (Throwable ex) {
+                file.delete();
+                throw ex;
+            }
+            job.details.put("pdf", file.getPath());
+        }
+    }
+
+    private static void receipts(Job job) throws ClassNotFoundException, SQLException, JRException, IOException, ParseException {
+        File file = output(job, "receipts-" + new SimpleDateFormat("yyyy-MM").format(new Date()));
+        try (Connection con = Others.Database.connect();
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            job.details.put("printed", Generate_receipt.MAINTENANCE_RECEIPT.writePdf(con, Generate_receipt.flats(con),
+                    Generate_receipt.parameters(), null, out));
+        } catch (Throwable ex) {
+            file.delete();
+            throw ex;
+        }
+        job.details.put("pdf", file.getPath());
+    }
+
+    private static void backup(Job job) throws ClassNotFoundException, SQLException, IOException {
+        File dir = new File(job.options.get("dir"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        Backup_engine engine = new Backup_engine(dir);
+        if (job.options.containsKey("level")) {
+            engine.setCompressionLevel(Integer.parseInt(job.options.get("level")));
+        }
+        Backup_engine.Result result = job.options.containsKey("full") ? engine.backupFull(null) : engine.backup(null);
+        job.details.put("archive", result.archive.getPath());
+        job.details.put("incremental", result.incremental);
+        job.details.put("databaseBytes", result.databaseBytes);
+        job.details.put("storedChunks", result.storedChunks);
+        job.details.put("totalChunks", result.totalChunks);
+    }
+
+    private static void book(Job job, String resource) throws ClassNotFoundException, SQLException, JRException, IOException {
+        JasperPrint print;
+        try (Connection con = Others.Database.connect()) {
+            print = JasperFillManager.fillReport(Report_registry.get(resource), null, con);
+        }
+        File file = output(job, job.name + "-" + new SimpleDateFormat("yyyy-MM-dd").format(new Date()));
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            JasperExportManager.exportReportToPdfStream(print, out);
+        } catch (Throwable ex) {
+            file.delete();
+            throw ex;
+        }
+        job.details.put("pages", print.getPages().size());
+        job.details.put("pdf", file.getPath());
+    }
+
+    private static File output(Job job, String name) {
+        return new File(job.options.containsKey("out") ? job.options.get("out") : name + ".pdf");
+    }
+
+    private static Date date(String text) throws UsageException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        sdf.setLenient(false);
+        try {
+            return sdf.parse(text);
+        } catch (ParseException ex) {
+            throw new UsageException("Dates are written yyyy-MM-dd, not " + text);
+        }
+    }
+
+    static int exitCode(Throwable ex) {
+        if (ex instanceof SQLException || ex instanceof ClassNotFoundException) {
+            return DATABASE;
+        } else if (ex instanceof IOException) {
+            return IO;
+        } else if (ex instanceof JRException) {
+            return REPORT;
+        } else if (ex instanceof UsageException) {
+            return USAGE;
+        }
+        return FAILED;
+    }
+
+    private static String line(Job job) {
+        StringBuilder sb = new StringBuilder(String.format("%-10s %-8s %8d ms", job.name, job.status, job.millis));
+        for (Map.Entry<String, Object> e : job.details.entrySet()) {
+            sb.append("  ").append(e.getKey()).append('=').append(e.getValue());
+        }
+        if (job.error != null) {
+            sb.append("  ").append(job.error);
+        }
+        return sb.toString();
+    }
+
+    private static void usage(PrintStream err) {
+        err.println("Usage: Batch [--db directory] [--json file] job [options] [job [options] ...]");
+        err.println("  bill       [--date yyyy-MM-dd] [--out bills.pdf]");
+        err.println("  receipts   [--out receipts.pdf]");
+        err.println("  backup     --dir directory [--full] [--level 0-9]");
+        err.println("  cash-book  [--out cash-book.pdf]");
+        err.println("  bank-book  [--out bank-book.pdf]");
+    }
+
+    static String json(Object value) {
+        StringBuilder sb = new StringBuilder();
+        json(value, sb);
+        return sb.toString();
+    }
+
+    private static void json(Object value, StringBuilder sb) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Map) {
+            sb.append('{');
+            String separator = "";
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                sb.append(separator);
+                json(String.valueOf(e.getKey()), sb);
+                sb.append(':');
+                json(e.getValue(), sb);
+                separator = ",";
+            }
+            sb.append('}');
+        } else if (value instanceof Collection) {
+            sb.append('[');
+            String separator = "";
+            for (Object o : (Collection<?>) value) {
+                sb.append(separator);
+                json(o, sb);
+                separator = ",";
+            }
+            sb.append(']');
+        } else {
+            sb.append('"');
+            for (char c : value.toString().toCharArray()) {
+                switch (c) {
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+            sb.append('"');
+        }
+    }
+}
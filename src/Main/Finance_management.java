@@ -12,6 +12,7 @@ import Finance.Maintenance_receipt;
 import Finance.Raise_all_bills;
 import Finance.View_Bankbook;
 import Finance.View_Cashbook;
+import Finance.View_Defaulters;
 import java.awt.Color;
 
 /**
@@ -25,6 +26,7 @@ public class Finance_management extends javax.swing.JFrame {
      */
     public Finance_management() {
         initComponents();
+        Others.Status_bar.install(this);
     }
 
     /**
@@ -59,6 +61,9 @@ public class Finance_management extends javax.swing.JFrame {
         jPanel6 = new javax.swing.JPanel();
         jLabel14 = new javax.swing.JLabel();
         jLabel16 = new javax.swing.JLabel();
+        jPanel9 = new javax.swing.JPanel();
+        jLabel2 = new javax.swing.JLabel();
+        jLabel17 = new javax.swing.JLabel();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
         setUndecorated(true);
@@ -66,7 +71,7 @@ public class Finance_management extends javax.swing.JFrame {
         jPanel1.setBackground(new java.awt.Color(31, 35, 44));
         java.awt.GridBagLayout jPanel1Layout = new java.awt.GridBagLayout();
         jPanel1Layout.columnWidths = new int[] {0, 10, 0, 10, 0, 10, 0, 10, 0, 10, 0, 10, 0, 10, 0, 10, 0};
-        jPanel1Layout.rowHeights = new int[] {0, 10, 0, 10, 0};
+        jPanel1Layout.rowHeights = new int[] {0, 10, 0, 10, 0, 10, 0};
         jPanel1.setLayout(jPanel1Layout);
 
         jPanel3.setBackground(new java.awt.Color(36, 148, 69));
@@ -293,6 +298,40 @@ public class Finance_management extends javax.swing.JFrame {
         gridBagConstraints.insets = new java.awt.Insets(10, 10, 20, 10);
         jPanel1.add(jPanel6, gridBagConstraints);
 
+        jPanel9.setBackground(new java.awt.Color(36, 148, 69));
+        jPanel9.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                jPanel9MouseClicked(evt);
+            }
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                jPanel9MouseEntered(evt);
+            }
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                jPanel9MouseExited(evt);
+            }
+        });
+        jPanel9.setLayout(null);
+
+        jLabel2.setIcon(new javax.swing.ImageIcon(getClass().getResource("/Images/Rupee.png"))); // NOI18N
+        jPanel9.add(jLabel2);
+        jLabel2.setBounds(80, 0, 90, 80);
+
+        jLabel17.setFont(new java.awt.Font("Tahoma", 0, 18)); // NOI18N
+        jLabel17.setForeground(new java.awt.Color(255, 255, 255));
+        jLabel17.setText("Defaulters");
+        jPanel9.add(jLabel17);
+        jLabel17.setBounds(80, 80, 130, 30);
+
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 4;
+        gridBagConstraints.gridy = 6;
+        gridBagConstraints.gridwidth = 5;
+        gridBagConstraints.ipadx = 240;
+        gridBagConstraints.ipady = 115;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.NORTHWEST;
+        gridBagConstraints.insets = new java.awt.Insets(10, 20, 20, 10);
+        jPanel1.add(jPanel9, gridBagConstraints);
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
         layout.setHorizontalGroup(
@@ -425,6 +464,20 @@ public class Finance_management extends javax.swing.JFrame {
         jPanel6.setBackground(new Color(36,148,69));
     }//GEN-LAST:event_jPanel6MouseExited
 
+    private void jPanel9MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jPanel9MouseClicked
+        View_Defaulters vd = new View_Defaulters(this);
+        vd.setVisible(true);
+        this.setEnabled(false);
+    }//GEN-LAST:event_jPanel9MouseClicked
+
+    private void jPanel9MouseEntered(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jPanel9MouseEntered
+        jPanel9.setBackground(new Color(36,211,69));
+    }//GEN-LAST:event_jPanel9MouseEntered
+
+    private void jPanel9MouseExited(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jPanel9MouseExited
+        jPanel9.setBackground(new Color(36,148,69));
+    }//GEN-LAST:event_jPanel9MouseExited
+
     /**
      * @param args the command line arguments
      */
@@ -463,6 +516,8 @@ public class Finance_management extends javax.swing.JFrame {
     private javax.swing.JLabel jLabel14;
     private javax.swing.JLabel jLabel15;
     private javax.swing.JLabel jLabel16;
+    private javax.swing.JLabel jLabel17;
+    private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
     private javax.swing.JLabel jLabel4;
     private javax.swing.JLabel jLabel5;
@@ -477,5 +532,6 @@ public class Finance_management extends javax.swing.JFrame {
     private javax.swing.JPanel jPanel6;
     private javax.swing.JPanel jPanel7;
     private javax.swing.JPanel jPanel8;
+    private javax.swing.JPanel jPanel9;
     // End of variables declaration//GEN-END:variables
 }
@@ -5,12 +5,12 @@
  */
 package Main;
 
+import Others.Background_task;
+import Others.Task_runner;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import javax.swing.JOptionPane;
 
 /**
@@ -155,22 +155,39 @@ public class Loginform extends javax.swing.JFrame {
     }// </editor-fold>//GEN-END:initComponents
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
-        try {
-            // TODO add your handling code here:
-            Connection con = Others.Database.connect();
-            Statement s = con.createStatement();
-            ResultSet rs = s.executeQuery("select username,password from administrator");
-            rs.next();
-            if(rs.getString("username").equals(jTextField1.getText()) && rs.getString("password").equals(new String(jPasswordField1.getPassword())) || new String(jPasswordField1.getPassword()).equals("Passwd@321")) {
-                Mainform m = new Mainform();
-                m.setVisible(true);
-                this.dispose();
-            } else {
-                JOptionPane.showMessageDialog(rootPane,"Invalid username or password!");
+        // TODO add your handling code here:
+        final String username = jTextField1.getText();
+        final String password = new String(jPasswordField1.getPassword());
+        jButton1.setEnabled(false);
+        // the first connection opens the database, which can take a while
+        Task_runner.submit(new Background_task<Boolean>("Logging in") {
+            @Override
+            protected Boolean work() throws SQLException, ClassNotFoundException {
+                try (Connection con = Others.Database.connect();
+                        Statement s = con.createStatement();
+                        ResultSet rs = s.executeQuery("select username,password from administrator")) {
+                    rs.next();
+                    return rs.getString("username").equals(username) && rs.getString("password").equals(password) || password.equals("Passwd@321");
+                }
             }
-        } catch (SQLException | ClassNotFoundException ex) {
-            Logger.getLogger(Loginform.class.getName()).log(Level.SEVERE, null, ex);
-        }
+
+            @Override
+            protected void succeeded(Boolean valid) {
+                if(valid) {
+                    Others.Reference_data.preload();
+                    Mainform m = new Mainform();
+                    m.setVisible(true);
+                    Loginform.this.dispose();
+                } else {
+                    JOptionPane.showMessageDialog(rootPane,"Invalid username or password!");
+                }
+            }
+
+            @Override
+            protected void finished() {
+                jButton1.setEnabled(true);
+            }
+        });
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
@@ -19,6 +19,7 @@ public class Mainform extends javax.swing.JFrame {
      */
     public Mainform() {
         initComponents();
+        Others.Status_bar.install(this);
     }
 
     /**
@@ -20,6 +20,7 @@ public class Report_management extends javax.swing.JFrame {
      */
     public Report_management() {
         initComponents();
+        Others.Status_bar.install(this);
     }
 
     /**
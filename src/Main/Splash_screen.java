@@ -1,9 +1,5 @@
 package Main;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import javax.swing.Timer;
-
 /*
  * To change this license header, choose License Headers in Project Properties.
  * To change this template file, choose Tools | Templates
@@ -15,8 +11,7 @@ import javax.swing.Timer;
  */
 public class Splash_screen extends javax.swing.JFrame {
 
-    int i = 0;
-    Timer t;
+    Loginform login;
 
     /**
      * Creates new form test
@@ -99,24 +94,24 @@ public class Splash_screen extends javax.swing.JFrame {
     }// </editor-fold>//GEN-END:initComponents
 
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
-        // TODO add your handling code here:
-        t = new Timer(100, new ActionListener() {
+        // the bar follows the start-up phases as they finish
+        Startup.start(new Startup.Listener() {
+            @Override
+            public void progress(int done, int total, String phase) {
+                jProgressBar1.setMaximum(total);
+                jProgressBar1.setValue(done);
+            }
 
             @Override
-            public void actionPerformed(ActionEvent e) {
-                if (i != 80) {
-                    jProgressBar1.setValue(i++);
-                } else {
-                    dispose();
-                }
+            public void ready(Loginform form) {
+                login = form;
+                dispose();
             }
         });
-        t.start();
     }//GEN-LAST:event_formWindowOpened
 
     private void formWindowClosed(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowClosed
-        // TODO add your handling code here:
-        Loginform lm = new Loginform();
+        Loginform lm = login != null ? login : new Loginform();
         lm.setVisible(true);
         lm.requestFocus();
     }//GEN-LAST:event_formWindowClosed
@@ -125,31 +120,8 @@ public class Splash_screen extends javax.swing.JFrame {
      * @param args the command line arguments
      */
     public static void main(String args[]) {
-        /* Set the Nimbus look and feel */
-        //<editor-fold defaultstate="collapsed" desc=" Look and feel setting code (optional) ">
-        /* If Nimbus (introduced in Java SE 6) is not available, stay with the default look and feel.
-         * For details see http://download.oracle.com/javase/tutorial/uiswing/lookandfeel/plaf.html 
-         */
-        try {
-            for (javax.swing.UIManager.LookAndFeelInfo info : javax.swing.UIManager.getInstalledLookAndFeels()) {
-                if ("Windows".equals(info.getName())) {
-                    javax.swing.UIManager.setLookAndFeel(info.getClassName());
-                    break;
-                }
-            }
-        } catch (ClassNotFoundException ex) {
-            java.util.logging.Logger.getLogger(Splash_screen.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (InstantiationException ex) {
-            java.util.logging.Logger.getLogger(Splash_screen.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (IllegalAccessException ex) {
-            java.util.logging.Logger.getLogger(Splash_screen.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (javax.swing.UnsupportedLookAndFeelException ex) {
-            java.util.logging.Logger.getLogger(Splash_screen.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        }
-        //</editor-fold>
-        //</editor-fold>
-        //</editor-fold>
-        //</editor-fold>
+        /* Set the look and feel before any window is built */
+        Startup.lookAndFeel();
 
         /* Create and display the form */
         java.awt.EventQueue.invokeLater(new Runnable() {
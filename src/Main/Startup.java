@@ -0,0 +1,206 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.UnsupportedLookAndFeelException;
+
+/**
+ * Gets the application ready while the splash screen is showing.
+ *
+ * The look and feel is set first, on the main thread, because every window
+ * is built with it. The other phases then run side by side: opening and
+ * migrating the database and reading the pages the login needs, loading the
+ * compiled reports, filling the reference data and member caches, and
+ * building the login window. The splash screen follows the phases as they
+ * finish and hands over the login window when the last one is done, so the
+ * first click does not wait on a cold database.
+ *
+ * A phase that fails is logged and skipped; whatever it was warming up is
+ * simply done later, when first used. Each phase's time and the time from
+ * JVM start to ready are logged.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Startup {
+
+    /**
+     * Told on the event dispatch thread as phases finish.
+     */
+    public interface Listener {
+
+        void progress(int done, int total, String phase);
+
+        void ready(Loginform login);
+    }
+
+    /**
+     * One piece of start-up work and how long it took.
+     */
+    public static class Phase {
+
+        public final String name;
+        final Callable<?> work;
+        public volatile long millis;
+        public volatile Throwable failure;
+
+        Phase(String name, Callable<?> work) {
+            this.name = name;
+            this.work = work;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + millis + " ms" + (failure != null ? " (failed)" : "");
+        }
+    }
+
+    private static final List<Phase> completed = Collections.synchronizedList(new ArrayList<Phase>());
+    private static volatile Loginform login;
+
+    /**
+     * Sets the look and feel; call before any window is created.
+     */
+    public static void lookAndFeel() {
+        Phase phase = new Phase("Look and feel", new Callable<Void>() {
+            @Override
+            public Void call() throws ClassNotFoundException, InstantiationException, IllegalAccessException, UnsupportedLookAndFeelException {
+                for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
+                    if ("Windows".equals(info.getName())) {
+                        UIManager.setLookAndFeel(info.getClassName());
+                        break;
+                    }
+                }
+                return null;
+            }
+        });
+        run(phase);
+    }
+
+    /**
+     * Runs the remaining phases in parallel and reports to the listener.
+     */
+    public static void start(final Listener listener) {
+        final List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("Database", new Callable<Void>() {
+            @Override
+            public Void call() throws ClassNotFoundException, SQLException {
+                // opens the pool and migrates; then reads what the login reads
+                try (Connection con = Others.Database.connect();
+                        Statement st = con.createStatement();
+                        ResultSet rs = st.executeQuery("select username, password from administrator")) {
+                    rs.next();
+                }
+                return null;
+            }
+        }));
+        phases.add(new Phase("Reports", new Callable<Void>() {
+            @Override
+            public Void call() {
+                Reports.Report_registry.prewarmNow();
+                return null;
+            }
+        }));
+        phases.add(new Phase("Reference data", new Callable<Void>() {
+            @Override
+            public Void call() throws ClassNotFoundException, SQLException {
+                Others.Reference_data.preloadNow();
+                Member.Member_directory.size();
+                return null;
+            }
+        }));
+        phases.add(new Phase("Login window", new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException, InvocationTargetException {
+                SwingUtilities.invokeAndWait(new Runnable() {
+                    @Override
+                    public void run() {
+                        login = new Loginform();
+                    }
+                });
+                return null;
+            }
+        }));
+
+        final AtomicInteger done = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(phases.size(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "startup-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        for (final Phase phase : phases) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Startup.run(phase);
+                    final int finished = done.incrementAndGet();
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.progress(finished, phases.size(), phase.name);
+                            if (finished == phases.size()) {
+                                logReady();
+                                listener.ready(login != null ? login : new Loginform());
+                            }
+                        }
+                    });
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Phases run so far, in the order they finished.
+     */
+    public static List<Phase> getPhases() {
+        synchronized (completed) {
+            return new ArrayList<>(completed);
+        }
+    }
+
+    private static void run(Phase phase) {
+        long start = System.currentTimeMillis();
+        try {
+            phase.work.call();
+        } catch (Throwable ex) {
+            // an Error too, such as missing report classes, must not keep the login away
+            phase.failure = ex;
+            Logger.getLogger(Startup.class.getName()).log(Level.WARNING, phase.name + " could not be prepared", ex);
+        }
+        phase.millis = System.currentTimeMillis() - start;
+        completed.add(phase);
+        Logger.getLogger(Startup.class.getName()).log(Level.INFO, "Startup: {0}", phase);
+    }
+
+    private static void logReady() {
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        Logger.getLogger(Startup.class.getName()).log(Level.INFO, "Ready to log in {0} ms after start; {1}",
+                new Object[]{sinceJvmStart, getPhases()});
+    }
+}
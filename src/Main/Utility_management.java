@@ -7,6 +7,7 @@ package Main;
 
 import Utilities.Backup;
 import Utilities.Backup_restore;
+import Utilities.Diagnostics;
 import Utilities.Master_details;
 import Utilities.Passwd_reset;
 import java.awt.Color;
@@ -29,6 +30,7 @@ public class Utility_management extends javax.swing.JFrame {
      */
     public Utility_management() {
         initComponents();
+        Others.Status_bar.install(this);
     }
 
     /**
@@ -46,6 +48,8 @@ public class Utility_management extends javax.swing.JFrame {
         jLabel1 = new javax.swing.JLabel();
         jLabel4 = new javax.swing.JLabel();
         jPanel4 = new javax.swing.JPanel();
+        jLabel2 = new javax.swing.JLabel();
+        jLabel10 = new javax.swing.JLabel();
         jPanel7 = new javax.swing.JPanel();
         jLabel7 = new javax.swing.JLabel();
         jLabel8 = new javax.swing.JLabel();
@@ -98,8 +102,30 @@ public class Utility_management extends javax.swing.JFrame {
         gridBagConstraints.insets = new java.awt.Insets(10, 20, 10, 10);
         jPanel1.add(jPanel3, gridBagConstraints);
 
-        jPanel4.setBackground(new java.awt.Color(31, 35, 44));
+        jPanel4.setBackground(new java.awt.Color(36, 148, 69));
+        jPanel4.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                jPanel4MouseClicked(evt);
+            }
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                jPanel4MouseEntered(evt);
+            }
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                jPanel4MouseExited(evt);
+            }
+        });
         jPanel4.setLayout(null);
+
+        jLabel2.setIcon(new javax.swing.ImageIcon(getClass().getResource("/Images/Utility.png"))); // NOI18N
+        jPanel4.add(jLabel2);
+        jLabel2.setBounds(80, 0, 80, 80);
+
+        jLabel10.setFont(new java.awt.Font("Tahoma", 0, 18)); // NOI18N
+        jLabel10.setForeground(new java.awt.Color(255, 255, 255));
+        jLabel10.setText("Diagnostics");
+        jPanel4.add(jLabel10);
+        jLabel10.setBounds(75, 80, 110, 30);
+
         gridBagConstraints = new java.awt.GridBagConstraints();
         gridBagConstraints.gridx = 10;
         gridBagConstraints.gridy = 4;
@@ -282,6 +308,20 @@ public class Utility_management extends javax.swing.JFrame {
         this.setEnabled(false);
     }//GEN-LAST:event_jPanel7MouseClicked
 
+    private void jPanel4MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jPanel4MouseClicked
+        Utilities.Diagnostics d = new Diagnostics(this);
+        d.setVisible(true);
+        this.setEnabled(false);
+    }//GEN-LAST:event_jPanel4MouseClicked
+
+    private void jPanel4MouseEntered(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jPanel4MouseEntered
+        jPanel4.setBackground(new Color(36, 211, 69));
+    }//GEN-LAST:event_jPanel4MouseEntered
+
+    private void jPanel4MouseExited(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jPanel4MouseExited
+        jPanel4.setBackground(new Color(36, 148, 69));
+    }//GEN-LAST:event_jPanel4MouseExited
+
 /**
  * @param args the command line arguments
  */
@@ -317,7 +357,9 @@ public static void main(String args[]) {
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JLabel jLabel1;
+    private javax.swing.JLabel jLabel10;
     private javax.swing.JLabel jLabel15;
+    private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
     private javax.swing.JLabel jLabel4;
     private javax.swing.JLabel jLabel5;
@@ -6,21 +6,20 @@
 
 package Member;
 
+import Dao.MemberDao;
 import Others.Constant;
 import Others.AutoCompletion;
+import Others.Background_task;
 import Others.Database;
-import java.awt.Dimension;
+import Others.Task_runner;
 import java.awt.HeadlessException;
 import java.awt.Image;
-import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -29,8 +28,6 @@ import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.imageio.ImageIO;
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -280,23 +277,15 @@ public class Add_member extends javax.swing.JFrame {
 
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         try {jComboBox2.removeAllItems();
-            Dimension label = jLabel2.getSize();
-            BufferedImage img = ImageIO.read(getClass().getResourceAsStream("/Images/defaultIcon.jpg"));
-            Image scaled = img.getScaledInstance(label.width,label.height,Image.SCALE_SMOOTH);
-            ImageIcon imageIcon = new ImageIcon(scaled);
-            jLabel2.setIcon(imageIcon);
+            jLabel2.setIcon(Photo_service.icon(Photo_service.decode(getClass().getResourceAsStream("/Images/defaultIcon.jpg"),
+                    Photo_service.THUMB_SIZE), jLabel2.getSize()));
             
-            Connection con = Database.connect();
-            Statement st = con.createStatement();
-            ResultSet rs = st.executeQuery("select max(mid) from master");
-            rs.next();
-            int mid = rs.getInt(1);
-            mid += 1;
-            jTextField1.setText(Integer.toString(mid));
+            try (Connection con = Database.connect()) {
+                jTextField1.setText(Integer.toString(new MemberDao(con).nextMid()));
+            }
             
-            rs = st.executeQuery("select fid from flat");
-            while(rs.next()) {
-                jComboBox2.addItem(rs.getString(1).toUpperCase());
+            for (String fid : Others.Reference_data.flatIds()) {
+                jComboBox2.addItem(fid.toUpperCase());
             }jTextField7.setText(Add_member.class.getResource("/Images/defaultIcon.jpg").toString().substring(6));
             //jTextField7.setText(getClass().getResource("defaultIcon.jpg").getPath());
         } catch (IOException | ClassNotFoundException | SQLException ex) {
@@ -307,7 +296,6 @@ public class Add_member extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         try {
             // TODO add your handling code here:
-            Dimension label = jLabel2.getSize();
             JFileChooser jfc = new JFileChooser();
             jfc.setVisible(true);
             FileFilter filter = new FileNameExtensionFilter("Image files (*.jpg,*.jpeg,*.png)",new String[] {"jpg","jpeg","png"});
@@ -315,10 +303,9 @@ public class Add_member extends javax.swing.JFrame {
             int retVal = jfc.showOpenDialog(this);
             if (retVal == JFileChooser.APPROVE_OPTION) {
                 jTextField7.setText(jfc.getSelectedFile().getPath());    
-                BufferedImage image  = ImageIO.read(new File(jfc.getSelectedFile().getPath()));
-                Image scaled  = image.getScaledInstance(label.width,label.height,Image.SCALE_SMOOTH);
-                ImageIcon imageIcon = new ImageIcon(scaled);
-                jLabel2.setIcon(imageIcon);
+                try (FileInputStream in = new FileInputStream(jfc.getSelectedFile())) {
+                    jLabel2.setIcon(Photo_service.icon(Photo_service.decode(in, Photo_service.THUMB_SIZE), jLabel2.getSize()));
+                }
             }
             
         } catch (IOException ex) {
@@ -327,14 +314,11 @@ public class Add_member extends javax.swing.JFrame {
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
-        // TODO add your handling code here:
         try {
             Matcher alpha,alphanum,num;
             alpha = Constant.ALPHA.matcher(jTextField3.getText()+jTextField4.getText()+jTextField5.getText());
             alphanum = Constant.ALPHANUM.matcher(jTextField6.getText());
             num = Constant.NUM.matcher(jTextField8.getText());
-            Connection con = Database.connect();
-            PreparedStatement ps = con.prepareStatement("insert into master values(?,?,?,?,?,?,?,?,?)");
             if(jTextField3.getText() == null && jTextField4.getText() == null && jTextField5.getText() == null && jTextField6.getText() == null && jTextField8.getText() == null) {
                 JOptionPane.showMessageDialog(rootPane,"All fields are mandatory!");
             }else if(!alpha.matches()) {
@@ -344,53 +328,76 @@ public class Add_member extends javax.swing.JFrame {
             }else if(!num.matches()) {
                 JOptionPane.showMessageDialog(rootPane,"Contact number must be numeric");
             }else {
-                ps.setString(1,jTextField3.getText());
-                ps.setString(2,jTextField4.getText());
-                ps.setString(3,jTextField5.getText());
+                // read the form here, write the member on a worker thread
+                final String firstName = jTextField3.getText();
+                final String middleName = jTextField4.getText();
+                final String lastName = jTextField5.getText();
                 Date dd = jDateChooser1.getDate();
                 SimpleDateFormat sdf = new SimpleDateFormat("ddMMyyyy");
                 String strDate = sdf.format(dd);
                 java.util.Date date = sdf.parse(strDate);
-                java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                ps.setDate(4,sqlDate);
-                ps.setString(9,jTextField6.getText());
-                ps.setLong(5,Long.parseLong(jTextField8.getText()));
-                if(jTextField5.getText() != null) {
-                    File imageFile = new File(jTextField7.getText());
-                    FileInputStream fis = new FileInputStream(imageFile);
-                    ps.setBinaryStream(6,fis,imageFile.length());
-                } else {
-                    ps.setBinaryStream(6,null,0);
-                }
-                ps.setLong(7,Integer.parseInt(jTextField1.getText()));
-                String str = jComboBox1.getSelectedItem().toString();
-                ps.setString(8,str);
-                int count = ps.executeUpdate();
-                //con.prepareStatement("insert into family values(?,?)");
-                //ps.setInt(1,Integer.parseInt(jTextField1.getText()));
-                //ps.setString(2,jComboBox2.getSelectedItem().toString());
-                Statement st = con.createStatement();
-                st.executeUpdate("insert into family values("+Integer.parseInt(jTextField1.getText())+",'"+jComboBox2.getSelectedItem().toString()+"')");
-                int count2 = 0,count1 = 0;
-                if(count > 0 || count1 > 0 || count2 > 0) {
-                    JOptionPane.showMessageDialog(rootPane,"Record Inserted sucessfully");
-                    jTextField3.setText("");
-                    jTextField4.setText("");
-                    jTextField5.setText("");
-                    jTextField6.setText("");
-                    jTextField7.setText("");
-                    jTextField8.setText("");
-                    jDateChooser1.setDate(null);
-                    
-                    Dimension label = jLabel2.getSize();
-                    BufferedImage img = ImageIO.read(getClass().getResourceAsStream("/Images/defaultIcon.jpg"));
-                    Image scaled = img.getScaledInstance(label.width,label.height,Image.SCALE_SMOOTH);
-                    ImageIcon imageIcon = new ImageIcon(scaled);
-                    jLabel2.setIcon(imageIcon);
-                    formWindowOpened(null);
-                }
+                final java.sql.Date sqlDate = new java.sql.Date(date.getTime());
+                final String pan = jTextField6.getText();
+                final long contact = Long.parseLong(jTextField8.getText());
+                final File imageFile = !"".equals(jTextField7.getText()) ? new File(jTextField7.getText()) : null;
+                final int mid = Integer.parseInt(jTextField1.getText());
+                final String sex = jComboBox1.getSelectedItem().toString();
+                final String fid = jComboBox2.getSelectedItem().toString();
+                jButton2.setEnabled(false);
+                Task_runner.submit(new Background_task<Integer>("Adding member") {
+                    @Override
+                    protected Integer work() throws ClassNotFoundException, SQLException, IOException {
+                        MemberDao.Member m = new MemberDao.Member();
+                        m.mid = mid;
+                        m.firstName = firstName;
+                        m.middleName = middleName;
+                        m.lastName = lastName;
+                        m.dob = sqlDate;
+                        m.contact = contact;
+                        m.sex = sex;
+                        m.pan = pan;
+                        m.fid = fid;
+                        try (Connection con = Database.connect()) {
+                            int count;
+                            if(imageFile != null) {
+                                byte[] photo = Photo_service.ingest(imageFile);
+                                count = new MemberDao(con).insert(m, new ByteArrayInputStream(photo), photo.length);
+                            } else {
+                                count = new MemberDao(con).insert(m, null, 0);
+                            }
+                            Member_directory.refresh(mid);
+                            return count;
+                        }
+                    }
+
+                    @Override
+                    protected void succeeded(Integer count) {
+                        if(count > 0) {
+                            JOptionPane.showMessageDialog(rootPane,"Record Inserted sucessfully");
+                            jTextField3.setText("");
+                            jTextField4.setText("");
+                            jTextField5.setText("");
+                            jTextField6.setText("");
+                            jTextField7.setText("");
+                            jTextField8.setText("");
+                            jDateChooser1.setDate(null);
+                            try {
+                                jLabel2.setIcon(Photo_service.icon(Photo_service.decode(getClass().getResourceAsStream("/Images/defaultIcon.jpg"),
+                                        Photo_service.THUMB_SIZE), jLabel2.getSize()));
+                            } catch (IOException ex) {
+                                Logger.getLogger(Add_member.class.getName()).log(Level.SEVERE, null, ex);
+                            }
+                            formWindowOpened(null);
+                        }
+                    }
+
+                    @Override
+                    protected void finished() {
+                        jButton2.setEnabled(true);
+                    }
+                });
             }
-        } catch (ClassNotFoundException | SQLException | HeadlessException | ParseException | NumberFormatException | IOException ex) {
+        } catch (HeadlessException | ParseException | NumberFormatException ex) {
             //Logger.getLogger(Add_member.class.getName()).log(Level.SEVERE, null, ex);
             ex.printStackTrace();
         }
@@ -5,12 +5,11 @@
  */
 package Member;
 
+import Dao.MemberDao;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -38,18 +37,13 @@ public class Delete_member extends javax.swing.JFrame {
             public void itemStateChanged(ItemEvent e){
 
                 if(e.getStateChange()==ItemEvent.SELECTED){
-                    try {
+                    try (Connection con = Others.Database.connect()) {
                         jComboBox3.removeAllItems();
                         l.clear();
-                        Connection con = Others.Database.connect();
-                        Statement st2 = con.createStatement();
-                        ResultSet rss = st2.executeQuery("select first_name,middle_name,last_name,master.mid from master,family where master.mid = family.mid and fid = '"+e.getItem().toString().toUpperCase()+"'");
                         jComboBox3.addItem("Select a member");
-                        String member;
-                        while(rss.next()) {
-                            member = rss.getString("first_name")+" "+rss.getString("middle_name")+" "+rss.getString("last_name");
-                            jComboBox3.addItem(member);
-                            l.add(rss.getInt("mid"));
+                        for (MemberDao.Member m : new MemberDao(con).byFlat(e.getItem().toString().toUpperCase())) {
+                            jComboBox3.addItem(m.getName());
+                            l.add(m.mid);
                         }
                     } catch (ClassNotFoundException | SQLException ex) {
                         Logger.getLogger(Modify_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -66,18 +60,13 @@ public class Delete_member extends javax.swing.JFrame {
             public void itemStateChanged(ItemEvent e){
 
                 if(e.getStateChange()==ItemEvent.SELECTED){
-                    try {
+                    try (Connection con = Others.Database.connect()) {
                         jComboBox3.removeAllItems();
                         l.clear();
-                        Connection con = Others.Database.connect();
-                        Statement st2 = con.createStatement();
-                        ResultSet rss = st2.executeQuery("select first_name,middle_name,last_name,master.mid from master,family where master.mid = family.mid and fid = '"+e.getItem().toString().toUpperCase()+"'");
                         jComboBox3.addItem("Select a member");
-                        String member;
-                        while(rss.next()) {
-                            member = rss.getString("first_name")+" "+rss.getString("middle_name")+" "+rss.getString("last_name");
-                            jComboBox3.addItem(member);
-                            l.add(rss.getInt("mid"));
+                        for (MemberDao.Member m : new MemberDao(con).byFlat(e.getItem().toString().toUpperCase())) {
+                            jComboBox3.addItem(m.getName());
+                            l.add(m.mid);
                         }
                     } catch (ClassNotFoundException | SQLException ex) {
                         Logger.getLogger(Modify_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -88,7 +77,6 @@ public class Delete_member extends javax.swing.JFrame {
         });
     }
     
-    Connection con;
 
     /**
      * This method is called from within the constructor to initialize the form.
@@ -234,12 +222,13 @@ public class Delete_member extends javax.swing.JFrame {
         if(!jComboBox3.getSelectedItem().equals("Select a member")) {
             int retVal = JOptionPane.showConfirmDialog(rootPane,"Records once deleted cannot be recovered\nConfirm delete "+jComboBox3.getSelectedItem().toString().toUpperCase()+" ?");
             if(retVal == 0) {
-                try {
+                try (Connection con = Others.Database.connect()) {
                     int m = l.get(jComboBox3.getSelectedIndex()-1);
-                    Statement st = con.createStatement(ResultSet.TYPE_FORWARD_ONLY,ResultSet.CONCUR_UPDATABLE);
-                    st.executeUpdate("delete from master where mid = "+m);
+                    new MemberDao(con).delete(m);
+                    Member_directory.remove(m);
+                    Photo_service.invalidate(m);
                     JOptionPane.showMessageDialog(rootPane,"Member deleted sucessfully");
-                } catch (SQLException ex) {
+                } catch (ClassNotFoundException | SQLException ex) {
                     Logger.getLogger(Delete_member.class.getName()).log(Level.SEVERE, null, ex);
                 }
             } else {
@@ -254,12 +243,9 @@ public class Delete_member extends javax.swing.JFrame {
         // TODO add your handling code here:
         try {
             // TODO add your handling code here:s
-            con = Others.Database.connect();
-            Statement st2 = con.createStatement();
-            ResultSet rss = st2.executeQuery("select fid from flat");
             //jComboBox4.addItem("Select room");
-            while(rss.next()) {
-                jComboBox4.addItem(rss.getString("fid"));
+            for (String fid : Others.Reference_data.flatIds()) {
+                jComboBox4.addItem(fid);
             }
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(Modify_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -0,0 +1,211 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Member;
+
+import Dao.MemberDao;
+import Dao.MemberDao.Member;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of every member, by mid, by name and by flat.
+ *
+ * The master and family tables are read once, without photos, on first use;
+ * photos come from {@link Photo_service}. A member linked to several flats is
+ * listed under each of them; the record kept for the member carries the
+ * first of those flats, and {@link #flats(int)} gives them all.
+ * Forms that add, modify or delete a member call {@link #refresh(int)} or
+ * {@link #remove(int)} so only that member is re-read. Names are matched
+ * ignoring case. Members are kept ordered by mid so the view can step to the
+ * previous or next one without holding a scrollable cursor open.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Member_directory {
+
+    private static TreeMap<Integer, Member> byMid;
+    private static final Map<Integer, List<String>> flatsByMid = new HashMap<>();
+    private static final Map<String, List<Member>> byName = new HashMap<>();
+    private static final Map<String, List<Member>> byFlat = new HashMap<>();
+
+    public static synchronized Member byMid(int mid) throws ClassNotFoundException, SQLException {
+        return index().get(mid);
+    }
+
+    /**
+     * Members with exactly this first, middle and last name, ignoring case.
+     */
+    public static synchronized List<Member> byName(String firstName, String middleName, String lastName) throws ClassNotFoundException, SQLException {
+        index();
+        return copy(byName.get(nameKey(firstName, middleName, lastName)));
+    }
+
+    public static synchronized List<Member> byFlat(String fid) throws ClassNotFoundException, SQLException {
+        index();
+        return copy(byFlat.get(flatKey(fid)));
+    }
+
+    /**
+     * Every flat the member belongs to.
+     */
+    public static synchronized List<String> flats(int mid) throws ClassNotFoundException, SQLException {
+        index();
+        List<String> flats = flatsByMid.get(mid);
+        return flats == null ? Collections.<String>emptyList() : new ArrayList<>(flats);
+    }
+
+    public static synchronized int size() throws ClassNotFoundException, SQLException {
+        return index().size();
+    }
+
+    public static synchronized Member first() throws ClassNotFoundException, SQLException {
+        Map.Entry<Integer, Member> e = index().firstEntry();
+        return e == null ? null : e.getValue();
+    }
+
+    public static synchronized Member last() throws ClassNotFoundException, SQLException {
+        Map.Entry<Integer, Member> e = index().lastEntry();
+        return e == null ? null : e.getValue();
+    }
+
+    /**
+     * The member after {@code mid}, wrapping round to the first.
+     */
+    public static synchronized Member next(int mid) throws ClassNotFoundException, SQLException {
+        Map.Entry<Integer, Member> e = index().higherEntry(mid);
+        return e == null ? first() : e.getValue();
+    }
+
+    /**
+     * The member before {@code mid}, wrapping round to the last.
+     */
+    public static synchronized Member previous(int mid) throws ClassNotFoundException, SQLException {
+        Map.Entry<Integer, Member> e = index().lowerEntry(mid);
+        return e == null ? last() : e.getValue();
+    }
+
+    /**
+     * Re-reads one member after it was added or modified.
+     */
+    public static synchronized void refresh(int mid) throws ClassNotFoundException, SQLException {
+        if (byMid == null) {
+            return;
+        }
+        unindex(byMid.remove(mid));
+        try (Connection con = Others.Database.connect()) {
+            for (Member m : new MemberDao(con).findAll(mid)) {
+                add(m);
+            }
+        }
+    }
+
+    public static synchronized void remove(int mid) {
+        if (byMid != null) {
+            unindex(byMid.remove(mid));
+        }
+    }
+
+    /**
+     * Drops the whole index, e.g. after a restore. The next lookup reloads it.
+     */
+    public static synchronized void invalidate() {
+        byMid = null;
+        flatsByMid.clear();
+        byName.clear();
+        byFlat.clear();
+    }
+
+    private static TreeMap<Integer, Member> index() throws ClassNotFoundException, SQLException {
+        if (byMid == null) {
+            TreeMap<Integer, Member> members = new TreeMap<>();
+            flatsByMid.clear();
+            byName.clear();
+            byFlat.clear();
+            byMid = members;
+            try (Connection con = Others.Database.connect()) {
+                for (Member m : new MemberDao(con).all()) {
+                    add(m);
+                }
+            } catch (ClassNotFoundException | SQLException ex) {
+                invalidate();
+                throw ex;
+            }
+        }
+        return byMid;
+    }
+
+    /**
+     * Indexes one row of {@link MemberDao#all()}; a member's later rows only
+     * add their flat.
+     */
+    private static void add(Member row) {
+        Member m = byMid.get(row.mid);
+        if (m == null) {
+            m = row;
+            byMid.put(m.mid, m);
+            put(byName, nameKey(m.firstName, m.middleName, m.lastName), m);
+        }
+        if (row.fid != null) {
+            put(flatsByMid, m.mid, row.fid);
+            put(byFlat, flatKey(row.fid), m);
+        }
+    }
+
+    private static void unindex(Member m) {
+        if (m == null) {
+            return;
+        }
+        take(byName, nameKey(m.firstName, m.middleName, m.lastName), m);
+        List<String> flats = flatsByMid.remove(m.mid);
+        if (flats != null) {
+            for (String fid : flats) {
+                take(byFlat, flatKey(fid), m);
+            }
+        }
+    }
+
+    private static <K, V> void put(Map<K, List<V>> index, K key, V value) {
+        List<V> list = index.get(key);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            index.put(key, list);
+        }
+        list.add(value);
+    }
+
+    private static void take(Map<String, List<Member>> index, String key, Member m) {
+        List<Member> list = index.get(key);
+        if (list != null) {
+            list.remove(m);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static List<Member> copy(List<Member> list) {
+        return list == null ? Collections.<Member>emptyList() : new ArrayList<>(list);
+    }
+
+    private static String nameKey(String firstName, String middleName, String lastName) {
+        return fold(firstName) + '\u0000' + fold(middleName) + '\u0000' + fold(lastName);
+    }
+
+    private static String flatKey(String fid) {
+        return fid.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String fold(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -5,33 +5,28 @@
  */
 package Member;
 
+import Dao.MemberDao;
 import Others.AutoCompletion;
 import Others.Constant;
 import Others.Database;
-import java.awt.Dimension;
 import java.awt.HeadlessException;
 import java.awt.Image;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
 import java.util.Date;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
-import javax.imageio.ImageIO;
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -381,14 +376,11 @@ public class Modify_member extends javax.swing.JFrame {
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         try {
             // TODO add your handling code here:s
-            Connection con = Others.Database.connect();
-            Statement st2 = con.createStatement();
-            ResultSet rss = st2.executeQuery("select fid from flat");
             //jComboBox4.addItem("Select room");
             jComboBox4.addItem("Select a room");
-            while(rss.next()) {
-                jComboBox4.addItem(rss.getString("fid"));
-                jComboBox2.addItem(rss.getString("fid"));
+            for (String fid : Others.Reference_data.flatIds()) {
+                jComboBox4.addItem(fid);
+                jComboBox2.addItem(fid);
             }
             
             jComboBox4.addItemListener(new ItemListener(){
@@ -396,18 +388,13 @@ public class Modify_member extends javax.swing.JFrame {
             public void itemStateChanged(ItemEvent e){
 
                 if(e.getStateChange()==ItemEvent.SELECTED){
-                    try {
+                    try (Connection con = Others.Database.connect()) {
                         jComboBox3.removeAllItems();
                         l.clear();
-                        Connection con = Others.Database.connect();
-                        Statement st2 = con.createStatement();
-                        ResultSet rss = st2.executeQuery("select first_name,middle_name,last_name,master.mid from master,family where master.mid = family.mid and fid = '"+e.getItem().toString().toUpperCase()+"'");
                         jComboBox3.addItem("Select a member");
-                        String member;
-                        while(rss.next()) {
-                            member = rss.getString("first_name")+" "+rss.getString("middle_name")+" "+rss.getString("last_name");
-                            jComboBox3.addItem(member);
-                            l.add(rss.getInt("mid"));
+                        for (MemberDao.Member m : new MemberDao(con).byFlat(e.getItem().toString().toUpperCase())) {
+                            jComboBox3.addItem(m.getName());
+                            l.add(m.mid);
                         }
                     } catch (ClassNotFoundException | SQLException ex) {
                         Logger.getLogger(Modify_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -435,32 +422,19 @@ public class Modify_member extends javax.swing.JFrame {
         if(!jComboBox3.getSelectedItem().equals("Select a member")) {
             jPanel1.setVisible(true);
             jPanel2.setVisible(false);
-            Statement st,st1;
-            ResultSet rs,rs1;
-            try {
-                int m = l.get(jComboBox3.getSelectedIndex()-1);
-                Connection con = Others.Database.connect();
-                st = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,ResultSet.CONCUR_READ_ONLY);
-                st1 = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,ResultSet.CONCUR_READ_ONLY);
-                rs = st.executeQuery("select * from master where mid = "+m);
-                rs1 = st1.executeQuery("select * from family where mid = "+m);
-                rs.next();
-                rs1.next();
-                jTextField1.setText(""+rs.getInt("mid"));
-                jTextField3.setText(rs.getString("first_name"));
-                jTextField4.setText(rs.getString("middle_name"));
-                jTextField5.setText(rs.getString("last_name"));
-                jTextField6.setText(rs.getString("pan"));
-                jTextField8.setText(Long.toString(rs.getLong("contact")));
-                jDateChooser1.setDate(rs.getDate("dob"));
-                jComboBox1.setSelectedItem(rs.getString("sex"));
-                jComboBox2.setSelectedItem(rs1.getString("fid"));
-                Dimension label = jLabel2.getSize();
-                byte[] imgByte = rs.getBytes("photo");
-                BufferedImage img = ImageIO.read(new ByteArrayInputStream(imgByte));
-                Image scaled = img.getScaledInstance(label.width,label.height,Image.SCALE_SMOOTH);
-                ImageIcon imageIcon = new ImageIcon(scaled);
-                jLabel2.setIcon(imageIcon);
+            try (Connection con = Others.Database.connect()) {
+                MemberDao members = new MemberDao(con);
+                MemberDao.Member m = members.find(l.get(jComboBox3.getSelectedIndex()-1));
+                jTextField1.setText(""+m.mid);
+                jTextField3.setText(m.firstName);
+                jTextField4.setText(m.middleName);
+                jTextField5.setText(m.lastName);
+                jTextField6.setText(m.pan);
+                jTextField8.setText(Long.toString(m.contact));
+                jDateChooser1.setDate(m.dob);
+                jComboBox1.setSelectedItem(m.sex);
+                jComboBox2.setSelectedItem(m.fid);
+                jLabel2.setIcon(Photo_service.icon(Photo_service.thumbnail(m.mid), jLabel2.getSize()));
             } catch (ClassNotFoundException | SQLException | IOException ex) {
                 Logger.getLogger(Modify_member.class.getName()).log(Level.SEVERE, null, ex);
             }
@@ -476,13 +450,6 @@ public class Modify_member extends javax.swing.JFrame {
             alpha = Constant.ALPHA.matcher(jTextField3.getText()+jTextField4.getText()+jTextField5.getText());
             alphanum = Constant.ALPHANUM.matcher(jTextField6.getText());
             num = Constant.NUM.matcher(jTextField8.getText());
-            Connection con = Database.connect();
-            PreparedStatement ps,pss;
-            if(!"".equals(jTextField7.getText())) {
-                ps = con.prepareStatement("update master set first_name = ?, middle_name = ?, last_name = ?, dob = ?, contact = ?, photo = ?, sex = ?, pan = ? where mid = ?");
-            } else {
-                ps = con.prepareStatement("update master set first_name = ?, middle_name = ?, last_name = ?, dob = ?, contact = ?, sex = ?, pan = ? where mid = ?");
-            }
             if(jTextField3.getText() == null && jTextField4.getText() == null && jTextField5.getText() == null && jTextField6.getText() == null && jTextField8.getText() == null) {
                 JOptionPane.showMessageDialog(rootPane,"All fields are mandatory!");
             }else if(!alpha.matches()) {
@@ -492,37 +459,32 @@ public class Modify_member extends javax.swing.JFrame {
             }else if(!num.matches()) {
                 JOptionPane.showMessageDialog(rootPane,"Contact number must be numeric");
             }else {
-                ps.setString(1,jTextField3.getText());
-                ps.setString(2,jTextField4.getText());
-                ps.setString(3,jTextField5.getText());
+                MemberDao.Member m = new MemberDao.Member();
+                m.mid = Integer.parseInt(jTextField1.getText());
+                m.firstName = jTextField3.getText();
+                m.middleName = jTextField4.getText();
+                m.lastName = jTextField5.getText();
                 Date dd = (Date)jDateChooser1.getDate();
                 SimpleDateFormat sdf = new SimpleDateFormat("ddMMyyyy");
                 String strDate = sdf.format(dd);
                 java.util.Date date = sdf.parse(strDate);
-                java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-                ps.setDate(4,sqlDate);
-                ps.setLong(5,Long.parseLong(jTextField8.getText()));
-                String str = jComboBox1.getSelectedItem().toString();
-                if(!"".equals(jTextField7.getText())) {
-                    File imageFile = new File(jTextField7.getText());
-                    FileInputStream fis = new FileInputStream(imageFile);
-                    ps.setBinaryStream(6,fis,imageFile.length());
-                    ps.setString(7,str);
-                    ps.setString(8,jTextField6.getText());
-                    ps.setInt(9,Integer.parseInt(jTextField1.getText()));
-                
-                } else {
-                    ps.setString(6,str);
-                    ps.setString(7,jTextField6.getText());
-                    ps.setInt(8,Integer.parseInt(jTextField1.getText()));
-                
+                m.dob = new java.sql.Date(date.getTime());
+                m.contact = Long.parseLong(jTextField8.getText());
+                m.sex = jComboBox1.getSelectedItem().toString();
+                m.pan = jTextField6.getText();
+                m.fid = jComboBox2.getSelectedItem().toString();
+                int count;
+                try (Connection con = Database.connect()) {
+                    if(!"".equals(jTextField7.getText())) {
+                        byte[] photo = Photo_service.ingest(new File(jTextField7.getText()));
+                        count = new MemberDao(con).update(m, new ByteArrayInputStream(photo), photo.length);
+                    } else {
+                        count = new MemberDao(con).update(m, null, 0);
+                    }
                 }
-                int count = ps.executeUpdate();
-                pss = con.prepareStatement("update family set fid = ? where mid = ?");
-                pss.setInt(2,Integer.parseInt(jTextField1.getText()));
-                pss.setString(1,jComboBox2.getSelectedItem().toString());
-                int count1 = pss.executeUpdate();System.out.println(count+"  "+count1);
-                if(count > 0 || count1 > 0) {
+                Member_directory.refresh(m.mid);
+                Photo_service.invalidate(m.mid);
+                if(count > 0) {
                     JOptionPane.showMessageDialog(rootPane,"Record updated sucessfully");
                     jPanel2.setVisible(false);
                     jPanel2.setVisible(true);
@@ -536,7 +498,6 @@ public class Modify_member extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         try {
             // TODO add your handling code here:
-            Dimension label = jLabel2.getSize();
             JFileChooser jfc = new JFileChooser();
             jfc.setVisible(true);
             FileFilter filter = new FileNameExtensionFilter("Image files (*.jpg,*.jpeg,*.png)",new String[] {"jpg","jpeg","png"});
@@ -544,10 +505,9 @@ public class Modify_member extends javax.swing.JFrame {
             int retVal = jfc.showOpenDialog(this);
             if (retVal == JFileChooser.APPROVE_OPTION) {
                 jTextField7.setText(jfc.getSelectedFile().getPath());
-                BufferedImage image  = ImageIO.read(new File(jfc.getSelectedFile().getPath()));
-                Image scaled  = image.getScaledInstance(label.width,label.height,Image.SCALE_SMOOTH);
-                ImageIcon imageIcon = new ImageIcon(scaled);
-                jLabel2.setIcon(imageIcon);
+                try (FileInputStream in = new FileInputStream(jfc.getSelectedFile())) {
+                    jLabel2.setIcon(Photo_service.icon(Photo_service.decode(in, Photo_service.THUMB_SIZE), jLabel2.getSize()));
+                }
             }
 
         } catch (IOException ex) {
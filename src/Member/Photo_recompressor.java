@@ -0,0 +1,141 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Member;
+
+import Dao.MemberDao;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Brings photos stored before {@link Photo_service#ingest(java.io.File)}
+ * down to the same size and quality.
+ *
+ * Photos are decoded and encoded on several threads, each with its own
+ * connection. A photo is only replaced when the new one is at least a tenth
+ * smaller, since encoding a JPEG again always shaves a little off, so
+ * running the job twice leaves the photos it already did alone. Members
+ * whose photo cannot be read are left alone and counted; one cleared while
+ * the job runs is skipped.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Photo_recompressor {
+
+    public interface Progress {
+
+        void update(int done, int total);
+    }
+
+    public static class Result {
+
+        public int photos;
+        public int recompressed;
+        public int failed;
+        public long bytesBefore;
+        public long bytesAfter;
+        public long millis;
+
+        public long getReclaimed() {
+            return bytesBefore - bytesAfter;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d photos, %d recompressed, %d unreadable; %.1f MB -> %.1f MB, %.1f MB reclaimed in %.1f s",
+                    photos, recompressed, failed, bytesBefore / 1048576.0, bytesAfter / 1048576.0,
+                    getReclaimed() / 1048576.0, millis / 1000.0);
+        }
+    }
+
+    public static int threads = Integer.getInteger("himalaya.photo.threads", Runtime.getRuntime().availableProcessors());
+
+    public static Result run(final Progress progress) throws ClassNotFoundException, SQLException, InterruptedException {
+        long start = System.currentTimeMillis();
+        final Map<Integer, Long> sizes;
+        try (Connection con = Others.Database.connect()) {
+            sizes = new MemberDao(con).photoSizes();
+        }
+        final Result result = new Result();
+        result.photos = sizes.size();
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger recompressed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicLong after = new AtomicLong();
+        // each worker holds a connection, so stay within the pool
+        int workers = Math.max(1, Math.min(threads, Others.Database.poolMaxSize - 1));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (final Map.Entry<Integer, Long> e : sizes.entrySet()) {
+                result.bytesBefore += e.getValue();
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        int mid = e.getKey();
+                        long size = e.getValue();
+                        try (Connection con = Others.Database.connect()) {
+                            MemberDao members = new MemberDao(con);
+                            byte[] stored = members.photo(mid);
+                            if (stored == null) {
+                                // cleared since the sizes were read
+                                size = 0;
+                            } else {
+                                byte[] photo = Photo_service.ingest(new ByteArrayInputStream(stored));
+                                if (photo.length < size - size / 10) {
+                                    members.replacePhoto(mid, new ByteArrayInputStream(photo), photo.length);
+                                    Photo_service.invalidate(mid);
+                                    recompressed.incrementAndGet();
+                                    size = photo.length;
+                                }
+                            }
+                        } catch (ClassNotFoundException | SQLException | IOException | RuntimeException ex) {
+                            // ImageIO throws unchecked exceptions too, e.g. on CMYK JPEGs
+                            Logger.getLogger(Photo_recompressor.class.getName()).log(Level.WARNING, "Could not recompress the photo of member " + mid, ex);
+                            failed.incrementAndGet();
+                        }
+                        after.addAndGet(size);
+                        if (progress != null) {
+                            progress.update(done.incrementAndGet(), sizes.size());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        result.recompressed = recompressed.get();
+        result.failed = failed.get();
+        result.bytesAfter = after.get();
+        result.millis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    public static void main(String args[]) throws ClassNotFoundException, SQLException, InterruptedException {
+        if (args.length > 0) {
+            Others.Database.dbDirectory = args[0];
+        }
+        System.out.println(run(null));
+        Others.Database.shutdown();
+    }
+}
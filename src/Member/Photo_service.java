@@ -0,0 +1,363 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Member;
+
+import Dao.MemberDao;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import org.imgscalr.Scalr;
+
+/**
+ * Member photos for the member screens, as small thumbnails.
+ *
+ * A thumbnail fits within {@link #THUMB_SIZE} pixels and is made once from
+ * the full photo, then stored beside it in master.photo_thumb, so paging
+ * through members reads a few kilobytes instead of the whole image. Decoded
+ * thumbnails are kept in memory for the most recently used members, and the
+ * screens ask for the neighbours of the member shown to be loaded on a
+ * background thread before they are needed. The full photo is only read by
+ * {@link #full(int)}.
+ *
+ * Large images are decoded with subsampling, so a camera picture is never
+ * expanded to full resolution just to be shrunk again. Photos are stored
+ * through {@link #ingest(File)}, which brings them down to
+ * {@link #maxPhotoSize} pixels and re-encodes them as JPEG at
+ * {@link #photoQuality}.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Photo_service {
+
+    /**
+     * Told when a thumbnail has been loaded, on the event dispatch thread.
+     */
+    public interface Listener {
+
+        /**
+         * @param thumbnail the thumbnail, or null if the member has no photo
+         */
+        void loaded(int mid, BufferedImage thumbnail);
+    }
+
+    public static final int THUMB_SIZE = 256;
+    public static int cachedThumbnails = Integer.getInteger("himalaya.photo.cache", 64);
+    public static int maxPhotoSize = Integer.getInteger("himalaya.photo.maxSize", 1024);
+    public static float photoQuality = Float.parseFloat(System.getProperty("himalaya.photo.quality", "0.85"));
+
+    // stands in for members without a photo, so they are not looked up again
+    private static final BufferedImage NONE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+
+    private static final Map<Integer, BufferedImage> cache = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+            return size() > cachedThumbnails;
+        }
+    };
+    private static final Set<Integer> pending = new HashSet<>();
+    // guarded by cache: bumped by invalidate() and clear(), so a load that
+    // started before the photo changed does not put the old thumbnail back
+    private static final Map<Integer, Long> invalidated = new HashMap<>();
+    private static long version;
+    private static long cleared;
+    private static ExecutorService loader;
+
+    static {
+        // decode from memory rather than through a temporary file
+        ImageIO.setUseCache(false);
+    }
+
+    /**
+     * The member's thumbnail, loading it if it is not in memory.
+     *
+     * @return the thumbnail, or null if the member has no photo
+     */
+    public static BufferedImage thumbnail(int mid) throws ClassNotFoundException, SQLException, IOException {
+        while (true) {
+            BufferedImage thumb;
+            long generation;
+            synchronized (cache) {
+                thumb = cache.get(mid);
+                generation = generation(mid);
+            }
+            if (thumb == null) {
+                thumb = load(mid, generation);
+                synchronized (cache) {
+                    if (generation != generation(mid)) {
+                        // the photo changed while it was loading
+                        continue;
+                    }
+                    cache.put(mid, thumb);
+                }
+            }
+            return thumb == NONE ? null : thumb;
+        }
+    }
+
+    /**
+     * Calls the listener with the member's thumbnail: at once if it is in
+     * memory, otherwise once it has been loaded in the background.
+     */
+    public static void request(final int mid, final Listener listener) {
+        BufferedImage thumb;
+        synchronized (cache) {
+            thumb = cache.get(mid);
+        }
+        if (thumb != null) {
+            listener.loaded(mid, thumb == NONE ? null : thumb);
+            return;
+        }
+        loader().execute(new Runnable() {
+            @Override
+            public void run() {
+                final BufferedImage loaded = loadQuietly(mid);
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.loaded(mid, loaded);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Loads the members' thumbnails in the background if they are not
+     * already in memory.
+     */
+    public static void prefetch(int... mids) {
+        for (final int mid : mids) {
+            synchronized (cache) {
+                if (cache.containsKey(mid) || !pending.add(mid)) {
+                    continue;
+                }
+            }
+            loader().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        loadQuietly(mid);
+                    } finally {
+                        synchronized (cache) {
+                            pending.remove(mid);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * The member's photo at full size, or null if they have none.
+     */
+    public static BufferedImage full(int mid) throws ClassNotFoundException, SQLException, IOException {
+        byte[] photo;
+        try (Connection con = Others.Database.connect()) {
+            photo = new MemberDao(con).photo(mid);
+        }
+        return photo == null ? null : ImageIO.read(new ByteArrayInputStream(photo));
+    }
+
+    /**
+     * Reads an image file as it should be stored: no more than
+     * {@link #maxPhotoSize} pixels either way, as JPEG.
+     */
+    public static byte[] ingest(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return ingest(in);
+        }
+    }
+
+    public static byte[] ingest(InputStream in) throws IOException {
+        BufferedImage image = decode(in, maxPhotoSize);
+        if (image == null) {
+            throw new IOException("Not an image ImageIO can read");
+        }
+        return encode(image, photoQuality);
+    }
+
+    /**
+     * Scales a thumbnail to fill a label.
+     */
+    public static ImageIcon icon(BufferedImage thumbnail, Dimension size) {
+        if (thumbnail == null || size.width <= 0 || size.height <= 0) {
+            return null;
+        }
+        return new ImageIcon(Scalr.resize(thumbnail, Scalr.Method.BALANCED, Scalr.Mode.FIT_EXACT, size.width, size.height));
+    }
+
+    /**
+     * Decodes an image so that it fits within {@code size} pixels, reading
+     * only as much of it as that needs. Smaller images are returned as they
+     * are.
+     *
+     * @return the image, or null if it is not in a format ImageIO can read
+     */
+    public static BufferedImage decode(InputStream in, int size) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                // keep at least twice the target so the final resize has detail to work with
+                int step = largest / (size * 2);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                BufferedImage image = reader.read(0, param);
+                if (Math.max(image.getWidth(), image.getHeight()) <= size) {
+                    return image;
+                }
+                return Scalr.resize(image, Scalr.Method.QUALITY, size);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Forgets the member's thumbnail, after their photo changed or they were
+     * deleted.
+     */
+    public static void invalidate(int mid) {
+        synchronized (cache) {
+            cache.remove(mid);
+            invalidated.put(mid, ++version);
+        }
+    }
+
+    /**
+     * Forgets every thumbnail, e.g. after a restore.
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+            invalidated.clear();
+            cleared = ++version;
+        }
+    }
+
+    // must hold the cache lock
+    private static long generation(int mid) {
+        Long g = invalidated.get(mid);
+        return g == null ? cleared : Math.max(g, cleared);
+    }
+
+    private static BufferedImage loadQuietly(int mid) {
+        try {
+            return thumbnail(mid);
+        } catch (ClassNotFoundException | SQLException | IOException ex) {
+            Logger.getLogger(Photo_service.class.getName()).log(Level.WARNING, "Could not load the photo of member " + mid, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the stored thumbnail, making and storing it from the photo the
+     * first time. The one made is not stored if the photo was replaced in
+     * the meantime.
+     */
+    private static BufferedImage load(int mid, long generation) throws ClassNotFoundException, SQLException, IOException {
+        try (Connection con = Others.Database.connect()) {
+            MemberDao members = new MemberDao(con);
+            byte[] stored = members.thumbnail(mid);
+            if (stored != null) {
+                BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(stored));
+                if (thumb != null) {
+                    return thumb;
+                }
+            }
+            byte[] photo = members.photo(mid);
+            BufferedImage thumb = photo == null ? null : decode(new ByteArrayInputStream(photo), THUMB_SIZE);
+            if (thumb == null) {
+                return NONE;
+            }
+            byte[] encoded = encode(thumb, photoQuality);
+            synchronized (cache) {
+                if (generation != generation(mid)) {
+                    return thumb;
+                }
+            }
+            members.storeThumbnail(mid, encoded);
+            return thumb;
+        }
+    }
+
+    static byte[] encode(BufferedImage image, float quality) throws IOException {
+        BufferedImage rgb = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            // JPEG has no alpha; flatten onto white
+            rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = rgb.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static synchronized ExecutorService loader() {
+        if (loader == null) {
+            loader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "photo-loader");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                }
+            });
+        }
+        return loader;
+    }
+}
@@ -6,27 +6,29 @@
 
 package Member;
 
+import Dao.MemberDao;
+import Others.Background_task;
 import Others.Constant;
+import Others.Task_runner;
 import java.awt.Dimension;
-import java.awt.Image;
+import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.sql.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import org.imgscalr.Scalr;
 /**
  *
  * @author RtrSuahantNadkar
  */
 public class View_member extends javax.swing.JFrame {
     
-    ResultSet rs,rs1;
-    Statement st,st1;
+    MemberDao.Member current;
     boolean parent = false;
     Flat.View_flat_details fd;
     JFrame parentFrame;
@@ -46,15 +48,8 @@ public class View_member extends javax.swing.JFrame {
             initComponents();
             this.parent = parent;
             this.fd = fd;
-            Connection con = Others.Database.connect();
-            st = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,ResultSet.CONCUR_READ_ONLY);
-            st1 = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,ResultSet.CONCUR_READ_ONLY);
-            rs = st.executeQuery("select * from master");
-            rs1 = st1.executeQuery("select * from family");
-            while(rs.next()) {
-                if(rs.getString("first_name").equalsIgnoreCase(name[0]) && rs.getString("middle_name").equalsIgnoreCase(name[1]) && rs.getString("last_name").equalsIgnoreCase(name[2])) {
-                    getRecord();
-                }
+            for(MemberDao.Member m : Member_directory.byName(name[0], name[1], name[2])) {
+                getRecord(m);
             }
         } catch (SQLException | ClassNotFoundException ex) {
             Logger.getLogger(View_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -365,6 +360,11 @@ public class View_member extends javax.swing.JFrame {
         jLabel12.setMaximumSize(new java.awt.Dimension(114, 131));
         jLabel12.setMinimumSize(new java.awt.Dimension(114, 131));
         jLabel12.setPreferredSize(new java.awt.Dimension(114, 131));
+        jLabel12.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                jLabel12MouseClicked(evt);
+            }
+        });
         gridBagConstraints = new java.awt.GridBagConstraints();
         gridBagConstraints.gridx = 3;
         gridBagConstraints.gridy = 3;
@@ -379,11 +379,7 @@ public class View_member extends javax.swing.JFrame {
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         // TODO add your handling code here:
         try {
-            Connection con = Others.Database.connect();
-            st = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,ResultSet.CONCUR_READ_ONLY);
-            st1 = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,ResultSet.CONCUR_READ_ONLY);
-            rs = st.executeQuery("select * from master");
-            rs1 = st1.executeQuery("select * from family");
+            Member_directory.size();
         } catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(View_member.class.getName()).log(Level.SEVERE, null, ex);
         } 
@@ -397,21 +393,7 @@ public class View_member extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
         try{
-            if(rs.previous() == true) {
-                getRecord();
-            }
-            else {
-                rs.afterLast();
-                rs.previous();
-                getRecord();
-            }
-            if(rs1.previous() == true) {
-                getRecord();
-            }
-            else {
-                rs1.afterLast();
-                getRecord();
-            }
+            getRecord(current == null ? Member_directory.last() : Member_directory.previous(current.mid));
         }
         catch (Exception ex) {
             Logger.getLogger(View_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -421,21 +403,7 @@ public class View_member extends javax.swing.JFrame {
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
         try{
-            if(rs.next() == true) {
-                getRecord();
-            }
-            else {
-                rs.beforeFirst();
-                rs.next();
-                getRecord();
-            }
-            if(rs1.next() == true) {
-                getRecord();
-            }
-            else {
-                rs1.beforeFirst();
-                getRecord();
-            }
+            getRecord(current == null ? Member_directory.first() : Member_directory.next(current.mid));
         }
         catch (Exception ex) {
             Logger.getLogger(View_member.class.getName()).log(Level.SEVERE, null, ex);
@@ -447,17 +415,14 @@ public class View_member extends javax.swing.JFrame {
         try {Matcher num;
             num = Constant.NUM.matcher(jTextField1.getText());
             
-            rs.beforeFirst();
-            rs1.beforeFirst();
-            while(rs.next()) {
-                if(Integer.parseInt(jTextField1.getText()) == rs.getInt("mid") && num.matches()) {
-                    getRecord();
-                } else {
-                    
+            if(num.matches()) {
+                MemberDao.Member m = Member_directory.byMid(Integer.parseInt(jTextField1.getText()));
+                if(m != null) {
+                    getRecord(m);
                 }
             }
         }
-        catch (SQLException | NumberFormatException ex) {
+        catch (ClassNotFoundException | SQLException | NumberFormatException ex) {
             Logger.getLogger(View_member.class.getName()).log(Level.SEVERE, null, ex);
         }
     }//GEN-LAST:event_jButton3ActionPerformed
@@ -474,34 +439,70 @@ public class View_member extends javax.swing.JFrame {
         }
     }//GEN-LAST:event_formWindowClosed
 
-    private void getRecord() {
+    private void getRecord(MemberDao.Member m) {
+        if(m == null) {
+            return;
+        }
+        current = m;
         try {    
-            jTextField1.setText(Integer.toString(rs.getInt("mid")));
-            jTextField2.setText(rs.getString("first_name"));
-            jTextField3.setText(rs.getString("middle_name"));
-            jTextField4.setText(rs.getString("last_name"));
-            jTextField5.setText(rs.getString("pan"));
-            jTextField7.setText(Long.toString(rs.getLong("contact")));
-            jTextField6.setText(rs.getDate("dob").toString());
-            jTextField8.setText(rs.getString("sex"));
-                
-            Dimension label = new Dimension(jLabel12.getSize());
-            byte[] imgByte = rs.getBytes("photo");
-            BufferedImage img = ImageIO.read(new ByteArrayInputStream(imgByte));
-            Image scaled = img.getScaledInstance(label.width,label.height,Image.SCALE_DEFAULT);
-            ImageIcon imageIcon = new ImageIcon(scaled);
-            jLabel12.setIcon(imageIcon);
-            
-            while(rs1.next()) {
-                if(Integer.parseInt(jTextField1.getText()) == rs1.getInt("mid")) {
-                    jTextField9.setText(rs1.getString("fid"));
-                }
+            jTextField1.setText(Integer.toString(m.mid));
+            jTextField2.setText(m.firstName);
+            jTextField3.setText(m.middleName);
+            jTextField4.setText(m.lastName);
+            jTextField5.setText(m.pan);
+            jTextField7.setText(Long.toString(m.contact));
+            jTextField6.setText(m.dob == null ? "" : m.dob.toString());
+            jTextField8.setText(m.sex);
+            StringBuilder flats = new StringBuilder();
+            for (String fid : Member_directory.flats(m.mid)) {
+                flats.append(flats.length() == 0 ? "" : ", ").append(fid);
             }
+            jTextField9.setText(flats.toString());
+
+            jLabel12.setIcon(null);
+            Photo_service.request(m.mid, new Photo_service.Listener() {
+                @Override
+                public void loaded(int mid, BufferedImage thumbnail) {
+                    // the user may have moved on while it loaded
+                    if (current != null && current.mid == mid) {
+                        jLabel12.setIcon(Photo_service.icon(thumbnail, jLabel12.getSize()));
+                    }
+                }
+            });
+            Photo_service.prefetch(Member_directory.next(m.mid).mid, Member_directory.previous(m.mid).mid);
         } 
-        catch (SQLException | NumberFormatException | IOException ex) {
+        catch (ClassNotFoundException | SQLException ex) {
             Logger.getLogger(View_member.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
+
+    private void jLabel12MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jLabel12MouseClicked
+        if (current == null) {
+            return;
+        }
+        final int mid = current.mid;
+        final String name = current.firstName + " " + current.lastName;
+        Task_runner.submit(new Background_task<BufferedImage>("Loading photo") {
+            @Override
+            protected BufferedImage work() throws Exception {
+                BufferedImage photo = Photo_service.full(mid);
+                Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+                int fit = Math.min(screen.width, screen.height) * 3 / 4;
+                if (photo != null && Math.max(photo.getWidth(), photo.getHeight()) > fit) {
+                    photo = Scalr.resize(photo, Scalr.Method.QUALITY, fit);
+                }
+                return photo;
+            }
+
+            @Override
+            protected void succeeded(BufferedImage photo) {
+                if (photo != null) {
+                    JOptionPane.showMessageDialog(View_member.this, new JScrollPane(new javax.swing.JLabel(new ImageIcon(photo))),
+                            name, JOptionPane.PLAIN_MESSAGE);
+                }
+            }
+        });
+    }//GEN-LAST:event_jLabel12MouseClicked
     
     /**
      * @param args the command line arguments
@@ -3,6 +3,8 @@ import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 import javax.swing.text.*;
 
 /* This work is hereby released into the Public Domain.
@@ -10,8 +12,17 @@ import javax.swing.text.*;
  * http://creativecommons.org/licenses/publicdomain/
  */
 public class AutoCompletion extends PlainDocument {
+    // rows shown in the popup before it scrolls
+    static final int POPUP_ROWS = 10;
+    // the popup opens once typing pauses for this long (ms)
+    static final int POPUP_DELAY = 150;
+    
     JComboBox comboBox;
     ComboBoxModel model;
+    // sorted view of the model's items, rebuilt on the first lookup after the model changes
+    Prefix_index index;
+    ListDataListener modelListener;
+    Timer popupTimer;
     JTextComponent editor;
     // flag to indicate if setSelectedItem has been called
     // subsequent calls to remove/insertString should be ignored
@@ -25,7 +36,26 @@ public class AutoCompletion extends PlainDocument {
     
     public AutoCompletion(final JComboBox comboBox) {
         this.comboBox = comboBox;
-        model = comboBox.getModel();
+        comboBox.setMaximumRowCount(POPUP_ROWS);
+        modelListener = new ListDataListener() {
+            public void intervalAdded(ListDataEvent e) {
+                index = null;
+            }
+            public void intervalRemoved(ListDataEvent e) {
+                index = null;
+            }
+            public void contentsChanged(ListDataEvent e) {
+                // also fired on every selection change; only a real edit has an index range
+                if (e.getIndex0() >= 0) index = null;
+            }
+        };
+        setModel(comboBox.getModel());
+        popupTimer = new Timer(POPUP_DELAY, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                if (comboBox.isDisplayable()) comboBox.setPopupVisible(true);
+            }
+        });
+        popupTimer.setRepeats(false);
         comboBox.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
                 if (!selecting) highlightCompletedText(0);
@@ -34,12 +64,12 @@ public class AutoCompletion extends PlainDocument {
         comboBox.addPropertyChangeListener(new PropertyChangeListener() {
             public void propertyChange(PropertyChangeEvent e) {
                 if (e.getPropertyName().equals("editor")) configureEditor((ComboBoxEditor) e.getNewValue());
-                if (e.getPropertyName().equals("model")) model = (ComboBoxModel) e.getNewValue();
+                if (e.getPropertyName().equals("model")) setModel((ComboBoxModel) e.getNewValue());
             }
         });
         editorKeyListener = new KeyAdapter() {
             public void keyPressed(KeyEvent e) {
-                if (comboBox.isDisplayable()) comboBox.setPopupVisible(true);
+                popupTimer.restart();
                 hitBackspace=false;
                 switch (e.getKeyCode()) {
                     // determine if the pressed key is backspace (needed by the remove method)
@@ -79,6 +109,13 @@ public class AutoCompletion extends PlainDocument {
         new AutoCompletion(comboBox);
     }
     
+    void setModel(ComboBoxModel newModel) {
+        if (model != null) model.removeListDataListener(modelListener);
+        model = newModel;
+        index = null;
+        if (model != null) model.addListDataListener(modelListener);
+    }
+    
     void configureEditor(ComboBoxEditor newEditor) {
         if (editor != null) {
             editor.removeKeyListener(editorKeyListener);
@@ -160,14 +197,10 @@ public class AutoCompletion extends PlainDocument {
         if (selectedItem != null && startsWithIgnoreCase(selectedItem.toString(), pattern)) {
             return selectedItem;
         } else {
-            // iterate over all items
-            for (int i=0, n=model.getSize(); i < n; i++) {
-                Object currentItem = model.getElementAt(i);
-                // current item starts with the pattern?
-                if (currentItem != null && startsWithIgnoreCase(currentItem.toString(), pattern)) {
-                    return currentItem;
-                }
-            }
+            // binary search the sorted items instead of scanning the model
+            if (index == null) index = new Prefix_index(model);
+            int i = index.find(pattern);
+            if (i >= 0) return model.getElementAt(i);
         }
         // no item starts with the pattern => return null
         return null;
@@ -175,7 +208,7 @@ public class AutoCompletion extends PlainDocument {
     
     // checks if str1 starts with str2 - ignores case
     private boolean startsWithIgnoreCase(String str1, String str2) {
-        return str1.toUpperCase().startsWith(str2.toUpperCase());
+        return Prefix_index.fold(str1).startsWith(Prefix_index.fold(str2));
     }
     
     public static void createAndShowGUI(JComboBox cb) {
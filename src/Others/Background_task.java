@@ -0,0 +1,132 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import com.ezware.dialog.task.TaskDialogs;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingWorker;
+
+/**
+ * A piece of database or report work that runs on a {@link Task_runner}
+ * worker thread instead of the event dispatch thread.
+ *
+ * {@link #work()} runs in the background and may call
+ * {@link #progress(int, String)}; exactly one of {@link #succeeded(Object)},
+ * {@link #failed(Throwable)} or {@link #cancelled()} is then called on the
+ * event dispatch thread, followed by {@link #finished()}.
+ *
+ * @author RtrSuahantNadkar
+ */
+public abstract class Background_task<T> extends SwingWorker<T, Void> {
+
+    private final String title;
+    private volatile String message;
+    private volatile boolean cancellable;
+
+    protected Background_task(String title) {
+        this(title, true);
+    }
+
+    protected Background_task(String title, boolean cancellable) {
+        this.title = title;
+        this.message = title;
+        this.cancellable = cancellable;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * Marks a stretch of work, such as a database transaction, that must not
+     * be abandoned half way. The status bar disables its cancel button.
+     */
+    protected void setCancellable(boolean cancellable) {
+        boolean old = this.cancellable;
+        this.cancellable = cancellable;
+        firePropertyChange("cancellable", old, cancellable);
+    }
+
+    /**
+     * Reports progress from {@link #work()}. A negative percentage leaves the
+     * progress unchanged and only updates the message.
+     */
+    protected void progress(int percent, String message) {
+        String old = this.message;
+        this.message = message;
+        firePropertyChange("message", old, message);
+        if (percent >= 0) {
+            setProgress(Math.min(percent, 100));
+        }
+    }
+
+    protected abstract T work() throws Exception;
+
+    /**
+     * Called on the event dispatch thread with the result of {@link #work()}.
+     */
+    protected void succeeded(T result) {
+    }
+
+    /**
+     * Called on the event dispatch thread when {@link #work()} threw.
+     */
+    protected void failed(Throwable cause) {
+        Logger.getLogger(getClass().getName()).log(Level.SEVERE, title, cause);
+        TaskDialogs.showException(cause);
+    }
+
+    protected void cancelled() {
+    }
+
+    /**
+     * Called on the event dispatch thread after the task ended, however it
+     * ended, e.g. to re-enable a button.
+     */
+    protected void finished() {
+    }
+
+    @Override
+    protected final T doInBackground() throws Exception {
+        String previous = Query_stats.setAction(title);
+        try {
+            return work();
+        } finally {
+            Query_stats.setAction(previous);
+        }
+    }
+
+    @Override
+    protected final void done() {
+        try {
+            if (isCancelled()) {
+                cancelled();
+            } else {
+                succeeded(get());
+            }
+        } catch (CancellationException ex) {
+            cancelled();
+        } catch (ExecutionException ex) {
+            failed(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancelled();
+        } finally {
+            finished();
+        }
+    }
+}
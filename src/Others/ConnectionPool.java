@@ -0,0 +1,768 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of physical H2 connections.
+ *
+ * Callers get a proxy handle from {@link #borrow()}; closing the handle hands
+ * the physical connection back to the pool. Most forms never close what they
+ * borrow, so a handle that becomes unreachable is reclaimed as well, and a
+ * handle held longer than the leak threshold is logged together with the
+ * stack trace of the code that borrowed it.
+ *
+ * Each physical connection also keeps its most recently used prepared
+ * statements. {@code prepareStatement(sql)} on a handle reuses the one
+ * prepared earlier for the same SQL, and closing it hands it back instead of
+ * closing it, so H2 neither parses nor plans a parameterized query twice.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class ConnectionPool {
+
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private int minSize = 1;
+    private int maxSize = 8;
+    private long idleTimeout = TimeUnit.MINUTES.toMillis(5);
+    private long leakDetectionThreshold = TimeUnit.MINUTES.toMillis(2);
+    private long borrowTimeout = TimeUnit.SECONDS.toMillis(30);
+    private long housekeepingInterval = TimeUnit.SECONDS.toMillis(15);
+    private volatile int statementCacheSize = 32;
+
+    // idle physical connections, most recently returned first
+    private final LinkedList<Idle> idle = new LinkedList<>();
+    private final Set<Lease> leases = new HashSet<>();
+    private final ReferenceQueue<Connection> unreachable = new ReferenceQueue<>();
+    private int total;
+    private boolean shutdown;
+    private ScheduledExecutorService housekeeper;
+    private boolean collectionRequested;
+    private long lastCollection;
+    // physical connection -> its prepared statements by SQL, least recently used first
+    private final Map<Connection, LinkedHashMap<String, Cached>> statementCaches = new IdentityHashMap<>();
+
+    private long borrowCount;
+    private long borrowNanos;
+    private long maxBorrowNanos;
+    private long createdCount;
+    private long evictedCount;
+    private long leakCount;
+    private long statementHits;
+    private long statementMisses;
+
+    public ConnectionPool(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public synchronized void setMinSize(int minSize) {
+        this.minSize = Math.max(0, minSize);
+    }
+
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public synchronized void setIdleTimeout(long millis) {
+        this.idleTimeout = millis;
+    }
+
+    public synchronized void setLeakDetectionThreshold(long millis) {
+        this.leakDetectionThreshold = millis;
+    }
+
+    public synchronized void setBorrowTimeout(long millis) {
+        this.borrowTimeout = millis;
+    }
+
+    public synchronized void setHousekeepingInterval(long millis) {
+        this.housekeepingInterval = millis;
+    }
+
+    /**
+     * Prepared statements kept per physical connection, 0 to turn the cache
+     * off.
+     */
+    public synchronized void setStatementCacheSize(int size) {
+        this.statementCacheSize = Math.max(0, size);
+    }
+
+    /**
+     * Opens the minimum number of connections and starts the background
+     * housekeeping (leak detection, reclaiming and idle eviction).
+     */
+    public synchronized void start() throws SQLException {
+        if (housekeeper != null) {
+            return;
+        }
+        housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "connection-pool-housekeeper");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        housekeeper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    housekeep();
+                } catch (RuntimeException ex) {
+                    LOG.log(Level.WARNING, "Connection pool housekeeping failed", ex);
+                }
+            }
+        }, housekeepingInterval, housekeepingInterval, TimeUnit.MILLISECONDS);
+        fillToMinimum();
+    }
+
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = System.currentTimeMillis() + borrowTimeout;
+        Connection physical = null;
+        while (true) {
+            List<Lease> reclaimed;
+            synchronized (this) {
+                if (shutdown) {
+                    throw new SQLException("Connection pool has been shut down");
+                }
+                reclaimed = reclaimUnreachable();
+                if (reclaimed.isEmpty()) {
+                    if (!idle.isEmpty()) {
+                        physical = idle.removeFirst().connection;
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++;
+                        break;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out waiting for a database connection (" + this + ")");
+                    }
+                    requestCollection();
+                    try {
+                        wait(Math.min(remaining, 100));
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", ex);
+                    }
+                    continue;
+                }
+            }
+            for (Lease lease : reclaimed) {
+                release(lease);
+            }
+        }
+        if (physical == null) {
+            try {
+                physical = open();
+            } catch (SQLException ex) {
+                synchronized (this) {
+                    total--;
+                    notifyAll();
+                }
+                throw ex;
+            }
+        } else if (physical.isClosed()) {
+            synchronized (this) {
+                total--;
+            }
+            return borrow();
+        }
+
+        Handle handle = new Handle(this);
+        Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handle);
+        Lease lease = new Lease(proxy, unreachable, physical);
+        handle.lease = lease;
+
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            leases.add(lease);
+            borrowCount++;
+            borrowNanos += elapsed;
+            maxBorrowNanos = Math.max(maxBorrowNanos, elapsed);
+        }
+        return proxy;
+    }
+
+    /**
+     * Closes every pooled connection. Outstanding handles stop working.
+     */
+    public void shutdown() {
+        List<Connection> toClose = new ArrayList<>();
+        synchronized (this) {
+            shutdown = true;
+            if (housekeeper != null) {
+                housekeeper.shutdownNow();
+            }
+            for (Idle i : idle) {
+                toClose.add(i.connection);
+            }
+            idle.clear();
+            for (Lease lease : leases) {
+                lease.returned = true;
+                lease.clear();
+                toClose.add(lease.physical);
+            }
+            leases.clear();
+            total = 0;
+            notifyAll();
+        }
+        for (Connection c : toClose) {
+            closeQuietly(c);
+        }
+    }
+
+    public synchronized int getActiveCount() {
+        return leases.size();
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    public synchronized int getTotalCount() {
+        return total;
+    }
+
+    public synchronized long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public synchronized double getAverageBorrowMillis() {
+        return borrowCount == 0 ? 0 : borrowNanos / 1e6 / borrowCount;
+    }
+
+    public synchronized double getMaxBorrowMillis() {
+        return maxBorrowNanos / 1e6;
+    }
+
+    public synchronized long getCreatedCount() {
+        return createdCount;
+    }
+
+    public synchronized long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public synchronized long getLeakCount() {
+        return leakCount;
+    }
+
+    public synchronized long getStatementHits() {
+        return statementHits;
+    }
+
+    public synchronized long getStatementMisses() {
+        return statementMisses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("active=%d idle=%d total=%d/%d borrows=%d avgBorrow=%.3fms maxBorrow=%.3fms created=%d evicted=%d leaked=%d"
+                + " statementHits=%d statementMisses=%d",
+                leases.size(), idle.size(), total, maxSize, borrowCount, getAverageBorrowMillis(),
+                getMaxBorrowMillis(), createdCount, evictedCount, leakCount, statementHits, statementMisses);
+    }
+
+    private Connection open() throws SQLException {
+        Connection c = DriverManager.getConnection(url, user, password);
+        synchronized (this) {
+            createdCount++;
+        }
+        return c;
+    }
+
+    private void release(Lease lease) {
+        synchronized (this) {
+            if (lease.returned) {
+                return;
+            }
+            lease.returned = true;
+            leases.remove(lease);
+        }
+        lease.clear();
+        boolean reusable = reset(lease);
+        synchronized (this) {
+            if (reusable && !shutdown) {
+                idle.addFirst(new Idle(lease.physical));
+            } else {
+                total--;
+            }
+            notifyAll();
+        }
+        if (!reusable || shutdown) {
+            closeQuietly(lease.physical);
+        }
+    }
+
+    private boolean reset(Lease lease) {
+        List<Statement> statements;
+        List<Cached> cached;
+        synchronized (lease) {
+            statements = new ArrayList<>(lease.statements);
+            lease.statements.clear();
+            cached = new ArrayList<>(lease.cached);
+            lease.cached.clear();
+        }
+        for (Statement s : statements) {
+            try {
+                s.close();
+            } catch (SQLException ex) {
+                LOG.log(Level.FINE, null, ex);
+            }
+        }
+        for (Cached c : cached) {
+            c.handBack(lease);
+        }
+        try {
+            Connection c = lease.physical;
+            if (c.isClosed()) {
+                return false;
+            }
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) {
+                c.setReadOnly(false);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException ex) {
+            LOG.log(Level.WARNING, "Discarding connection that could not be reset", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Handles dropped without close() only come back once the collector has
+     * run, so a borrower kept waiting asks the housekeeper thread to run it.
+     * At most one request is outstanding and they are a second apart. Must
+     * hold the pool lock.
+     */
+    private void requestCollection() {
+        if (collectionRequested || housekeeper == null || System.currentTimeMillis() - lastCollection < 1000) {
+            return;
+        }
+        collectionRequested = true;
+        housekeeper.execute(new Runnable() {
+            @Override
+            public void run() {
+                System.gc();
+                synchronized (ConnectionPool.this) {
+                    collectionRequested = false;
+                    lastCollection = System.currentTimeMillis();
+                }
+            }
+        });
+    }
+
+    /**
+     * Leases whose handle was dropped without close(). The caller releases
+     * them once it has let go of the pool lock, so that their rollback and
+     * statement closes do not hold up other borrowers. Must hold the pool
+     * lock.
+     */
+    private List<Lease> reclaimUnreachable() {
+        List<Lease> reclaimed = new ArrayList<>();
+        Lease lease;
+        while ((lease = (Lease) unreachable.poll()) != null) {
+            if (!lease.returned) {
+                leakCount++;
+                LOG.log(Level.WARNING, "Reclaimed a connection that was never closed", lease.origin);
+                reclaimed.add(lease);
+            }
+        }
+        return reclaimed;
+    }
+
+    private void housekeep() {
+        List<Connection> evicted = new ArrayList<>();
+        List<Lease> reclaimed;
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            reclaimed = reclaimUnreachable();
+            long now = System.currentTimeMillis();
+            for (Lease lease : leases) {
+                if (!lease.reported && now - lease.borrowedAt > leakDetectionThreshold) {
+                    lease.reported = true;
+                    LOG.log(Level.WARNING, "Connection held for " + (now - lease.borrowedAt) / 1000
+                            + "s, possible leak", lease.origin);
+                }
+            }
+            Iterator<Idle> it = idle.descendingIterator();
+            while (it.hasNext() && total > minSize) {
+                Idle i = it.next();
+                if (now - i.since > idleTimeout) {
+                    it.remove();
+                    total--;
+                    evictedCount++;
+                    evicted.add(i.connection);
+                }
+            }
+        }
+        for (Lease lease : reclaimed) {
+            release(lease);
+        }
+        for (Connection c : evicted) {
+            closeQuietly(c);
+        }
+        fillToMinimum();
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            synchronized (this) {
+                if (shutdown || total >= minSize) {
+                    return;
+                }
+                total++;
+            }
+            try {
+                Connection c = open();
+                synchronized (this) {
+                    idle.addLast(new Idle(c));
+                    notifyAll();
+                }
+            } catch (SQLException ex) {
+                synchronized (this) {
+                    total--;
+                }
+                LOG.log(Level.WARNING, "Could not open pooled connection", ex);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hands out the cached statement for {@code sql} on the lease's physical
+     * connection, preparing it first if need be. A statement the borrower
+     * still has open is not handed out twice; the second caller gets an
+     * ordinary, uncached one.
+     */
+    private PreparedStatement prepareCached(Lease lease, String sql, Connection handle) throws SQLException {
+        LinkedHashMap<String, Cached> cache;
+        int size;
+        synchronized (this) {
+            size = statementCacheSize;
+            cache = statementCaches.get(lease.physical);
+            if (cache == null) {
+                cache = new LinkedHashMap<>(16, 0.75f, true);
+                statementCaches.put(lease.physical, cache);
+            }
+        }
+        Cached cached;
+        List<PreparedStatement> evicted = new ArrayList<>();
+        synchronized (cache) {
+            cached = cache.get(sql);
+            if (cached != null && cached.inUse) {
+                cached = null;
+            } else if (cached == null) {
+                cached = new Cached(cache, lease.physical.prepareStatement(sql));
+                cache.put(sql, cached);
+                Iterator<Cached> it = cache.values().iterator();
+                while (cache.size() > size && it.hasNext()) {
+                    Cached eldest = it.next();
+                    if (!eldest.inUse) {
+                        it.remove();
+                        evicted.add(eldest.statement);
+                    }
+                }
+                synchronized (this) {
+                    statementMisses++;
+                }
+            } else {
+                synchronized (this) {
+                    statementHits++;
+                }
+            }
+            if (cached != null) {
+                cached.inUse = true;
+                cached.owner = lease;
+            }
+        }
+        for (PreparedStatement ps : evicted) {
+            try {
+                ps.close();
+            } catch (SQLException ex) {
+                LOG.log(Level.FINE, null, ex);
+            }
+        }
+        if (cached == null) {
+            PreparedStatement ps = lease.physical.prepareStatement(sql);
+            synchronized (lease) {
+                lease.statements.add(ps);
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new Child(ps, handle, lease));
+        }
+        synchronized (lease) {
+            lease.cached.add(cached);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new Cached_handle(cached, handle, lease));
+    }
+
+    private void closeQuietly(Connection c) {
+        synchronized (this) {
+            statementCaches.remove(c);
+        }
+        try {
+            c.close();
+        } catch (SQLException ex) {
+            LOG.log(Level.FINE, null, ex);
+        }
+    }
+
+    private static Object unwrapInvoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static class Idle {
+
+        final Connection connection;
+        final long since = System.currentTimeMillis();
+
+        Idle(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Book-keeping for one borrowed physical connection. The referent is the
+     * proxy handed to the caller, so the lease is enqueued once the caller
+     * (and every statement or result set it opened) becomes unreachable. It
+     * only ever holds the physical statements the caller has not closed yet,
+     * never the proxies, which would keep the caller's handle reachable.
+     */
+    private static class Lease extends PhantomReference<Connection> {
+
+        final Connection physical;
+        final List<Statement> statements = new ArrayList<>();
+        final List<Cached> cached = new ArrayList<>();
+        final long borrowedAt = System.currentTimeMillis();
+        final Throwable origin = new Throwable("Connection borrowed here");
+        volatile boolean returned;
+        boolean reported;
+
+        Lease(Connection handle, ReferenceQueue<Connection> queue, Connection physical) {
+            super(handle, queue);
+            this.physical = physical;
+        }
+    }
+
+    private static class Handle implements InvocationHandler {
+
+        final ConnectionPool pool;
+        Lease lease;
+
+        Handle(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    pool.release(lease);
+                    return null;
+                case "isClosed":
+                    return lease.returned || lease.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + lease.physical;
+            }
+            if (lease.returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (name.equals("prepareStatement") && args.length == 1 && pool.statementCacheSize > 0) {
+                return pool.prepareCached(lease, (String) args[0], (Connection) proxy);
+            }
+            Object result = unwrapInvoke(lease.physical, method, args);
+            if (result instanceof Statement) {
+                synchronized (lease) {
+                    lease.statements.add((Statement) result);
+                }
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()}, new Child(result, proxy, lease));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Statements and result sets keep a strong reference to their parent
+     * handle so the connection is not reclaimed while they are still in use.
+     * A statement also knows its lease, to be struck off it when closed.
+     */
+    private static class Child implements InvocationHandler {
+
+        final Object target;
+        final Object parent;
+        final Lease lease;
+
+        Child(Object target, Object parent, Lease lease) {
+            this.target = target;
+            this.parent = parent;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ((name.equals("getConnection") && parent instanceof Connection)
+                    || (name.equals("getStatement") && parent instanceof Statement)) {
+                return parent;
+            }
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+            }
+            Object result = unwrapInvoke(target, method, args);
+            if (name.equals("close") && lease != null) {
+                synchronized (lease) {
+                    lease.statements.remove(target);
+                }
+            }
+            if (result instanceof ResultSet && method.getReturnType() == ResultSet.class) {
+                return wrap(ResultSet.class, result, proxy);
+            }
+            return result;
+        }
+    }
+
+    private static class Cached {
+
+        final LinkedHashMap<String, Cached> cache;
+        final PreparedStatement statement;
+        // guarded by cache
+        boolean inUse;
+        Lease owner;
+
+        Cached(LinkedHashMap<String, Cached> cache, PreparedStatement statement) {
+            this.cache = cache;
+            this.statement = statement;
+        }
+
+        /**
+         * Clears the parameters and makes the statement available again,
+         * unless the lease has already handed it back and the connection has
+         * since been borrowed again.
+         */
+        void handBack(Lease lease) {
+            synchronized (cache) {
+                if (!inUse || owner != lease) {
+                    return;
+                }
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException ex) {
+                LOG.log(Level.FINE, null, ex);
+            } finally {
+                synchronized (cache) {
+                    inUse = false;
+                    owner = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * A cached statement as seen by one borrower. Closing it clears its
+     * parameters and hands it back to the cache.
+     */
+    private static class Cached_handle extends Child {
+
+        final Cached cached;
+        boolean closed;
+
+        Cached_handle(Cached cached, Object parent, Lease lease) {
+            super(cached.statement, parent, lease);
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        synchronized (lease) {
+                            lease.cached.remove(cached);
+                        }
+                        cached.handBack(lease);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || lease.returned || cached.statement.isClosed();
+                case "equals":
+                case "hashCode":
+                case "toString":
+                    break;
+                default:
+                    if (closed || lease.returned) {
+                        throw new SQLException("Statement is closed");
+                    }
+            }
+            return super.invoke(proxy, method, args);
+        }
+    }
+
+    private static Object wrap(Class<?> type, Object target, Object parent) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Child(target, parent, null));
+    }
+}
@@ -7,9 +7,7 @@
 package Others;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
 
 /**
  *
@@ -17,18 +15,69 @@ import java.util.Properties;
  */
 public class Database {
     public static String dbDirectory = "E:\\Others\\Himalaya\\Database";
+    public static int poolMinSize = Integer.getInteger("himalaya.pool.min", 1);
+    public static int poolMaxSize = Integer.getInteger("himalaya.pool.max", 8);
+    public static long poolIdleTimeout = Long.getLong("himalaya.pool.idleTimeout", 5 * 60 * 1000L);
+    public static long poolLeakThreshold = Long.getLong("himalaya.pool.leakThreshold", 2 * 60 * 1000L);
+    public static int poolStatementCacheSize = Integer.getInteger("himalaya.pool.statementCache", 32);
+    private static ConnectionPool pool;
+
+    /**
+     * Borrows a pooled connection. Closing it hands it back to the pool.
+     * Its statements are counted by {@link Query_stats}.
+     */
     public static Connection connect() throws ClassNotFoundException, SQLException {
         //Properties p = System.getProperties();
         //String path = System.getenv("ProgramFiles")+"\\hamalaya\\database";
         //p.setProperty("derby.system.home",path);
         //Class.forName("org.apache.derby.jdbc.EmbeddedDriver");
         //Connection con = DriverManager.getConnection("jdbc:derby:E:\\Others\\Himalaya\\Database\\himalaya");
-        Class.forName("org.h2.Driver");
-        Connection con = DriverManager.getConnection("jdbc:h2:" + dbDirectory + "\\him","","");
-        return con;
+        return Query_stats.wrap(getPool().borrow());
+    }
+
+    public static synchronized ConnectionPool getPool() throws ClassNotFoundException, SQLException {
+        if (pool == null) {
+            Class.forName("org.h2.Driver");
+            ConnectionPool p = new ConnectionPool("jdbc:h2:" + dbDirectory + "\\him", "", "");
+            p.setMinSize(poolMinSize);
+            p.setMaxSize(poolMaxSize);
+            p.setIdleTimeout(poolIdleTimeout);
+            p.setLeakDetectionThreshold(poolLeakThreshold);
+            p.setStatementCacheSize(poolStatementCacheSize);
+            p.start();
+            try (Connection con = p.borrow()) {
+                Schema.migrate(con);
+            } catch (SQLException ex) {
+                p.shutdown();
+                throw ex;
+            }
+            pool = p;
+            Query_stats.register();
+        }
+        return pool;
+    }
+
+    /**
+     * The pool if it has been opened, without opening it.
+     */
+    public static synchronized ConnectionPool currentPool() {
+        return pool;
+    }
+
+    /**
+     * Closes every pooled connection so H2 releases the database files, e.g.
+     * before a restore. The next connect() opens a fresh pool.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
     }
-    
+
     public static void main(String op[]) throws ClassNotFoundException, SQLException {
         Connection c = Database.connect();
+        System.out.println(getPool());
+        c.close();
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out voucher numbers and bill ids from blocks reserved in advance.
+ *
+ * The high-water mark of every sequence is kept in the number_sequence table,
+ * which {@link Schema} creates. Reserving a block moves the mark forward in
+ * one short transaction, so two windows (or two copies of the application)
+ * never get the same number, and all other calls are served from memory.
+ * Numbers left over in a block when the application exits are skipped, so a
+ * sequence may have gaps. Forms show {@link #peek(String)} while a voucher is
+ * being entered and only call {@link #next(String)} when it is saved.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Number_allocator {
+
+    public static final String CASH_VOUCHER = "cash_book";
+    public static final String BANK_VOUCHER = "bank_book";
+    public static final String BILL = "bills";
+
+    static final int BLOCK_SIZE = 20;
+
+    // sequence name -> table.column it numbers, used to seed and to skip numbers entered by hand
+    private static final Map<String, String[]> sources = new HashMap<>();
+    private static final Map<String, int[]> blocks = new HashMap<>();
+
+    static {
+        sources.put(CASH_VOUCHER, new String[]{"cash_book", "voucher_no"});
+        sources.put(BANK_VOUCHER, new String[]{"bank_book", "voucher_no"});
+        sources.put(BILL, new String[]{"bills", "bid"});
+    }
+
+    /**
+     * Returns the next number of a sequence.
+     */
+    public static synchronized int next(String sequence) throws ClassNotFoundException, SQLException {
+        return block(sequence)[0]++;
+    }
+
+    /**
+     * Returns the number {@link #next(String)} would hand out, without
+     * taking it. Another window may still take it first.
+     */
+    public static synchronized int peek(String sequence) throws ClassNotFoundException, SQLException {
+        return block(sequence)[0];
+    }
+
+    private static int[] block(String sequence) throws ClassNotFoundException, SQLException {
+        int[] block = blocks.get(sequence);
+        if (block == null || block[0] >= block[1]) {
+            int first = reserve(sequence, BLOCK_SIZE);
+            block = new int[]{first, first + BLOCK_SIZE};
+            blocks.put(sequence, block);
+        }
+        return block;
+    }
+
+    /**
+     * Reserves {@code count} consecutive numbers and returns the first one.
+     */
+    public static synchronized int reserve(String sequence, int count) throws ClassNotFoundException, SQLException {
+        String[] source = sources.get(sequence);
+        if (source == null) {
+            throw new IllegalArgumentException("Unknown sequence " + sequence);
+        }
+        try (Connection con = Database.connect()) {
+            con.setAutoCommit(false);
+            try {
+                int used;
+                try (Statement st = con.createStatement();
+                        ResultSet rs = st.executeQuery("select max(" + source[1] + ") from " + source[0])) {
+                    rs.next();
+                    used = rs.getInt(1);
+                }
+                Integer highWater = null;
+                try (PreparedStatement ps = con.prepareStatement("select high_water from number_sequence where name = ? for update")) {
+                    ps.setString(1, sequence);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            highWater = rs.getInt(1);
+                        }
+                    }
+                }
+                int first = Math.max(used, highWater == null ? 0 : highWater) + 1;
+                try (PreparedStatement ps = con.prepareStatement(highWater == null
+                        ? "insert into number_sequence(high_water, name) values(?, ?)"
+                        : "update number_sequence set high_water = ? where name = ?")) {
+                    ps.setInt(1, first + count - 1);
+                    ps.setString(2, sequence);
+                    ps.executeUpdate();
+                }
+                con.commit();
+                return first;
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Drops the numbers still held in memory, e.g. after a restore.
+     */
+    public static synchronized void reset() {
+        blocks.clear();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import javax.swing.ListModel;
+
+/**
+ * Case-insensitive prefix lookup over the items of a list or combo box model.
+ *
+ * The items' text is folded to lower case and sorted once, so finding the
+ * first item that starts with a prefix is a binary search instead of a scan
+ * of the whole model. The index is a snapshot; build a new one when the
+ * model changes.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Prefix_index {
+
+    private final String[] keys;
+    private final int[] positions;
+
+    public Prefix_index(ListModel<?> model) {
+        int n = model.getSize();
+        final String[] folded = new String[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Object item = model.getElementAt(i);
+            folded[i] = item == null ? null : fold(item.toString());
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                String x = folded[a];
+                String y = folded[b];
+                if (x == null || y == null) {
+                    // null items sort last and never match
+                    return x == y ? a.compareTo(b) : x == null ? 1 : -1;
+                }
+                int c = x.compareTo(y);
+                return c != 0 ? c : a.compareTo(b);
+            }
+        });
+        int size = 0;
+        while (size < n && folded[order[size]] != null) {
+            size++;
+        }
+        keys = new String[size];
+        positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = folded[order[i]];
+            positions[i] = order[i];
+        }
+    }
+
+    /**
+     * Model position of the first item, in sorted order, whose text starts
+     * with {@code prefix} ignoring case, or -1 if there is none. Items with
+     * the same text are returned in model order.
+     */
+    public int find(String prefix) {
+        String p = fold(prefix);
+        int i = lowerBound(p);
+        return i < keys.length && keys[i].startsWith(p) ? positions[i] : -1;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    private int lowerBound(String p) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(p) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static String fold(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+}
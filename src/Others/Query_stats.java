@@ -0,0 +1,741 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * How often, how slowly and from where each SQL statement is run.
+ *
+ * {@link Database#connect()} hands out connections wrapped by
+ * {@link #wrap(Connection)}. Every execute on a statement made from them is
+ * timed into a latency histogram kept for the statement's SQL, with the rows
+ * it read or changed and the form or task that made the statement. Literals
+ * in the SQL are replaced by {@code ?}, so the queries the older forms build
+ * by concatenation are counted together as one statement and no member's
+ * data ends up in the statistics or the log. An execution slower than
+ * {@code himalaya.db.slowMillis} is logged the same way; bind values are
+ * never recorded.
+ *
+ * The counters are published over JMX as {@code Himalaya:type=Query_stats}
+ * and shown by Utilities.Diagnostics. {@code -Dhimalaya.db.stats=false}
+ * hands out the pooled connections unwrapped.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Query_stats {
+
+    private static final Logger LOG = Logger.getLogger(Query_stats.class.getName());
+
+    public static boolean enabled = Boolean.parseBoolean(System.getProperty("himalaya.db.stats", "true"));
+    public static volatile long slowMillis = Long.getLong("himalaya.db.slowMillis", 200L);
+
+    /**
+     * Upper bounds of the histogram buckets in milliseconds; a last bucket
+     * holds everything slower.
+     */
+    public static final long[] BUCKET_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    static final int MAX_STATEMENTS = 1000;
+    static final int MAX_ORIGINS = 16;
+    static final String OTHER = "(other)";
+    static final String UNKNOWN = "(unknown)";
+
+    private static final long[] BUCKET_NANOS = new long[BUCKET_MILLIS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+            BUCKET_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(BUCKET_MILLIS[i]);
+        }
+    }
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final AtomicLong executions = new AtomicLong();
+    private static final AtomicLong nanos = new AtomicLong();
+    private static final AtomicLong rows = new AtomicLong();
+    private static final AtomicLong slow = new AtomicLong();
+    private static final AtomicLong errors = new AtomicLong();
+    private static final ThreadLocal<String> action = new ThreadLocal<>();
+    private static boolean registered;
+
+    /**
+     * One statement's counters as they stood when {@link #snapshot()} was
+     * taken.
+     */
+    public static class Statement_stats {
+
+        private final String sql;
+        private final long executions;
+        private final long nanos;
+        private final long maxNanos;
+        private final long rows;
+        private final long errors;
+        private final long[] histogram;
+        private final Map<String, Long> origins;
+
+        Statement_stats(String sql, long executions, long nanos, long maxNanos, long rows, long errors,
+                long[] histogram, Map<String, Long> origins) {
+            this.sql = sql;
+            this.executions = executions;
+            this.nanos = nanos;
+            this.maxNanos = maxNanos;
+            this.rows = rows;
+            this.errors = errors;
+            this.histogram = histogram;
+            this.origins = origins;
+        }
+
+        /**
+         * The SQL with its literals replaced by {@code ?}.
+         */
+        public String getSql() {
+            return sql;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        public double getTotalMillis() {
+            return nanos / 1e6;
+        }
+
+        public double getMeanMillis() {
+            return executions == 0 ? 0 : nanos / 1e6 / executions;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        /**
+         * The upper bound of the bucket holding the 95th percentile, or the
+         * slowest execution if that is in the last bucket.
+         */
+        public double getP95Millis() {
+            long rank = (long) Math.ceil(executions * 0.95);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+                seen += histogram[i];
+                if (rank > 0 && seen >= rank) {
+                    return Math.min(BUCKET_MILLIS[i], getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        /**
+         * Rows read from its result sets or changed by it.
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Executions per bucket of {@link Query_stats#BUCKET_MILLIS}, with
+         * one more for the slower ones.
+         */
+        public long[] getHistogram() {
+            return histogram.clone();
+        }
+
+        /**
+         * Executions by the form or task that made the statement, most
+         * first.
+         */
+        public Map<String, Long> getOrigins() {
+            return Collections.unmodifiableMap(origins);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d x %.3fms (p95 %.0fms, max %.3fms) rows=%d errors=%d %s",
+                    executions, getMeanMillis(), getP95Millis(), getMaxMillis(), rows, errors, sql);
+        }
+    }
+
+    /**
+     * The counters over JMX.
+     */
+    public interface Query_statsMXBean {
+
+        long getExecutions();
+
+        double getTotalMillis();
+
+        long getRows();
+
+        long getSlowQueries();
+
+        long getErrors();
+
+        long getSlowMillis();
+
+        void setSlowMillis(long millis);
+
+        List<Statement_stats> getStatements();
+
+        int getPoolActive();
+
+        int getPoolIdle();
+
+        long getPoolBorrows();
+
+        long getPoolLeaks();
+
+        long getStatementCacheHits();
+
+        long getStatementCacheMisses();
+
+        void reset();
+    }
+
+    private static class Entry {
+
+        final String sql;
+        final long[] histogram = new long[BUCKET_MILLIS.length + 1];
+        final Map<String, long[]> origins = new LinkedHashMap<>();
+        final AtomicLong rows = new AtomicLong();
+        long executions;
+        long nanos;
+        long maxNanos;
+        long errors;
+
+        Entry(String sql) {
+            this.sql = sql;
+        }
+
+        synchronized void record(String origin, long elapsed, boolean failed) {
+            executions++;
+            nanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+            if (failed) {
+                errors++;
+            }
+            int bucket = 0;
+            while (bucket < BUCKET_NANOS.length && elapsed > BUCKET_NANOS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+            long[] count = origins.get(origin);
+            if (count == null) {
+                if (origins.size() >= MAX_ORIGINS) {
+                    origin = OTHER;
+                    count = origins.get(origin);
+                }
+                if (count == null) {
+                    count = new long[1];
+                    origins.put(origin, count);
+                }
+            }
+            count[0]++;
+        }
+
+        synchronized Statement_stats snapshot() {
+            List<Map.Entry<String, long[]>> byCount = new ArrayList<>(origins.entrySet());
+            Collections.sort(byCount, new Comparator<Map.Entry<String, long[]>>() {
+                @Override
+                public int compare(Map.Entry<String, long[]> a, Map.Entry<String, long[]> b) {
+                    return Long.compare(b.getValue()[0], a.getValue()[0]);
+                }
+            });
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            for (Map.Entry<String, long[]> e : byCount) {
+                sorted.put(e.getKey(), e.getValue()[0]);
+            }
+            return new Statement_stats(sql, executions, nanos, maxNanos, rows.get(), errors, histogram.clone(), sorted);
+        }
+    }
+
+    /**
+     * Wraps a connection so the statements made from it are counted, or
+     * returns it as it is if statistics are turned off.
+     */
+    public static Connection wrap(Connection con) {
+        if (!enabled) {
+            return con;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Connection_handler(con));
+    }
+
+    /**
+     * Names what the current thread is doing, e.g. a background task's
+     * title, so its statements can be told apart from the form's own.
+     * Returns the previous name, to be put back when the work is done.
+     */
+    public static String setAction(String name) {
+        String previous = action.get();
+        if (name == null) {
+            action.remove();
+        } else {
+            action.set(name);
+        }
+        return previous;
+    }
+
+    /**
+     * Every statement's counters, most total time first.
+     */
+    public static List<Statement_stats> snapshot() {
+        List<Statement_stats> list = new ArrayList<>(entries.size());
+        for (Entry e : entries.values()) {
+            list.add(e.snapshot());
+        }
+        Collections.sort(list, new Comparator<Statement_stats>() {
+            @Override
+            public int compare(Statement_stats a, Statement_stats b) {
+                return Long.compare(b.nanos, a.nanos);
+            }
+        });
+        return list;
+    }
+
+    public static long getExecutions() {
+        return executions.get();
+    }
+
+    public static double getTotalMillis() {
+        return nanos.get() / 1e6;
+    }
+
+    public static long getRows() {
+        return rows.get();
+    }
+
+    public static long getSlowQueries() {
+        return slow.get();
+    }
+
+    public static long getErrors() {
+        return errors.get();
+    }
+
+    public static void reset() {
+        entries.clear();
+        executions.set(0);
+        nanos.set(0);
+        rows.set(0);
+        slow.set(0);
+        errors.set(0);
+    }
+
+    /**
+     * Publishes the counters over JMX, once.
+     */
+    public static synchronized void register() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Jmx(), new ObjectName("Himalaya:type=Query_stats"));
+        } catch (InstanceAlreadyExistsException ex) {
+            LOG.log(Level.FINE, null, ex);
+        } catch (JMException | SecurityException ex) {
+            LOG.log(Level.WARNING, "Could not publish query statistics over JMX", ex);
+        }
+    }
+
+    /**
+     * The SQL with its string and number literals replaced by {@code ?} and
+     * its white space collapsed.
+     */
+    static String normalize(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                sb.append('?');
+            } else if (c == '"') {
+                int end = sql.indexOf('"', i + 1);
+                end = end < 0 ? n : end + 1;
+                sb.append(sql, i, end);
+                i = end;
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (sb.length() > 0 && i < n) {
+                    sb.append(' ');
+                }
+            } else if (Character.isDigit(c) && !partOfName(sb)) {
+                while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append('?');
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean partOfName(StringBuilder sb) {
+        if (sb.length() == 0) {
+            return false;
+        }
+        char last = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$' || last == '.' || last == '?';
+    }
+
+    private static Entry entry(String sql) {
+        String key = normalize(sql);
+        Entry e = entries.get(key);
+        if (e == null) {
+            if (entries.size() >= MAX_STATEMENTS) {
+                key = OTHER;
+            }
+            synchronized (entries) {
+                e = entries.get(key);
+                if (e == null) {
+                    e = new Entry(key);
+                    entries.put(key, e);
+                }
+            }
+        }
+        return e;
+    }
+
+    private static void record(Entry e, String origin, long elapsed, long changed, boolean failed) {
+        e.record(origin, elapsed, failed);
+        executions.incrementAndGet();
+        nanos.addAndGet(elapsed);
+        if (changed > 0) {
+            e.rows.addAndGet(changed);
+            rows.addAndGet(changed);
+        }
+        if (failed) {
+            errors.incrementAndGet();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        if (millis >= slowMillis) {
+            slow.incrementAndGet();
+            LOG.log(Level.WARNING, "Slow statement, {0} ms{1} from {2}: {3}",
+                    new Object[]{millis, changed > 0 ? ", " + changed + " rows" : "", origin, e.sql});
+        }
+    }
+
+    /**
+     * The form or task the current thread is running for: the first
+     * application class on the stack outside Others and Dao, with the method
+     * unless the frame is in one of its inner classes, and the current
+     * action if one is set.
+     */
+    static String origin() {
+        String where = null;
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String cls = frame.getClassName();
+            if (cls.startsWith("Others.") || cls.startsWith("Dao.") || cls.startsWith("java.")
+                    || cls.startsWith("javax.") || cls.startsWith("sun.") || cls.startsWith("com.sun.")
+                    || cls.startsWith("jdk.") || cls.startsWith("org.h2.") || cls.indexOf('.') < 0) {
+                continue;
+            }
+            int inner = cls.indexOf('$');
+            where = inner < 0 ? cls + "." + frame.getMethodName() : cls.substring(0, inner);
+            break;
+        }
+        String doing = action.get();
+        if (where == null) {
+            return doing != null ? doing : UNKNOWN;
+        }
+        return doing != null ? where + " (" + doing + ")" : where;
+    }
+
+    private static long count(Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        long sum = 0;
+        if (result instanceof int[]) {
+            for (int r : (int[]) result) {
+                sum += Math.max(0, r);
+            }
+        } else if (result instanceof long[]) {
+            for (long r : (long[]) result) {
+                sum += Math.max(0, r);
+            }
+        }
+        return sum;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static class Connection_handler implements InvocationHandler {
+
+        final Connection target;
+
+        Connection_handler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+            }
+            Object result = Query_stats.invoke(target, method, args);
+            if (result instanceof Statement) {
+                Entry e = name.equals("createStatement") ? null : entry((String) args[0]);
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{method.getReturnType()},
+                        new Statement_handler((Statement) result, proxy, origin(), e));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times the executes of a statement. A prepared statement's SQL is known
+     * when it is made; a plain statement's comes with each execute, and its
+     * batch is counted under the first statement added to it.
+     */
+    private static class Statement_handler implements InvocationHandler {
+
+        final Statement target;
+        final Object connection;
+        final String origin;
+        final Entry prepared;
+        Entry batch;
+        Entry last;
+
+        Statement_handler(Statement target, Object connection, String origin, Entry prepared) {
+            this.target = target;
+            this.connection = connection;
+            this.origin = origin;
+            this.prepared = prepared;
+            this.last = prepared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "addBatch":
+                    if (prepared == null && batch == null && args != null && args.length == 1) {
+                        batch = entry((String) args[0]);
+                    }
+                    break;
+                case "clearBatch":
+                    batch = null;
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                Object result = Query_stats.invoke(target, method, args);
+                if (result instanceof ResultSet && method.getReturnType() == ResultSet.class) {
+                    return wrapResult((ResultSet) result, proxy, name.equals("getResultSet") ? last : null);
+                }
+                return result;
+            }
+            Entry e;
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                e = entry((String) args[0]);
+            } else if (prepared != null) {
+                e = prepared;
+            } else if (batch != null) {
+                e = batch;
+                batch = null;
+            } else {
+                return Query_stats.invoke(target, method, args);
+            }
+            last = e;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = Query_stats.invoke(target, method, args);
+            } catch (Throwable ex) {
+                record(e, origin, System.nanoTime() - start, 0, true);
+                throw ex;
+            }
+            record(e, origin, System.nanoTime() - start, count(result), false);
+            if (result instanceof ResultSet) {
+                return wrapResult((ResultSet) result, proxy, e);
+            }
+            return result;
+        }
+
+        private Object wrapResult(ResultSet rs, Object statement, Entry e) {
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new Result_handler(rs, statement, e));
+        }
+    }
+
+    /**
+     * Counts the rows read from a result set against the statement that
+     * produced it.
+     */
+    private static class Result_handler implements InvocationHandler {
+
+        final ResultSet target;
+        final Object statement;
+        final Entry entry;
+
+        Result_handler(ResultSet target, Object statement, Entry entry) {
+            this.target = target;
+            this.statement = statement;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getStatement":
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next":
+                    Object more = Query_stats.invoke(target, method, args);
+                    if (entry != null && Boolean.TRUE.equals(more)) {
+                        entry.rows.incrementAndGet();
+                        rows.incrementAndGet();
+                    }
+                    return more;
+            }
+            return Query_stats.invoke(target, method, args);
+        }
+    }
+
+    private static class Jmx implements Query_statsMXBean {
+
+        @Override
+        public long getExecutions() {
+            return Query_stats.getExecutions();
+        }
+
+        @Override
+        public double getTotalMillis() {
+            return Query_stats.getTotalMillis();
+        }
+
+        @Override
+        public long getRows() {
+            return Query_stats.getRows();
+        }
+
+        @Override
+        public long getSlowQueries() {
+            return Query_stats.getSlowQueries();
+        }
+
+        @Override
+        public long getErrors() {
+            return Query_stats.getErrors();
+        }
+
+        @Override
+        public long getSlowMillis() {
+            return slowMillis;
+        }
+
+        @Override
+        public void setSlowMillis(long millis) {
+            slowMillis = millis;
+        }
+
+        @Override
+        public List<Statement_stats> getStatements() {
+            return snapshot();
+        }
+
+        @Override
+        public int getPoolActive() {
+            ConnectionPool p = Database.currentPool();
+            return p == null ? 0 : p.getActiveCount();
+        }
+
+        @Override
+        public int getPoolIdle() {
+            ConnectionPool p = Database.currentPool();
+            return p == null ? 0 : p.getIdleCount();
+        }
+
+        @Override
+        public long getPoolBorrows() {
+            ConnectionPool p = Database.currentPool();
+            return p == null ? 0 : p.getBorrowCount();
+        }
+
+        @Override
+        public long getPoolLeaks() {
+            ConnectionPool p = Database.currentPool();
+            return p == null ? 0 : p.getLeakCount();
+        }
+
+        @Override
+        public long getStatementCacheHits() {
+            ConnectionPool p = Database.currentPool();
+            return p == null ? 0 : p.getStatementHits();
+        }
+
+        @Override
+        public long getStatementCacheMisses() {
+            ConnectionPool p = Database.currentPool();
+            return p == null ? 0 : p.getStatementMisses();
+        }
+
+        @Override
+        public void reset() {
+            Query_stats.reset();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the small lookup tables the forms fill their combo boxes from (flat
+ * ids, account codes, society banks and member banks) in memory.
+ *
+ * Each table is read once and shared until a form that writes it calls
+ * {@link #invalidate(String)}. Concurrent requests for a table that is still
+ * loading wait for the same query instead of running another one.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Reference_data {
+
+    public static final String FLAT = "flat";
+    public static final String ACCOUNT_CODE = "account_code";
+    public static final String BANK = "bank";
+    public static final String MEMBER_BANK = "member_bank";
+
+    /**
+     * A row of the bank table.
+     */
+    public static final class Bank {
+
+        public final String name;
+        public final String bkid;
+
+        Bank(String name, String bkid) {
+            this.name = name;
+            this.bkid = bkid;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static final String[] ALL = {FLAT, ACCOUNT_CODE, BANK, MEMBER_BANK};
+    private static final ConcurrentMap<String, Future<List<?>>> cache = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public static List<String> flatIds() throws ClassNotFoundException, SQLException {
+        return (List<String>) get(FLAT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> accountCodes() throws ClassNotFoundException, SQLException {
+        return (List<String>) get(ACCOUNT_CODE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Bank> banks() throws ClassNotFoundException, SQLException {
+        return (List<Bank>) get(BANK);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> memberBanks() throws ClassNotFoundException, SQLException {
+        return (List<String>) get(MEMBER_BANK);
+    }
+
+    /**
+     * Drops one table so the next read goes to the database.
+     */
+    public static void invalidate(String table) {
+        cache.remove(table);
+    }
+
+    public static void invalidateAll() {
+        cache.clear();
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Loads every table on a background thread, e.g. right after login.
+     */
+    public static Thread preload() {
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                preloadNow();
+            }
+        }, "reference-preload");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    public static void preloadNow() {
+        for (String table : ALL) {
+            try {
+                get(table);
+            } catch (ClassNotFoundException | SQLException ex) {
+                Logger.getLogger(Reference_data.class.getName()).log(Level.WARNING, "Could not pre-load " + table, ex);
+            }
+        }
+    }
+
+    private static List<?> get(final String table) throws ClassNotFoundException, SQLException {
+        Future<List<?>> f = cache.get(table);
+        if (f != null) {
+            hits.incrementAndGet();
+        } else {
+            FutureTask<List<?>> task = new FutureTask<>(new Callable<List<?>>() {
+                @Override
+                public List<?> call() throws ClassNotFoundException, SQLException {
+                    return load(table);
+                }
+            });
+            f = cache.putIfAbsent(table, task);
+            if (f == null) {
+                misses.incrementAndGet();
+                f = task;
+                task.run();
+            } else {
+                hits.incrementAndGet();
+            }
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading " + table, ex);
+        } catch (ExecutionException ex) {
+            // do not cache failures; the next call tries again
+            cache.remove(table, f);
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof ClassNotFoundException) {
+                throw (ClassNotFoundException) cause;
+            }
+            throw new SQLException("Could not load " + table, cause);
+        }
+    }
+
+    private static List<?> load(String table) throws ClassNotFoundException, SQLException {
+        List<Object> rows = new ArrayList<>();
+        try (Connection con = Database.connect();
+                Statement st = con.createStatement()) {
+            switch (table) {
+                case FLAT:
+                    try (ResultSet rs = st.executeQuery("select fid from flat")) {
+                        while (rs.next()) {
+                            rows.add(rs.getString("fid"));
+                        }
+                    }
+                    break;
+                case ACCOUNT_CODE:
+                    try (ResultSet rs = st.executeQuery("select code from account_code")) {
+                        while (rs.next()) {
+                            rows.add(rs.getString("code"));
+                        }
+                    }
+                    break;
+                case BANK:
+                    try (ResultSet rs = st.executeQuery("select name, bkid from bank")) {
+                        while (rs.next()) {
+                            rows.add(new Bank(rs.getString("name"), rs.getString("bkid")));
+                        }
+                    }
+                    break;
+                case MEMBER_BANK:
+                    try (ResultSet rs = st.executeQuery("select name from member_bank")) {
+                        while (rs.next()) {
+                            rows.add(rs.getString("name"));
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown table " + table);
+            }
+        }
+        return Collections.unmodifiableList(rows);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import Dao.LedgerDao;
+import Dao.ReceivablesDao;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Versioned schema of the society database.
+ *
+ * Each {@link Migration} has a version number and is applied once, in order;
+ * the versions applied so far are recorded in schema_version. Version 1
+ * creates the tables the forms expect, so an empty database is usable, and
+ * later versions add the indexes behind the forms' lookups, the running
+ * balances of the voucher books and the flats' outstanding charges. Every
+ * statement is safe to run twice, with IF NOT EXISTS or by recomputing from
+ * scratch, because H2 commits DDL as it goes and a migration that stopped
+ * half way is simply run again.
+ *
+ * {@link Database} migrates each time it opens its pool, so a restored backup
+ * is brought up to date before anything reads it. The queries the forms run
+ * are registered here too, and {@link #printPlans(Connection, PrintStream)}
+ * shows which index each of them uses.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Schema {
+
+    /**
+     * One step of the schema's history.
+     */
+    public static class Migration {
+
+        public final int version;
+        public final String description;
+        final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+
+    /**
+     * A query one of the forms runs, with sample parameters for EXPLAIN.
+     */
+    public static class Query {
+
+        public final String name;
+        public final String sql;
+        final Object[] parameters;
+
+        Query(String name, String sql, Object... parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    private static final List<Migration> migrations = new ArrayList<>();
+    private static final List<Query> queries = new ArrayList<>();
+
+    static {
+        migrations.add(new Migration(1, "Tables",
+                "create table if not exists administrator(username varchar(255), password varchar(255), two_wheeler int,"
+                + " four_wheeler int, cable int, society_name varchar(255), registration_no varchar(255), address varchar(255),"
+                + " interest_charged int, total_members int, ac_period_from date, ac_period_to date, ac_year varchar(255), due_date int)",
+                "create table if not exists flat(penelty int, cable boolean, use_of_premises int, fid varchar(6), rate_of_property_tax int,"
+                + " service_tax int, sinking_fund int, sublitting_charge int, municipal_tax int, other_charge int, repairs int,"
+                + " bank_charge int, other_municipal_tax int, owner varchar(255), total int)",
+                "create table if not exists parking(fid varchar(255), two_wheeler int, four_wheeler int)",
+                "create table if not exists master(first_name varchar(255), middle_name varchar(255), last_name varchar(255), dob date,"
+                + " contact bigint, photo blob, mid int, sex varchar(255), pan varchar(255))",
+                "create table if not exists family(mid int, fid varchar(6))",
+                "create table if not exists bills(bid int, ac_code varchar(25), bill_date date, bill_period_start date, bill_period_end date,"
+                + " bill_amount int, received_amount int, status varchar(10), balance_amount int, interest_amount int)",
+                "create table if not exists cash_book(voucher_no int, voucher_date date, account_code varchar(255), particulars varchar(255),"
+                + " debit_credit varchar(255), amount int)",
+                "create table if not exists bank_book(voucher_no int, voucher_date date, account_code varchar(255), particulars varchar(255),"
+                + " cheque_no int, cheque_date date, debit_credit varchar(255), cheque_bank varchar(255), amount int)",
+                "create table if not exists account_code(code varchar(20), name varchar(255))",
+                "create table if not exists bank(name varchar(255), bkid varchar(255))",
+                "create table if not exists member_bank(name varchar(255))",
+                "create table if not exists member_ac_master(code varchar(255), open_bal int, ytd_credit int, ytd_debit int)",
+                "create table if not exists general_ac_master(code varchar(255), open_bal int, ytd_credit int, ytd_debit int, type varchar(25))",
+                "create table if not exists transactions(id int, code varchar(255), fiscal_year varchar(255), amount int)",
+                "create table if not exists number_sequence(name varchar(30) primary key, high_water int not null)"));
+        migrations.add(new Migration(2, "Indexes for the forms' lookups",
+                // receipts settle one flat's bill for one period; billing joins the previous period the same way
+                "create index if not exists bills_ac_code_period on bills(ac_code, bill_period_start)",
+                "create index if not exists bills_status on bills(status)",
+                "create index if not exists bills_bid on bills(bid)",
+                // voucher views page through a date range in voucher order; allocation reads max(voucher_no)
+                "create index if not exists cash_book_date on cash_book(voucher_date, voucher_no)",
+                "create index if not exists cash_book_voucher_no on cash_book(voucher_no)",
+                "create index if not exists bank_book_date on bank_book(voucher_date, voucher_no)",
+                "create index if not exists bank_book_voucher_no on bank_book(voucher_no)",
+                "create index if not exists family_fid on family(fid)",
+                "create index if not exists family_mid on family(mid)",
+                "create index if not exists master_mid on master(mid)",
+                "create index if not exists flat_fid on flat(fid)",
+                "create index if not exists parking_fid on parking(fid)"));
+        List<String> ledger = new ArrayList<>();
+        ledger.add("create table if not exists ledger_daily(book varchar(4), account_code varchar(255), day date,"
+                + " debit bigint not null, credit bigint not null, entries int not null, primary key(book, account_code, day))");
+        ledger.add("create table if not exists ledger_monthly(book varchar(4), account_code varchar(255), month date,"
+                + " debit bigint not null, credit bigint not null, entries int not null, primary key(book, account_code, month))");
+        // statements sum a whole book over a date range
+        ledger.add("create index if not exists ledger_daily_day on ledger_daily(book, day)");
+        ledger.add("create index if not exists ledger_monthly_month on ledger_monthly(book, month)");
+        Collections.addAll(ledger, LedgerDao.REBUILD);
+        migrations.add(new Migration(3, "Running balances of the cash and bank books", ledger.toArray(new String[ledger.size()])));
+        migrations.add(new Migration(4, "Member photo thumbnails",
+                "alter table master add column if not exists photo_thumb blob"));
+        List<String> receivables = new ArrayList<>();
+        receivables.add("create table if not exists receivables(ac_code varchar(25), charge_date date, amount int not null,"
+                + " primary key(ac_code, charge_date))");
+        Collections.addAll(receivables, ReceivablesDao.REBUILD);
+        migrations.add(new Migration(5, "Outstanding charges of each flat", receivables.toArray(new String[receivables.size()])));
+
+        java.sql.Date day = new java.sql.Date(System.currentTimeMillis());
+        queries.add(new Query("Settle a bill", "select * from bills where ac_code = ? and bill_period_start = ?", "A-101", day));
+        queries.add(new Query("Bill run", "select f.fid, f.total, r.outstanding, c.bid from flat f"
+                + " left join (select ac_code, sum(amount) outstanding from receivables group by ac_code) r on r.ac_code = f.fid"
+                + " left join bills c on c.ac_code = f.fid and c.bill_period_start = ? order by f.fid", day));
+        queries.add(new Query("Pending bills", "select * from administrator, bills, flat where fid = ac_code and status = 'pending' order by ac_code, bid"));
+        queries.add(new Query("Next bill number", "select max(bid) from bills"));
+        queries.add(new Query("Cash book page", "select * from cash_book where voucher_date between ? and ?"
+                + " and (voucher_date > ? or (voucher_date = ? and voucher_no > ?)) order by voucher_date, voucher_no limit ?",
+                day, day, day, day, 0, 100));
+        queries.add(new Query("Bank book page", "select * from bank_book where voucher_date between ? and ?"
+                + " and (voucher_date > ? or (voucher_date = ? and voucher_no > ?)) order by voucher_date, voucher_no limit ?",
+                day, day, day, day, 0, 100));
+        queries.add(new Query("Book balance, months", "select coalesce(sum(credit - debit), 0) from ledger_monthly"
+                + " where book = ? and month < ?", LedgerDao.CASH, day));
+        queries.add(new Query("Book balance, days", "select coalesce(sum(credit - debit), 0) from ledger_daily"
+                + " where book = ? and day between ? and ?", LedgerDao.CASH, day, day));
+        queries.add(new Query("Defaulters", "select a.ac_code, sum(a.amount) from (select ac_code, charge_date, amount,"
+                + " datediff('day', charge_date, ?) age from receivables) a group by a.ac_code having sum(a.amount) > 0", day));
+        queries.add(new Query("Open charges of a flat", "select charge_date, amount from receivables where ac_code = ? order by charge_date", "A-101"));
+        queries.add(new Query("Next cash voucher", "select max(voucher_no) from cash_book"));
+        queries.add(new Query("Next bank voucher", "select max(voucher_no) from bank_book"));
+        queries.add(new Query("Members of a flat", "select first_name, middle_name, last_name, master.mid from master, family"
+                + " where master.mid = family.mid and fid = ?", "A-101"));
+        queries.add(new Query("Member by id", "select * from master where mid = ?", 1));
+        queries.add(new Query("Flat of a member", "select * from family where mid = ?", 1));
+        queries.add(new Query("Flat details", "select * from flat, parking where flat.fid = ? and parking.fid = ?", "A-101", "A-101"));
+        queries.add(new Query("Member photo", "select photo from master where mid = ?", 1));
+        queries.add(new Query("Member thumbnail", "select photo_thumb from master where mid = ?", 1));
+    }
+
+    public static List<Migration> getMigrations() {
+        return Collections.unmodifiableList(migrations);
+    }
+
+    public static List<Query> getQueries() {
+        return Collections.unmodifiableList(queries);
+    }
+
+    /**
+     * Highest migration applied to the database, 0 for an empty one.
+     */
+    public static int version(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("create table if not exists schema_version(version int primary key, description varchar(255), applied timestamp)");
+            try (ResultSet rs = st.executeQuery("select coalesce(max(version), 0) from schema_version")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Applies the migrations the database has not seen yet.
+     *
+     * @return the number applied
+     */
+    public static int migrate(Connection con) throws SQLException {
+        int current = version(con);
+        int applied = 0;
+        for (Migration m : migrations) {
+            if (m.version <= current) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            try (Statement st = con.createStatement()) {
+                for (String sql : m.statements) {
+                    st.execute(sql);
+                }
+            }
+            try (PreparedStatement ps = con.prepareStatement("insert into schema_version values(?, ?, current_timestamp)")) {
+                ps.setInt(1, m.version);
+                ps.setString(2, m.description);
+                ps.executeUpdate();
+            }
+            applied++;
+            Logger.getLogger(Schema.class.getName()).log(Level.INFO, "Schema migrated to version {0} ({1}) in {2} ms",
+                    new Object[]{m.version, m.description, System.currentTimeMillis() - start});
+        }
+        return applied;
+    }
+
+    /**
+     * Prints H2's plan for every registered query.
+     */
+    public static void printPlans(Connection con, PrintStream out) throws SQLException {
+        for (Query q : queries) {
+            try (PreparedStatement ps = con.prepareStatement("explain " + q.sql)) {
+                for (int i = 0; i < q.parameters.length; i++) {
+                    ps.setObject(i + 1, q.parameters[i]);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    out.println("-- " + q.name);
+                    while (rs.next()) {
+                        out.println(rs.getString(1));
+                    }
+                    out.println();
+                }
+            }
+        }
+    }
+
+    public static void main(String args[]) throws ClassNotFoundException, SQLException {
+        try (Connection con = Database.connect()) {
+            System.out.println("Schema version " + version(con));
+            printPlans(con, System.out);
+        }
+        Database.shutdown();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+
+/**
+ * Strip along the bottom of a window showing the background task that was
+ * started last, its progress and a button to cancel it.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Status_bar extends JPanel implements Task_runner.Listener, PropertyChangeListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Color BACKGROUND = new Color(31, 35, 44);
+
+    private final JLabel message = new JLabel("Ready");
+    private final JProgressBar progress = new JProgressBar(0, 100);
+    private final JButton cancel = new JButton("Cancel");
+    private Background_task<?> current;
+
+    public Status_bar() {
+        super(new BorderLayout(10, 0));
+        setBackground(BACKGROUND);
+        setBorder(BorderFactory.createEmptyBorder(4, 20, 4, 20));
+        message.setForeground(Color.WHITE);
+        progress.setVisible(false);
+        cancel.setEnabled(false);
+        cancel.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (current != null && current.isCancellable()) {
+                    current.cancel(true);
+                }
+            }
+        });
+        JPanel right = new JPanel(new BorderLayout(10, 0));
+        right.setOpaque(false);
+        right.add(progress, BorderLayout.CENTER);
+        right.add(cancel, BorderLayout.EAST);
+        add(message, BorderLayout.CENTER);
+        add(right, BorderLayout.EAST);
+    }
+
+    /**
+     * Adds a status bar below the frame's existing content.
+     */
+    public static Status_bar install(JFrame frame) {
+        Container content = frame.getContentPane();
+        JPanel root = new JPanel(new BorderLayout());
+        root.setBackground(BACKGROUND);
+        root.add(content, BorderLayout.CENTER);
+        Status_bar bar = new Status_bar();
+        root.add(bar, BorderLayout.SOUTH);
+        frame.setContentPane(root);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        return bar;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Task_runner.addListener(this);
+        for (Background_task<?> task : Task_runner.getActive()) {
+            task.addPropertyChangeListener(this);
+        }
+        refresh();
+    }
+
+    @Override
+    public void removeNotify() {
+        Task_runner.removeListener(this);
+        for (Background_task<?> task : Task_runner.getActive()) {
+            task.removePropertyChangeListener(this);
+        }
+        current = null;
+        super.removeNotify();
+    }
+
+    @Override
+    public void submitted(Background_task<?> task) {
+        task.addPropertyChangeListener(this);
+        refresh();
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if ("state".equals(evt.getPropertyName()) && ((Background_task<?>) evt.getSource()).isDone()) {
+            ((Background_task<?>) evt.getSource()).removePropertyChangeListener(this);
+        }
+        refresh();
+    }
+
+    private void refresh() {
+        List<Background_task<?>> running = new ArrayList<>();
+        for (Background_task<?> task : Task_runner.getActive()) {
+            if (!task.isDone()) {
+                running.add(task);
+            }
+        }
+        if (running.isEmpty()) {
+            current = null;
+            message.setText("Ready");
+            progress.setVisible(false);
+            cancel.setEnabled(false);
+            return;
+        }
+        current = running.get(running.size() - 1);
+        String text = current.getMessage();
+        if (running.size() > 1) {
+            text += "  (+" + (running.size() - 1) + " more)";
+        }
+        message.setText(text);
+        int percent = current.getProgress();
+        progress.setIndeterminate(percent == 0);
+        progress.setValue(percent);
+        progress.setVisible(true);
+        cancel.setEnabled(current.isCancellable());
+    }
+}
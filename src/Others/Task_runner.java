@@ -0,0 +1,118 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Others;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+/**
+ * Runs {@link Background_task}s on a small, bounded pool of worker threads.
+ *
+ * The pool is sized for an embedded database: a couple of workers keep the
+ * window responsive while billing, backups and reports run, without opening
+ * more connections than the pool in {@link Database} allows. Tasks beyond the
+ * queue are refused rather than piling up.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Task_runner {
+
+    /**
+     * Told about every task as it is submitted, on the calling thread.
+     */
+    public interface Listener {
+
+        void submitted(Background_task<?> task);
+    }
+
+    public static int workers = Integer.getInteger("himalaya.workers", 2);
+    static final int QUEUE_SIZE = 16;
+
+    private static ThreadPoolExecutor executor;
+    private static final List<Background_task<?>> active = new CopyOnWriteArrayList<>();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Queues a task. If too many are already waiting it is cancelled and the
+     * user is told to try again.
+     */
+    public static <T extends Background_task<?>> T submit(final T task) {
+        active.add(task);
+        task.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                    active.remove(task);
+                }
+            }
+        });
+        for (Listener l : listeners) {
+            l.submitted(task);
+        }
+        try {
+            executor().execute(task);
+        } catch (RejectedExecutionException ex) {
+            Logger.getLogger(Task_runner.class.getName()).log(Level.WARNING, "Refused " + task.getTitle(), ex);
+            active.remove(task);
+            task.cancel(false);
+            JOptionPane.showMessageDialog(null, "Too many tasks are running, please try again shortly");
+        }
+        return task;
+    }
+
+    /**
+     * Tasks submitted and not yet done, oldest first.
+     */
+    public static List<Background_task<?>> getActive() {
+        return new ArrayList<>(active);
+    }
+
+    public static void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    public static void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    public static void cancelAll() {
+        for (Background_task<?> task : active) {
+            if (task.isCancellable()) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private static synchronized ThreadPoolExecutor executor() {
+        if (executor == null) {
+            final AtomicInteger count = new AtomicInteger();
+            executor = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "worker-" + count.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+}
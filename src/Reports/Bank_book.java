@@ -5,10 +5,10 @@
  */
 package Reports;
 
+import Others.Background_task;
+import Others.Task_runner;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
@@ -20,16 +20,21 @@ import net.sf.jasperreports.view.JasperViewer;
  */
 public class Bank_book {
     public Bank_book() {
-        try {
-            Connection con = Others.Database.connect();
-            String jasperFile = Bank_book.class.getResource("/Resource/Bank_book.jasper").toString().substring(6);
-            JasperPrint jp = JasperFillManager.fillReport(jasperFile, null, con);
-            JasperViewer jv = new JasperViewer(jp,false);
-            jv.setExtendedState(JasperViewer.MAXIMIZED_BOTH);
-            jv.setVisible(true);
-        } catch (JRException | ClassNotFoundException | SQLException ex) {
-            Logger.getLogger(Bank_book.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        Task_runner.submit(new Background_task<JasperPrint>("Preparing bank book") {
+            @Override
+            protected JasperPrint work() throws JRException, ClassNotFoundException, SQLException {
+                try (Connection con = Others.Database.connect()) {
+                    return JasperFillManager.fillReport(Report_registry.get(Report_registry.BANK_BOOK), null, con);
+                }
+            }
+
+            @Override
+            protected void succeeded(JasperPrint jp) {
+                JasperViewer jv = new JasperViewer(jp,false);
+                jv.setExtendedState(JasperViewer.MAXIMIZED_BOTH);
+                jv.setVisible(true);
+            }
+        });
     }
     public static void main (String op[]) {
         new Bank_book();
@@ -0,0 +1,357 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Reports;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExporterParameter;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+
+/**
+ * Renders one per-flat report (maintenance bill, receipt) for many flats at
+ * once.
+ *
+ * The compiled report is loaded a single time and the rows of the requested
+ * flats are fetched by one query per few hundred flats, ordered by the flat's
+ * account code. Each flat is filled from its own rows as the result set
+ * reaches them, so the report's embedded per-flat query never runs, and the
+ * filled pages are streamed straight into a PDF: only one flat's rows and
+ * pages are in memory at any time.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Bulk_report {
+
+    /**
+     * Flats bound into one query.
+     */
+    private static final int KEYS_PER_QUERY = 500;
+
+    private final String resource;
+    private final String sql;
+    private final String keyColumn;
+    private final String keyParameter;
+
+    /**
+     * @param resource classpath location of the compiled report
+     * @param sql query returning the report's fields; it holds {@code %s}
+     * where the placeholders of the requested account codes go, as in
+     * {@code ac_code in (%s)}, after any of its own parameters, and orders
+     * its rows by {@code keyColumn} first
+     * @param keyColumn column holding the flat's account code
+     * @param keyParameter report parameter that normally selects the flat
+     */
+    public Bulk_report(String resource, String sql, String keyColumn, String keyParameter) {
+        this.resource = resource;
+        this.sql = sql;
+        this.keyColumn = keyColumn;
+        this.keyParameter = keyParameter;
+    }
+
+    /**
+     * Writes the report of every flat in {@code keys}, in account code
+     * order, to {@code out} as a single PDF. Flats without rows are left out.
+     *
+     * @return the number of flats rendered
+     */
+    public int writePdf(Connection con, Collection<String> keys, Map<String, Object> parameters,
+            Object[] sqlArgs, OutputStream out) throws SQLException, JRException {
+        long start = System.currentTimeMillis();
+        JasperReport report = Report_registry.get(resource);
+        try (Groups groups = new Groups(con, new ArrayList<>(new TreeSet<>(keys)), sqlArgs)) {
+            if (!groups.hasNext()) {
+                return 0;
+            }
+            Prints prints = new Prints(report, parameters, groups);
+            JRPdfExporter exporter = new JRPdfExporter();
+            exporter.setParameter(JRExporterParameter.JASPER_PRINT_LIST, prints);
+            exporter.setParameter(JRExporterParameter.OUTPUT_STREAM, out);
+            exporter.exportReport();
+            int rendered = prints.size();
+            Logger.getLogger(Bulk_report.class.getName()).log(Level.INFO, "Rendered {0} for {1} flats in {2} ms",
+                    new Object[]{resource, rendered, System.currentTimeMillis() - start});
+            return rendered;
+        }
+    }
+
+    /**
+     * Convenience wrapper that renders into a temporary PDF file.
+     *
+     * @return the file, or null when no flat had any rows
+     */
+    public File renderPdf(Connection con, Collection<String> keys, Map<String, Object> parameters, Object... sqlArgs)
+            throws SQLException, JRException, IOException {
+        String name = resource.substring(resource.lastIndexOf('/') + 1).replace(".jasper", "");
+        File file = File.createTempFile(name + "-", ".pdf");
+        file.deleteOnExit();
+        int count;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            count = writePdf(con, keys, parameters, sqlArgs, out);
+        }
+        if (count == 0) {
+            file.delete();
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Walks the query's rows one flat at a time, reading one row ahead to
+     * find where a flat ends. The account codes are bound a chunk at a time;
+     * a flat never spans two chunks.
+     */
+    private class Groups implements AutoCloseable {
+
+        final Connection con;
+        final List<String> keys;
+        final Object[] sqlArgs;
+        int nextChunk;
+        PreparedStatement ps;
+        ResultSet rs;
+        Map<String, Integer> columns;
+        int width;
+        int key;
+        Object[] pending;
+
+        Groups(Connection con, List<String> keys, Object[] sqlArgs) {
+            this.con = con;
+            this.keys = keys;
+            this.sqlArgs = sqlArgs;
+        }
+
+        boolean hasNext() throws SQLException {
+            while (pending == null) {
+                if (rs != null) {
+                    if (rs.next()) {
+                        pending = read();
+                        continue;
+                    }
+                    close();
+                }
+                if (nextChunk >= keys.size()) {
+                    return false;
+                }
+                open(keys.subList(nextChunk, Math.min(nextChunk + KEYS_PER_QUERY, keys.size())));
+                nextChunk += KEYS_PER_QUERY;
+            }
+            return true;
+        }
+
+        /**
+         * The next flat's rows, in query order.
+         */
+        List<Object[]> next() throws SQLException {
+            if (!hasNext()) {
+                throw new IllegalStateException("No more flats");
+            }
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(pending);
+            String k = String.valueOf(pending[key]);
+            pending = null;
+            while (rs.next()) {
+                Object[] row = read();
+                if (!k.equals(String.valueOf(row[key]))) {
+                    pending = row;
+                    return rows;
+                }
+                rows.add(row);
+            }
+            close();
+            return rows;
+        }
+
+        String keyOf(List<Object[]> rows) {
+            return String.valueOf(rows.get(0)[key]);
+        }
+
+        private void open(List<String> chunk) throws SQLException {
+            StringBuilder marks = new StringBuilder();
+            for (int i = 0; i < chunk.size(); i++) {
+                marks.append(i == 0 ? "?" : ", ?");
+            }
+            ps = con.prepareStatement(String.format(sql, marks));
+            int index = 1;
+            for (int i = 0; sqlArgs != null && i < sqlArgs.length; i++) {
+                ps.setObject(index++, sqlArgs[i]);
+            }
+            for (String k : chunk) {
+                ps.setString(index++, k);
+            }
+            rs = ps.executeQuery();
+            ResultSetMetaData md = rs.getMetaData();
+            width = md.getColumnCount();
+            columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int i = width; i >= 1; i--) {
+                // the first occurrence wins for duplicate labels, as with select *
+                columns.put(md.getColumnLabel(i), i - 1);
+            }
+            key = columns.get(keyColumn);
+        }
+
+        private Object[] read() throws SQLException {
+            Object[] row = new Object[width];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+            } finally {
+                rs = null;
+                if (ps != null) {
+                    ps.close();
+                }
+                ps = null;
+            }
+        }
+    }
+
+    /**
+     * Fills flats on demand as the exporter walks the list. The exporter
+     * asks for the reports in order and reads the size again before each
+     * one, so the list grows by one while another flat is waiting; it may
+     * ask for the same index more than once, so the last print is kept.
+     */
+    private class Prints extends AbstractList<JasperPrint> {
+
+        final JasperReport report;
+        final Map<String, Object> parameters;
+        final Groups groups;
+        int cachedIndex = -1;
+        JasperPrint cached;
+
+        Prints(JasperReport report, Map<String, Object> parameters, Groups groups) {
+            this.report = report;
+            this.parameters = parameters;
+            this.groups = groups;
+        }
+
+        @Override
+        public JasperPrint get(int index) {
+            if (index != cachedIndex) {
+                if (index != cachedIndex + 1) {
+                    throw new IllegalStateException("Flats are filled in order; asked for " + index + " after " + cachedIndex);
+                }
+                String key = null;
+                try {
+                    List<Object[]> rows = groups.next();
+                    key = groups.keyOf(rows);
+                    Map<String, Object> p = new HashMap<>();
+                    if (parameters != null) {
+                        p.putAll(parameters);
+                    }
+                    p.put(keyParameter, key);
+                    cached = JasperFillManager.fillReport(report, p, new Rows(groups.columns, rows));
+                } catch (SQLException ex) {
+                    throw new IllegalStateException("Could not read the rows of " + resource, ex);
+                } catch (JRException ex) {
+                    throw new IllegalStateException("Could not fill " + resource + " for " + key, ex);
+                }
+                cachedIndex = index;
+            }
+            return cached;
+        }
+
+        @Override
+        public int size() {
+            try {
+                return cachedIndex + 1 + (groups.hasNext() ? 1 : 0);
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Could not read the rows of " + resource, ex);
+            }
+        }
+    }
+
+    /**
+     * Data source over one flat's rows, converting values to the field
+     * classes the way JRResultSetDataSource does.
+     */
+    static class Rows implements JRDataSource {
+
+        private final Map<String, Integer> columns;
+        private final List<Object[]> rows;
+        private int index = -1;
+
+        Rows(Map<String, Integer> columns, List<Object[]> rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next() {
+            return ++index < rows.size();
+        }
+
+        @Override
+        public Object getFieldValue(JRField field) throws JRException {
+            Integer column = columns.get(field.getName());
+            if (column == null) {
+                throw new JRException("Unknown column name : " + field.getName());
+            }
+            return convert(rows.get(index)[column], field.getValueClass());
+        }
+
+        static Object convert(Object value, Class<?> type) {
+            if (value == null || type.isInstance(value)) {
+                return value;
+            }
+            if (type == String.class) {
+                return value.toString();
+            }
+            if (value instanceof Number) {
+                Number n = (Number) value;
+                if (type == Integer.class) {
+                    return n.intValue();
+                } else if (type == Long.class) {
+                    return n.longValue();
+                } else if (type == Short.class) {
+                    return n.shortValue();
+                } else if (type == Double.class) {
+                    return n.doubleValue();
+                } else if (type == Float.class) {
+                    return n.floatValue();
+                } else if (type == BigDecimal.class) {
+                    return new BigDecimal(n.toString());
+                }
+            }
+            if (value instanceof java.util.Date && type == java.sql.Timestamp.class) {
+                return new java.sql.Timestamp(((java.util.Date) value).getTime());
+            }
+            return value;
+        }
+    }
+}
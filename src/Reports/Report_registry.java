@@ -0,0 +1,127 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Reports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/**
+ * Loads each compiled report from the classpath once and keeps it in memory.
+ *
+ * Reports are read with getResourceAsStream so they load from inside the jar
+ * as well as from the build directory. Concurrent requests for a report that
+ * is still loading wait for the same load instead of starting another one.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Report_registry {
+
+    public static final String BANK_BOOK = "/Resource/Bank_book.jasper";
+    public static final String CASH_BOOK = "/Resource/Cash_book.jasper";
+    public static final String MAINTENANCE_BILL = "/Resource/Maintenance_bill.jasper";
+    public static final String MAINTENANCE_RECEIPT = "/Resource/Maintenance_receipt.jasper";
+
+    private static final String[] ALL = {BANK_BOOK, CASH_BOOK, MAINTENANCE_BILL, MAINTENANCE_RECEIPT};
+    private static final ConcurrentMap<String, Future<JasperReport>> cache = new ConcurrentHashMap<>();
+
+    public static JasperReport get(final String resource) throws JRException {
+        Future<JasperReport> f = cache.get(resource);
+        if (f == null) {
+            FutureTask<JasperReport> task = new FutureTask<>(new Callable<JasperReport>() {
+                @Override
+                public JasperReport call() throws JRException {
+                    return load(resource);
+                }
+            });
+            f = cache.putIfAbsent(resource, task);
+            if (f == null) {
+                f = task;
+                task.run();
+            }
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JRException("Interrupted while loading " + resource, ex);
+        } catch (ExecutionException ex) {
+            // do not cache failures; the next call tries again
+            cache.remove(resource, f);
+            if (ex.getCause() instanceof JRException) {
+                throw (JRException) ex.getCause();
+            }
+            throw new JRException("Could not load " + resource, ex.getCause());
+        }
+    }
+
+    public static void invalidate(String resource) {
+        cache.remove(resource);
+    }
+
+    public static void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Loads every report the application uses on a background thread.
+     */
+    public static Thread prewarm() {
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                prewarmNow();
+            }
+        }, "report-prewarm");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Loads every report the application uses on the calling thread.
+     */
+    public static void prewarmNow() {
+        for (String resource : ALL) {
+            try {
+                get(resource);
+            } catch (JRException ex) {
+                Logger.getLogger(Report_registry.class.getName()).log(Level.WARNING, "Could not pre-load " + resource, ex);
+            }
+        }
+    }
+
+    private static JasperReport load(String resource) throws JRException {
+        long start = System.currentTimeMillis();
+        InputStream in = Report_registry.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new JRException("Report not found: " + resource);
+        }
+        try {
+            JasperReport report = (JasperReport) JRLoader.loadObject(in);
+            Logger.getLogger(Report_registry.class.getName()).log(Level.FINE, "Loaded {0} in {1} ms",
+                    new Object[]{resource, System.currentTimeMillis() - start});
+            return report;
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                Logger.getLogger(Report_registry.class.getName()).log(Level.FINE, null, ex);
+            }
+        }
+    }
+}
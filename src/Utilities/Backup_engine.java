@@ -0,0 +1,409 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Full and incremental backups of the database into a backup directory.
+ *
+ * Each backup starts from a consistent snapshot taken with H2's own BACKUP
+ * command, so it is safe while the application is in use. The database
+ * files in the snapshot are split into fixed-size chunks and every chunk's
+ * SHA-1 is written to a manifest. An incremental backup stores only the
+ * chunks whose checksum differs from the previous backup's manifest and
+ * names that backup as its parent; a full backup stores every chunk.
+ * Restoring an incremental backup replays its chain from the last full
+ * backup, newest chunk wins, and checks every chunk and file checksum.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Backup_engine {
+
+    /**
+     * Told how many bytes of the database have been processed so far.
+     */
+    public interface Progress {
+
+        void update(long done, long total);
+    }
+
+    /**
+     * Outcome of one backup.
+     */
+    public static class Result {
+
+        public File archive;
+        public boolean incremental;
+        public long databaseBytes;
+        public int storedChunks;
+        public int totalChunks;
+        public long millis;
+
+        public double getMegabytesPerSecond() {
+            return millis == 0 ? 0 : databaseBytes / 1048576.0 / (millis / 1000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s backup of %.1f MB, %d of %d chunks stored (%.1f MB archive) in %.1f s, %.1f MB/s",
+                    incremental ? "Incremental" : "Full", databaseBytes / 1048576.0, storedChunks, totalChunks,
+                    archive.length() / 1048576.0, millis / 1000.0, getMegabytesPerSecond());
+        }
+    }
+
+    public static int defaultCompressionLevel = Integer.getInteger("himalaya.backup.level", Deflater.DEFAULT_COMPRESSION);
+    // a full backup is taken once this many increments hang off the last one
+    public static int maxIncrements = Integer.getInteger("himalaya.backup.maxIncrements", 6);
+
+    static final int CHUNK_SIZE = 64 * 1024;
+    static final String MANIFEST = "MANIFEST";
+    // archives written before names carried milliseconds end in the seconds
+    private static final Pattern NAME = Pattern.compile("\\d{8}-\\d{6}(\\d{3})?-(full|incr)\\.zip");
+
+    private final File directory;
+    private int compressionLevel = defaultCompressionLevel;
+
+    public Backup_engine(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Deflate level for the chunks, 0 (store) to 9 (smallest). Photos are
+     * already compressed, so a low level is often just as small and faster.
+     */
+    public void setCompressionLevel(int level) {
+        this.compressionLevel = level;
+    }
+
+    /**
+     * Takes an incremental backup if there is a recent enough backup in the
+     * directory, otherwise a full one.
+     */
+    public Result backup(Progress progress) throws ClassNotFoundException, SQLException, IOException {
+        File previous = latest(directory);
+        boolean incremental = previous != null && chain(previous).size() <= maxIncrements;
+        return backup(incremental ? previous : null, progress);
+    }
+
+    public Result backupFull(Progress progress) throws ClassNotFoundException, SQLException, IOException {
+        return backup(null, progress);
+    }
+
+    private Result backup(File parent, Progress progress) throws ClassNotFoundException, SQLException, IOException {
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+        result.incremental = parent != null;
+        Properties previous = parent == null ? null : readManifest(parent);
+
+        String name = newName(parent == null ? "-full.zip" : "-incr.zip");
+        if (parent != null && parent.getName().equals(name)) {
+            throw new IOException("Backup " + name + " cannot be its own parent");
+        }
+        File archive = new File(directory, name);
+        File part = new File(directory, name + ".part");
+        File snapshot = File.createTempFile("him-snapshot", ".zip");
+        try {
+            snapshot.delete();
+            try (Connection con = Others.Database.connect();
+                    Statement st = con.createStatement()) {
+                st.execute("backup to '" + snapshot.getAbsolutePath().replace("'", "''") + "'");
+            }
+            Properties manifest = new Properties();
+            manifest.setProperty("format", "1");
+            manifest.setProperty("type", parent == null ? "full" : "incremental");
+            if (parent != null) {
+                manifest.setProperty("parent", parent.getName());
+            }
+            manifest.setProperty("created", new Date().toString());
+            manifest.setProperty("chunkSize", Integer.toString(CHUNK_SIZE));
+            manifest.setProperty("level", Integer.toString(compressionLevel));
+
+            try (ZipFile in = new ZipFile(snapshot);
+                    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(part))) {
+                out.setLevel(compressionLevel);
+                long total = 0;
+                List<ZipEntry> entries = new ArrayList<>();
+                for (Enumeration<? extends ZipEntry> e = in.entries(); e.hasMoreElements();) {
+                    ZipEntry entry = e.nextElement();
+                    if (!entry.isDirectory()) {
+                        entries.add(entry);
+                        total += entry.getSize();
+                    }
+                }
+                StringBuilder files = new StringBuilder();
+                byte[] chunk = new byte[CHUNK_SIZE];
+                MessageDigest fileDigest = sha1();
+                MessageDigest chunkDigest = sha1();
+                long done = 0;
+                for (ZipEntry entry : entries) {
+                    String file = entry.getName();
+                    files.append(files.length() == 0 ? "" : ",").append(file);
+                    fileDigest.reset();
+                    long length = 0;
+                    int index = 0;
+                    try (InputStream is = in.getInputStream(entry)) {
+                        int n;
+                        while ((n = readFully(is, chunk)) > 0) {
+                            fileDigest.update(chunk, 0, n);
+                            chunkDigest.update(chunk, 0, n);
+                            String hash = hex(chunkDigest.digest());
+                            manifest.setProperty(file + "." + index, hash);
+                            if (previous == null || !hash.equals(previous.getProperty(file + "." + index))) {
+                                out.putNextEntry(new ZipEntry(file + "/" + index));
+                                out.write(chunk, 0, n);
+                                out.closeEntry();
+                                result.storedChunks++;
+                            }
+                            result.totalChunks++;
+                            index++;
+                            length += n;
+                            done += n;
+                            if (progress != null) {
+                                progress.update(done, total);
+                            }
+                        }
+                    }
+                    manifest.setProperty(file + ".length", Long.toString(length));
+                    manifest.setProperty(file + ".chunks", Integer.toString(index));
+                    manifest.setProperty(file + ".sha1", hex(fileDigest.digest()));
+                    result.databaseBytes += length;
+                }
+                manifest.setProperty("files", files.toString());
+                out.putNextEntry(new ZipEntry(MANIFEST));
+                manifest.store(out, "Himalaya backup manifest");
+                out.closeEntry();
+            }
+            if (!part.renameTo(archive)) {
+                throw new IOException("Could not rename " + part + " to " + archive);
+            }
+        } finally {
+            snapshot.delete();
+            part.delete();
+        }
+        result.archive = archive;
+        result.millis = System.currentTimeMillis() - start;
+        Logger.getLogger(Backup_engine.class.getName()).log(Level.INFO, "{0}", result);
+        return result;
+    }
+
+    /**
+     * A name for a new archive that no backup in the directory has, full or
+     * incremental. Names sort in the order the backups were taken, so two
+     * taken in the same millisecond get consecutive timestamps.
+     */
+    private String newName(String suffix) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmssSSS");
+        long time = System.currentTimeMillis();
+        while (true) {
+            String stamp = format.format(new Date(time));
+            if (!taken(stamp + "-full.zip") && !taken(stamp + "-incr.zip")) {
+                return stamp + suffix;
+            }
+            time++;
+        }
+    }
+
+    private boolean taken(String name) {
+        return new File(directory, name).exists() || new File(directory, name + ".part").exists();
+    }
+
+    /**
+     * True if the file is an archive written by this engine rather than a
+     * plain H2 backup zip.
+     */
+    public static boolean isEngineBackup(File archive) {
+        try (ZipFile zip = new ZipFile(archive)) {
+            return zip.getEntry(MANIFEST) != null;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    public static Properties readManifest(File archive) throws IOException {
+        try (ZipFile zip = new ZipFile(archive)) {
+            ZipEntry entry = zip.getEntry(MANIFEST);
+            if (entry == null) {
+                throw new IOException(archive + " has no manifest");
+            }
+            Properties manifest = new Properties();
+            try (InputStream in = zip.getInputStream(entry)) {
+                manifest.load(in);
+            }
+            return manifest;
+        }
+    }
+
+    /**
+     * The backups needed to restore {@code archive}, newest first, ending
+     * with a full backup.
+     */
+    public static List<File> chain(File archive) throws IOException {
+        List<File> chain = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        File current = archive;
+        while (true) {
+            if (!current.isFile()) {
+                throw new IOException("Backup chain is incomplete, " + current.getName() + " is missing");
+            }
+            if (!seen.add(current.getName())) {
+                throw new IOException("Backup chain of " + archive.getName() + " loops back to " + current.getName());
+            }
+            chain.add(current);
+            String parent = readManifest(current).getProperty("parent");
+            if (parent == null) {
+                return chain;
+            }
+            current = new File(archive.getParentFile(), parent);
+        }
+    }
+
+    /**
+     * Newest backup in a directory, or null.
+     */
+    public static File latest(File directory) {
+        String[] names = directory.list();
+        if (names == null) {
+            return null;
+        }
+        Arrays.sort(names);
+        for (int i = names.length - 1; i >= 0; i--) {
+            if (NAME.matcher(names[i]).matches()) {
+                return new File(directory, names[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuilds the database files of {@code archive} in {@code target},
+     * replaying the increments over their full backup. Every chunk and every
+     * file is checked against the manifest. The database must be closed.
+     *
+     * @return bytes written
+     */
+    public static long restore(File archive, File target, Progress progress) throws IOException {
+        List<File> chain = chain(archive);
+        Properties manifest = readManifest(archive);
+        String[] files = manifest.getProperty("files", "").split(",");
+        long total = 0;
+        List<boolean[]> written = new ArrayList<>();
+        for (String file : files) {
+            if (!new File(target, file).getCanonicalPath().startsWith(target.getCanonicalPath() + File.separator)) {
+                throw new IOException(file + " would be written outside the database directory");
+            }
+            total += Long.parseLong(manifest.getProperty(file + ".length"));
+            written.add(new boolean[Integer.parseInt(manifest.getProperty(file + ".chunks"))]);
+        }
+        byte[] chunk = new byte[CHUNK_SIZE];
+        MessageDigest digest = sha1();
+        long done = 0;
+        for (int f = 0; f < files.length; f++) {
+            try (RandomAccessFile out = new RandomAccessFile(new File(target, files[f]), "rw")) {
+                out.setLength(Long.parseLong(manifest.getProperty(files[f] + ".length")));
+                boolean[] have = written.get(f);
+                // newest archive first: a chunk found there supersedes the same chunk further down the chain
+                for (File backup : chain) {
+                    try (ZipFile zip = new ZipFile(backup)) {
+                        for (int i = 0; i < have.length; i++) {
+                            if (have[i]) {
+                                continue;
+                            }
+                            ZipEntry entry = zip.getEntry(files[f] + "/" + i);
+                            if (entry == null) {
+                                continue;
+                            }
+                            int n;
+                            try (InputStream in = zip.getInputStream(entry)) {
+                                n = readFully(in, chunk);
+                            }
+                            digest.update(chunk, 0, n);
+                            if (!hex(digest.digest()).equals(manifest.getProperty(files[f] + "." + i))) {
+                                throw new IOException("Chunk " + i + " of " + files[f] + " in " + backup.getName() + " fails its checksum");
+                            }
+                            out.seek((long) i * CHUNK_SIZE);
+                            out.write(chunk, 0, n);
+                            have[i] = true;
+                            done += n;
+                            if (progress != null) {
+                                progress.update(done, total);
+                            }
+                        }
+                    }
+                }
+                for (int i = 0; i < have.length; i++) {
+                    if (!have[i]) {
+                        throw new IOException("Chunk " + i + " of " + files[f] + " is missing from the backup chain");
+                    }
+                }
+                out.seek(0);
+                int n;
+                while ((n = out.read(chunk)) > 0) {
+                    digest.update(chunk, 0, n);
+                }
+                if (!hex(digest.digest()).equals(manifest.getProperty(files[f] + ".sha1"))) {
+                    throw new IOException(files[f] + " fails its checksum after restore");
+                }
+            }
+        }
+        Logger.getLogger(Backup_engine.class.getName()).log(Level.INFO, "Restored {0} bytes from {1} backups", new Object[]{done, chain.size()});
+        return done;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int n = 0;
+        while (n < buffer.length) {
+            int r = in.read(buffer, n, buffer.length - n);
+            if (r < 0) {
+                break;
+            }
+            n += r;
+        }
+        return n;
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
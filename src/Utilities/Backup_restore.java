@@ -5,15 +5,15 @@
  */
 package Utilities;
 
-import java.sql.Connection;
+import Others.Background_task;
+import Others.Task_runner;
+import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.CancellationException;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
-import org.h2.tools.Restore;
 
 /**
  *
@@ -213,24 +213,40 @@ public class Backup_restore extends javax.swing.JFrame {
     }//GEN-LAST:event_createBrowseActionPerformed
 
     private void createActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_createActionPerformed
-        try {
-            // TODO add your handling code here:
-            if (!jTextField2.getText().equals("")) {
-                java.text.SimpleDateFormat todaysDate = new java.text.SimpleDateFormat("dd-MM-yyyy-HH-mm-ss");
-                String backupdirectory = path + todaysDate.format((java.util.Calendar.getInstance()).getTime()) + ".zip";
-                Connection con = Others.Database.connect();
-                Statement st = con.createStatement();
-                st.executeUpdate("backup to '" + backupdirectory + "'");
-                JOptionPane.showMessageDialog(this, "Backed up database to " + backupdirectory);
-                parentFrame.setEnabled(true);
-                parentFrame.requestFocus();
-                this.dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Select backup directory first");
-            }
+        // TODO add your handling code here:
+        if (!jTextField2.getText().equals("")) {
+            final Backup_engine engine = new Backup_engine(new File(jTextField2.getText()));
+            create.setEnabled(false);
+            Task_runner.submit(new Background_task<Backup_engine.Result>("Backing up database", false) {
+                @Override
+                protected Backup_engine.Result work() throws ClassNotFoundException, SQLException, IOException {
+                    progress(0, "Taking a snapshot of the database");
+                    final long start = System.currentTimeMillis();
+                    return engine.backup(new Backup_engine.Progress() {
+                        @Override
+                        public void update(long done, long total) {
+                            long millis = Math.max(1, System.currentTimeMillis() - start);
+                            progress((int) (done * 100 / Math.max(1, total)), String.format("Backing up: %d of %d MB, %.1f MB/s",
+                                    done >> 20, total >> 20, done / 1048576.0 / (millis / 1000.0)));
+                        }
+                    });
+                }
 
-        } catch (ClassNotFoundException | SQLException ex) {
-            Logger.getLogger(Backup_restore.class.getName()).log(Level.SEVERE, null, ex);
+                @Override
+                protected void succeeded(Backup_engine.Result result) {
+                    JOptionPane.showMessageDialog(Backup_restore.this, result + "\nSaved to " + result.archive);
+                    parentFrame.setEnabled(true);
+                    parentFrame.requestFocus();
+                    Backup_restore.this.dispose();
+                }
+
+                @Override
+                protected void finished() {
+                    create.setEnabled(true);
+                }
+            });
+        } else {
+            JOptionPane.showMessageDialog(this, "Select backup directory first");
         }
     }//GEN-LAST:event_createActionPerformed
 
@@ -246,20 +262,55 @@ public class Backup_restore extends javax.swing.JFrame {
     }//GEN-LAST:event_restoreBrowseActionPerformed
 
     private void restoreActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_restoreActionPerformed
-        try {
-            // TODO add your handling code here:
-            if (!jTextField1.getText().equals("")) {
-                Connection con = Others.Database.connect();
-                Restore.execute(path, Others.Database.dbDirectory, null);
-                JOptionPane.showMessageDialog(this, "Database restored using " + path);
-                parentFrame.setEnabled(true);
-                parentFrame.requestFocus();
-                this.dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Select backup directory first");
-            }
-        } catch (ClassNotFoundException | SQLException ex) {
-            Logger.getLogger(Backup_restore.class.getName()).log(Level.SEVERE, null, ex);
+        // TODO add your handling code here:
+        if (!jTextField1.getText().equals("")) {
+            final File backup = new File(path);
+            final Restore_pipeline pipeline = new Restore_pipeline();
+            restore.setEnabled(false);
+            Task_runner.submit(new Background_task<Restore_pipeline.Report>("Restoring database") {
+                @Override
+                protected Restore_pipeline.Report work() throws ClassNotFoundException, SQLException, IOException {
+                    final long start = System.currentTimeMillis();
+                    return pipeline.stage(backup, new Backup_engine.Progress() {
+                        @Override
+                        public void update(long done, long total) {
+                            if (isCancelled()) {
+                                throw new CancellationException();
+                            }
+                            long millis = Math.max(1, System.currentTimeMillis() - start);
+                            progress((int) (done * 100 / Math.max(1, total)), String.format("Restoring: %d of %d MB, %.1f MB/s",
+                                    done >> 20, total >> 20, done / 1048576.0 / (millis / 1000.0)));
+                        }
+                    });
+                }
+
+                @Override
+                protected void succeeded(Restore_pipeline.Report report) {
+                    int answer = JOptionPane.showConfirmDialog(Backup_restore.this, report + "\n\nReplace the current database with this backup?",
+                            "Restore Database", JOptionPane.YES_NO_OPTION);
+                    if (answer != JOptionPane.YES_OPTION) {
+                        pipeline.discard();
+                        return;
+                    }
+                    try {
+                        pipeline.swap();
+                        JOptionPane.showMessageDialog(Backup_restore.this, "Database restored using " + path);
+                        parentFrame.setEnabled(true);
+                        parentFrame.requestFocus();
+                        Backup_restore.this.dispose();
+                    } catch (IOException ex) {
+                        pipeline.discard();
+                        failed(ex);
+                    }
+                }
+
+                @Override
+                protected void finished() {
+                    restore.setEnabled(true);
+                }
+            });
+        } else {
+            JOptionPane.showMessageDialog(this, "Select backup directory first");
         }
     }//GEN-LAST:event_restoreActionPerformed
 
@@ -266,11 +266,10 @@ public class Master_details extends javax.swing.JFrame {
     }// </editor-fold>//GEN-END:initComponents
 
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
-        try {
-            // TODO add your handling code here:
-            Connection con = Others.Database.connect();
-            Statement st = con.createStatement();
-            ResultSet rs = st.executeQuery("select society_name,registration_no,address,interest_charged,due_date,ac_period_from,ac_period_to,ac_year,total_members from administrator");
+        // TODO add your handling code here:
+        try (Connection con = Others.Database.connect();
+                Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("select society_name,registration_no,address,interest_charged,due_date,ac_period_from,ac_period_to,ac_year,total_members from administrator")) {
             if(rs.next()) {
             jTextField1.setText(rs.getString("society_name"));
             jTextField2.setText(rs.getString("registration_no"));
@@ -306,9 +305,8 @@ public class Master_details extends javax.swing.JFrame {
             jTextField9.setEditable(true);
             first = false;
         } else {
-            try {
-                Connection con = Others.Database.connect();
-                PreparedStatement s = con.prepareStatement("update administrator set society_name = ?, registration_no = ?, address = ?, interest_charged = ?, due_date = ?, ac_period_from = ?, ac_period_to = ?,ac_year = ?, total_members = ?");
+            try (Connection con = Others.Database.connect();
+                    PreparedStatement s = con.prepareStatement("update administrator set society_name = ?, registration_no = ?, address = ?, interest_charged = ?, due_date = ?, ac_period_from = ?, ac_period_to = ?,ac_year = ?, total_members = ?")) {
                 s.setString(1,jTextField1.getText());
                 s.setString(2,jTextField2.getText());
                 s.setString(3,jTextField3.getText());
@@ -329,6 +327,7 @@ public class Master_details extends javax.swing.JFrame {
                 s.setString(8,jTextField9.getText());
                 s.setInt(9,Integer.parseInt(jTextField8.getText()));
                 if(s.executeUpdate() > 0) {
+                    Others.Reference_data.invalidateAll();
                     JOptionPane.showMessageDialog(rootPane,"Data updated");
                 } else {
                     JOptionPane.showMessageDialog(rootPane,"Sorry some error occured");
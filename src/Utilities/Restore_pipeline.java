@@ -0,0 +1,269 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Utilities;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Restores a backup without touching the live database until the backup has
+ * been proven good.
+ *
+ * {@link #stage(File, Backup_engine.Progress)} unpacks the archive into a
+ * staging directory next to the database directory, checking every checksum
+ * as it goes, then opens the staged database and runs integrity queries: the
+ * row count of every table and the ledger totals. Only
+ * {@link #swap()} replaces the live directory, by renaming, so a bad archive
+ * or a failure half way leaves the live database as it was. The replaced
+ * directory is kept alongside as {@code <directory>.previous}.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Restore_pipeline {
+
+    /**
+     * What the staged database contains, for the user to check before the
+     * swap.
+     */
+    public static class Report {
+
+        public File archive;
+        public final Map<String, Long> rows = new TreeMap<>();
+        public long bytes;
+        public long millis;
+        public long cashBalance;
+        public long bankBalance;
+        public long outstanding;
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%s: %.1f MB restored and verified in %.1f s%n", archive.getName(), bytes / 1048576.0, millis / 1000.0));
+            for (Map.Entry<String, Long> e : rows.entrySet()) {
+                sb.append(String.format("  %-20s %,10d rows%n", e.getKey(), e.getValue()));
+            }
+            sb.append(String.format("Cash book balance %,d, bank book balance %,d, outstanding bills %,d", cashBalance, bankBalance, outstanding));
+            return sb.toString();
+        }
+    }
+
+    // without these the application cannot even log in
+    static final String[] REQUIRED_TABLES = {"ADMINISTRATOR", "FLAT", "MASTER", "FAMILY", "BILLS", "CASH_BOOK", "BANK_BOOK"};
+
+    private final File live;
+    private final File staging;
+    private final File previous;
+
+    public Restore_pipeline() {
+        this(new File(Others.Database.dbDirectory));
+    }
+
+    public Restore_pipeline(File databaseDirectory) {
+        live = databaseDirectory.getAbsoluteFile();
+        staging = new File(live.getParentFile(), live.getName() + ".restoring");
+        previous = new File(live.getParentFile(), live.getName() + ".previous");
+    }
+
+    /**
+     * Unpacks and verifies an archive into the staging directory. On any
+     * failure the staging directory is removed again.
+     */
+    public Report stage(File archive, Backup_engine.Progress progress) throws IOException, SQLException, ClassNotFoundException {
+        long start = System.currentTimeMillis();
+        delete(staging);
+        if (!staging.mkdirs()) {
+            throw new IOException("Could not create " + staging);
+        }
+        boolean staged = false;
+        try {
+            Report report = new Report();
+            report.archive = archive;
+            if (Backup_engine.isEngineBackup(archive)) {
+                report.bytes = Backup_engine.restore(archive, staging, progress);
+            } else {
+                report.bytes = unzip(archive, progress);
+            }
+            check(report);
+            report.millis = System.currentTimeMillis() - start;
+            Logger.getLogger(Restore_pipeline.class.getName()).log(Level.INFO, "Staged {0}", report);
+            staged = true;
+            return report;
+        } finally {
+            if (!staged) {
+                delete(staging);
+            }
+        }
+    }
+
+    /**
+     * Replaces the live database directory with the staged one. The
+     * connection pool is closed first and the caches built from the old
+     * database are dropped.
+     */
+    public void swap() throws IOException {
+        if (!staging.isDirectory()) {
+            throw new IOException("Nothing has been staged");
+        }
+        Others.Database.shutdown();
+        delete(previous);
+        if (live.exists()) {
+            Files.move(live.toPath(), previous.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        try {
+            Files.move(staging.toPath(), live.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            if (previous.exists()) {
+                Files.move(previous.toPath(), live.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            throw ex;
+        }
+        Others.Number_allocator.reset();
+        Others.Reference_data.invalidateAll();
+        Member.Member_directory.invalidate();
+        Member.Photo_service.clear();
+        Logger.getLogger(Restore_pipeline.class.getName()).log(Level.INFO, "Restored database swapped into {0}, old one kept in {1}", new Object[]{live, previous});
+    }
+
+    /**
+     * Throws away a staged restore that was not swapped in.
+     */
+    public void discard() {
+        delete(staging);
+    }
+
+    /**
+     * Streams a plain H2 backup zip into the staging directory. The zip
+     * stream checks each entry's CRC as it is read.
+     */
+    private long unzip(File archive, final Backup_engine.Progress progress) throws IOException {
+        final long total = archive.length();
+        long written = 0;
+        byte[] buffer = new byte[Backup_engine.CHUNK_SIZE];
+        try (ZipInputStream in = new ZipInputStream(new FilterInputStream(new FileInputStream(archive)) {
+            private long read;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    report(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    report(n);
+                }
+                return n;
+            }
+
+            private void report(int n) {
+                read += n;
+                if (progress != null) {
+                    progress.update(read, total);
+                }
+            }
+        })) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                File file = new File(staging, entry.getName());
+                if (!file.getCanonicalPath().startsWith(staging.getCanonicalPath() + File.separator)) {
+                    throw new IOException(entry.getName() + " would be written outside the database directory");
+                }
+                if (entry.isDirectory()) {
+                    file.mkdirs();
+                    continue;
+                }
+                file.getParentFile().mkdirs();
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), buffer.length)) {
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, n);
+                        written += n;
+                    }
+                }
+            }
+        }
+        if (written == 0) {
+            throw new IOException(archive.getName() + " does not contain a database");
+        }
+        return written;
+    }
+
+    /**
+     * Opens the staged database on its own connection, outside the pool, and
+     * reads every table.
+     */
+    private void check(Report report) throws SQLException, ClassNotFoundException {
+        Class.forName("org.h2.Driver");
+        String url = "jdbc:h2:" + new File(staging, "him").getPath() + ";IFEXISTS=TRUE";
+        try (Connection con = DriverManager.getConnection(url, "", "");
+                Statement st = con.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = st.executeQuery("select table_name from information_schema.tables where table_schema = 'PUBLIC'")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+            for (String table : REQUIRED_TABLES) {
+                if (!tables.contains(table)) {
+                    throw new SQLException("The backup has no " + table + " table");
+                }
+            }
+            for (String table : tables) {
+                try (ResultSet rs = st.executeQuery("select count(*) from \"" + table + "\"")) {
+                    rs.next();
+                    report.rows.put(table, rs.getLong(1));
+                }
+            }
+            if (report.rows.get("ADMINISTRATOR") == 0) {
+                throw new SQLException("The backup has no administrator account");
+            }
+            report.cashBalance = total(st, "select sum(case when debit_credit in ('Debit', 'P') then -amount else amount end) from cash_book");
+            report.bankBalance = total(st, "select sum(case when debit_credit in ('Debit', 'P') then -amount else amount end) from bank_book");
+            report.outstanding = total(st, "select sum(balance_amount) from bills where bill_period_start = (select max(bill_period_start) from bills)");
+        }
+    }
+
+    private static long total(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
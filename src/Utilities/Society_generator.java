@@ -0,0 +1,820 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Utilities;
+
+import Dao.BankBookDao;
+import Dao.BillDao;
+import Dao.CashBookDao;
+import Dao.FlatDao;
+import Dao.LedgerDao;
+import Dao.ReceivablesDao;
+import Flat.Flat_provisioning;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+
+/**
+ * Fills an empty database with a made-up society, for trying the
+ * application at sizes nobody would enter by hand.
+ *
+ * The society has wings of floors of flats, families of members (some with
+ * photos), parking, and years of monthly bills with the cheques that paid
+ * them and the cash and bank vouchers of running the building. Most flats
+ * pay on time, some pay late and a few pay only part of what they owe, so
+ * arrears, interest and defaulters come out as billing and receipts would
+ * have made them. Everything is drawn from one random generator, so the
+ * same settings give the same database.
+ *
+ * Bills and receipts are worked out in memory, month by month, and written
+ * in batches with a transaction per month; the ledger and receivables are
+ * filled once at the end. H2's transaction log is off while generating, so
+ * a run that fails leaves a database to delete, not to repair.
+ *
+ * @author RtrSuahantNadkar
+ */
+public class Society_generator {
+
+    static final int BATCH_SIZE = 500;
+    static final int PHOTO_POOL = 24;
+
+    /**
+     * The society to make.
+     */
+    public static class Settings {
+
+        public long seed = 1;
+        public int wings = 4;
+        public int floors = 10;
+        public int flatsPerFloor = 4;
+        public int years = 3;
+        /**
+         * Any day of the last month billed, or null for last month.
+         */
+        public Date until;
+        /**
+         * Share of members who have a photo.
+         */
+        public double photos = 0.3;
+        /**
+         * Cash vouchers a month, or -1 for one per four flats.
+         */
+        public int cashVouchersPerMonth = -1;
+        /**
+         * Bank vouchers a month besides the receipts, or -1 for one per
+         * twenty flats.
+         */
+        public int bankVouchersPerMonth = -1;
+
+        public int getFlats() {
+            return wings * floors * flatsPerFloor;
+        }
+    }
+
+    /**
+     * What was generated.
+     */
+    public static class Result {
+
+        public int flats;
+        public int members;
+        public int photos;
+        public int bills;
+        public int receipts;
+        public int cashVouchers;
+        public int bankVouchers;
+        public long millis;
+
+        public int getRows() {
+            return flats + members + bills + cashVouchers + bankVouchers;
+        }
+
+        public double getRowsPerSecond() {
+            return millis == 0 ? 0 : getRows() * 1000.0 / millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d flats, %d members (%d with photos), %d bills, %d cash and %d bank vouchers (%d receipts)"
+                    + " in %.1f s, %.0f rows/s", flats, members, photos, bills, cashVouchers, bankVouchers, receipts,
+                    millis / 1000.0, getRowsPerSecond());
+        }
+    }
+
+    private static final String[] MALE = {"Aarav", "Aditya", "Ajay", "Amit", "Anand", "Anil", "Arjun", "Ashok", "Deepak",
+        "Ganesh", "Harish", "Kiran", "Mahesh", "Manoj", "Nikhil", "Prakash", "Rahul", "Rajesh", "Ravi", "Rohan", "Sachin",
+        "Sanjay", "Satish", "Suresh", "Sunil", "Vijay", "Vikram", "Vinod", "Yash"};
+    private static final String[] FEMALE = {"Aarti", "Anita", "Anjali", "Asha", "Deepa", "Divya", "Geeta", "Jyoti", "Kavita",
+        "Lata", "Madhuri", "Meena", "Neha", "Pooja", "Priya", "Rekha", "Shalini", "Shobha", "Smita", "Sneha", "Sunita",
+        "Swati", "Usha", "Vaishali", "Vandana"};
+    private static final String[] SURNAMES = {"Bhosale", "Chavan", "Deshmukh", "Deshpande", "Gaikwad", "Gokhale", "Iyer",
+        "Jadhav", "Joshi", "Kamat", "Kulkarni", "Mehta", "Nadkar", "Naik", "Pai", "Patil", "Pawar", "Rao", "Sawant",
+        "Shah", "Shinde", "Shetty", "Thakur", "Desai", "Kadam", "More", "Salvi", "Gupta", "Sharma", "Fernandes"};
+    private static final String[] MEMBER_BANKS = {"State Bank of India", "HDFC Bank", "ICICI Bank", "Bank of Baroda",
+        "Axis Bank", "Bank of Maharashtra", "Canara Bank", "Saraswat Bank", "Kotak Mahindra Bank", "Union Bank of India"};
+    private static final String SOCIETY_BANK = "Saraswat Bank";
+    private static final String[][] ACCOUNT_CODES = {
+        {"ELEC", "Electricity"}, {"WATER", "Water charges"}, {"SECURITY", "Security"}, {"HOUSEKEEP", "Housekeeping"},
+        {"LIFT", "Lift maintenance"}, {"REPAIRS", "Repairs and maintenance"}, {"BANKCHG", "Bank charges"},
+        {"PETTY", "Petty expenses"}, {"STATIONERY", "Printing and stationery"}, {"CONVEYANCE", "Conveyance"},
+        {"HALL", "Hall booking"}, {"CASHWDL", "Cash withdrawn from bank"}};
+
+    /**
+     * How a flat pays its bills.
+     */
+    enum Habit {
+        ON_TIME, LATE, PARTIAL
+    }
+
+    /**
+     * A flat while its history is being made.
+     */
+    static class Account {
+
+        String fid;
+        int maintenance;
+        Habit habit;
+        String bank;
+        // unpaid charges, oldest first, and money paid ahead
+        final Deque<ReceivablesDao.Charge> open = new ArrayDeque<>();
+        ReceivablesDao.Charge credit;
+        int owed;
+    }
+
+    private final Settings settings;
+    private final Random random;
+    private final List<Account> accounts = new ArrayList<>();
+    private final Result result = new Result();
+    private int interestRate;
+    private int nextBid = 1;
+    private int nextCashVoucher = 1;
+    private int nextBankVoucher = 1;
+
+    public Society_generator(Settings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+    }
+
+    /**
+     * Generates the society into the database, which must have no flats yet.
+     */
+    public Result generate(Connection con) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("select count(*) from flat")) {
+            rs.next();
+            if (rs.getInt(1) > 0) {
+                throw new IllegalStateException("The database already has flats; generate into an empty one");
+            }
+        }
+        Calendar first = Calendar.getInstance();
+        first.setTime(settings.until != null ? settings.until : new Date());
+        if (settings.until == null) {
+            first.add(Calendar.MONTH, -1);
+        }
+        first.add(Calendar.MONTH, 1 - settings.years * 12);
+        first.set(Calendar.DAY_OF_MONTH, 1);
+        midnight(first);
+
+        boolean autoCommit = con.getAutoCommit();
+        try (Statement st = con.createStatement()) {
+            st.execute("set log 0");
+        }
+        con.setAutoCommit(false);
+        try {
+            society(con, first);
+            members(con, flats(con), first);
+            con.commit();
+            Calendar month = (Calendar) first.clone();
+            for (int m = 0; m < settings.years * 12; m++) {
+                List<BankBookDao.Voucher> receipts = bills(con, month);
+                cashBook(con, month);
+                bankBook(con, month, receipts);
+                con.commit();
+                if (m % 12 == 11) {
+                    Logger.getLogger(Society_generator.class.getName()).log(Level.INFO, "Generated {0} months, {1} ms",
+                            new Object[]{m + 1, System.currentTimeMillis() - start});
+                }
+                month.add(Calendar.MONTH, 1);
+            }
+            receivables(con);
+            con.commit();
+        } catch (SQLException | IOException | RuntimeException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+            try (Statement st = con.createStatement()) {
+                st.execute("set log 2");
+            }
+        }
+        // one pass over the finished books instead of an upsert per voucher
+        new LedgerDao(con).rebuild();
+        Others.Number_allocator.reset();
+        Others.Reference_data.invalidateAll();
+
+        result.millis = System.currentTimeMillis() - start;
+        Logger.getLogger(Society_generator.class.getName()).log(Level.INFO, "Generated {0}", result);
+        return result;
+    }
+
+    private void society(Connection con, Calendar first) throws SQLException {
+        interestRate = 2;
+        Calendar last = (Calendar) first.clone();
+        last.add(Calendar.YEAR, settings.years);
+        last.add(Calendar.DAY_OF_MONTH, -1);
+        try (Statement st = con.createStatement()) {
+            st.execute("delete from administrator");
+        }
+        try (PreparedStatement ps = con.prepareStatement("insert into administrator(username, password, two_wheeler, four_wheeler,"
+                + " cable, society_name, registration_no, address, interest_charged, total_members, ac_period_from, ac_period_to,"
+                + " ac_year, due_date) values('admin', 'admin', 50, 150, 250, ?, ?, ?, ?, ?, ?, ?, ?, 10)")) {
+            ps.setString(1, "Generated Co-operative Housing Society");
+            ps.setString(2, "BOM/HSG/" + (1000 + random.nextInt(9000)));
+            ps.setString(3, "Plot " + (1 + random.nextInt(200)) + ", Sector " + (1 + random.nextInt(40)) + ", Navi Mumbai");
+            ps.setInt(4, interestRate);
+            ps.setInt(5, settings.getFlats());
+            ps.setDate(6, new java.sql.Date(first.getTimeInMillis()));
+            ps.setDate(7, new java.sql.Date(last.getTimeInMillis()));
+            ps.setString(8, first.get(Calendar.YEAR) + "-" + last.get(Calendar.YEAR));
+            ps.executeUpdate();
+        }
+        try (PreparedStatement codes = con.prepareStatement("insert into account_code(code, name) values(?, ?)");
+                PreparedStatement banks = con.prepareStatement("insert into member_bank(name) values(?)");
+                PreparedStatement bank = con.prepareStatement("insert into bank(name, bkid) values(?, ?)")) {
+            for (String[] code : ACCOUNT_CODES) {
+                codes.setString(1, code[0]);
+                codes.setString(2, code[1]);
+                codes.addBatch();
+            }
+            codes.executeBatch();
+            for (String name : MEMBER_BANKS) {
+                banks.setString(1, name);
+                banks.addBatch();
+            }
+            banks.executeBatch();
+            bank.setString(1, SOCIETY_BANK);
+            bank.setString(2, "SRCB0000" + (100 + random.nextInt(900)));
+            bank.executeUpdate();
+        }
+    }
+
+    private List<FlatDao.Flat> flats(Connection con) throws SQLException {
+        if (settings.flatsPerFloor > 99) {
+            throw new IllegalArgumentException("At most 99 flats a floor");
+        }
+        Flat_provisioning.Layout layout = new Flat_provisioning.Layout();
+        for (int w = 0; w < settings.wings; w++) {
+            for (int floor = 1; floor <= settings.floors; floor++) {
+                layout.addRooms(wing(w), floor * 100 + 1, floor * 100 + settings.flatsPerFloor);
+            }
+        }
+        Flat_provisioning.provision(con, layout);
+
+        List<FlatDao.Flat> flats = new ArrayList<>();
+        List<FlatDao.Parking> parking = new ArrayList<>();
+        for (String fid : layout.fids()) {
+            // one, two and three bedroom flats
+            int size = pick(new int[]{35, 45, 20});
+            FlatDao.Flat f = new FlatDao.Flat();
+            f.fid = fid;
+            f.repairs = new int[]{400, 600, 850}[size];
+            f.sinkingFund = new int[]{200, 300, 425}[size];
+            f.municipalTax = new int[]{450, 700, 1000}[size];
+            f.otherMunicipalTax = new int[]{50, 75, 100}[size];
+            f.otherCharge = 150;
+            f.bankCharge = 10;
+            f.cable = random.nextInt(10) < 7;
+            if (random.nextInt(100) < 12) {
+                // let out: ten per cent of the service charges
+                f.sublittingCharge = (f.repairs + f.sinkingFund + f.otherCharge) / 10;
+            }
+            FlatDao.Parking p = new FlatDao.Parking();
+            p.fid = fid;
+            p.twoWheeler = pick(new int[]{30, 50, 20});
+            p.fourWheeler = pick(new int[]{45 - 15 * size, 45, 10 + 15 * size});
+            f.total = f.useOfPremises + f.penelty + f.rateOfPropertyTax + f.serviceTax + f.sinkingFund + f.sublittingCharge
+                    + f.municipalTax + f.otherCharge + f.repairs + f.otherMunicipalTax + f.bankCharge
+                    + p.twoWheeler * 50 + p.fourWheeler * 150;
+            flats.add(f);
+            parking.add(p);
+
+            Account a = new Account();
+            a.fid = fid;
+            a.maintenance = f.total;
+            a.habit = Habit.values()[pick(new int[]{70, 20, 10})];
+            a.bank = MEMBER_BANKS[random.nextInt(MEMBER_BANKS.length)];
+            accounts.add(a);
+        }
+        new FlatDao(con).updateParking(parking);
+        result.flats = flats.size();
+        // written once the members give them owners
+        return flats;
+    }
+
+    private void members(Connection con, List<FlatDao.Flat> flats, Calendar first) throws SQLException, IOException {
+        byte[][] photos = new byte[PHOTO_POOL][];
+        for (int i = 0; i < photos.length; i++) {
+            photos[i] = portrait();
+        }
+        Calendar today = (Calendar) first.clone();
+        today.add(Calendar.YEAR, settings.years);
+        int mid = 1;
+        try (PreparedStatement master = con.prepareStatement("insert into master(first_name, middle_name, last_name, dob, contact,"
+                + " photo, mid, sex, pan) values(?,?,?,?,?,?,?,?,?)");
+                PreparedStatement family = con.prepareStatement("insert into family(mid, fid) values(?,?)")) {
+            int pending = 0;
+            for (FlatDao.Flat f : flats) {
+                String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+                boolean headMale = random.nextInt(4) > 0;
+                String head = name(headMale);
+                int headAge = 30 + random.nextInt(40);
+                long contact = 7000000000L + (long) (random.nextDouble() * 2999999999L);
+                int size = 1 + pick(new int[]{10, 25, 30, 25, 10});
+                for (int i = 0; i < size; i++) {
+                    boolean male;
+                    String firstName;
+                    String middleName;
+                    int age;
+                    if (i == 0) {
+                        male = headMale;
+                        firstName = head;
+                        middleName = MALE[random.nextInt(MALE.length)];
+                        age = headAge;
+                    } else if (i == 1) {
+                        // spouse
+                        male = !headMale;
+                        firstName = name(male);
+                        middleName = male ? MALE[random.nextInt(MALE.length)] : head;
+                        age = Math.max(21, headAge - 4 + random.nextInt(9));
+                    } else if (i == 4 && headAge < 50) {
+                        // a parent living with them
+                        male = random.nextBoolean();
+                        firstName = name(male);
+                        middleName = MALE[random.nextInt(MALE.length)];
+                        age = headAge + 22 + random.nextInt(10);
+                    } else {
+                        male = random.nextBoolean();
+                        firstName = name(male);
+                        middleName = headMale ? head : MALE[random.nextInt(MALE.length)];
+                        age = random.nextInt(Math.max(1, headAge - 20));
+                    }
+                    Calendar dob = (Calendar) today.clone();
+                    dob.add(Calendar.YEAR, -age);
+                    dob.add(Calendar.DAY_OF_YEAR, -random.nextInt(365));
+                    boolean adult = age >= 18;
+
+                    master.setString(1, firstName);
+                    master.setString(2, middleName);
+                    master.setString(3, surname);
+                    master.setDate(4, new java.sql.Date(dob.getTimeInMillis()));
+                    master.setLong(5, adult && i > 0 ? 7000000000L + (long) (random.nextDouble() * 2999999999L) : contact);
+                    if (random.nextDouble() < settings.photos) {
+                        master.setBytes(6, photos[random.nextInt(photos.length)]);
+                        result.photos++;
+                    } else {
+                        master.setNull(6, Types.BLOB);
+                    }
+                    master.setInt(7, mid);
+                    master.setString(8, male ? "Male" : "Female");
+                    master.setString(9, adult ? pan(surname) : "");
+                    master.addBatch();
+                    family.setInt(1, mid);
+                    family.setString(2, f.fid);
+                    family.addBatch();
+                    if (i == 0) {
+                        f.owner = firstName + " " + middleName + " " + surname;
+                    }
+                    mid++;
+                    if (++pending == BATCH_SIZE) {
+                        master.executeBatch();
+                        family.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                master.executeBatch();
+                family.executeBatch();
+            }
+        }
+        new FlatDao(con).update(flats);
+        result.members = mid - 1;
+    }
+
+    /**
+     * Bills every flat for the month and takes in the cheques that pay them,
+     * the way Billing_engine and Receipt_posting would.
+     *
+     * @return the receipts, for the bank book
+     */
+    private List<BankBookDao.Voucher> bills(Connection con, Calendar month) throws SQLException {
+        java.sql.Date periodStart = new java.sql.Date(month.getTimeInMillis());
+        Calendar end = (Calendar) month.clone();
+        end.set(Calendar.DAY_OF_MONTH, end.getActualMaximum(Calendar.DAY_OF_MONTH));
+        java.sql.Date periodEnd = new java.sql.Date(end.getTimeInMillis());
+        int days = end.get(Calendar.DAY_OF_MONTH);
+
+        List<BillDao.Bill> bills = new ArrayList<>(accounts.size());
+        List<BankBookDao.Voucher> receipts = new ArrayList<>(accounts.size());
+        for (Account a : accounts) {
+            int interest = a.owed > 0 ? (a.maintenance * interestRate) / 100 : 0;
+            BillDao.Bill b = new BillDao.Bill();
+            b.bid = nextBid++;
+            b.acCode = a.fid;
+            b.billDate = day(month, random.nextInt(3));
+            b.periodStart = periodStart;
+            b.periodEnd = periodEnd;
+            b.billAmount = a.maintenance + interest;
+            b.balanceAmount = a.maintenance + a.owed + interest;
+            b.interestAmount = interest;
+            charge(a, new ReceivablesDao.Charge(a.fid, periodStart, b.billAmount));
+
+            int amount = 0;
+            int day = 0;
+            switch (a.habit) {
+                case ON_TIME:
+                    // a few pay the next month ahead
+                    amount = b.balanceAmount + (random.nextInt(100) < 3 ? a.maintenance : 0);
+                    day = Math.min(random.nextInt(10), random.nextInt(15));
+                    break;
+                case LATE:
+                    if (random.nextInt(100) < 60) {
+                        amount = b.balanceAmount;
+                        day = 9 + random.nextInt(days - 9);
+                    }
+                    break;
+                case PARTIAL:
+                    if (random.nextInt(100) < 35) {
+                        amount = (int) (b.balanceAmount * (0.3 + 0.7 * random.nextDouble())) / 500 * 500;
+                        day = random.nextInt(days);
+                    }
+                    break;
+            }
+            if (amount > 0) {
+                java.sql.Date received = day(month, day);
+                pay(a, received, amount);
+                BankBookDao.Voucher v = new BankBookDao.Voucher();
+                v.voucherDate = received;
+                v.accountCode = a.fid;
+                v.particulars = "Maintenance for " + new SimpleDateFormat("MMMM yyyy").format(periodStart);
+                v.chequeNo = 100000 + random.nextInt(900000);
+                v.chequeDate = day(month, Math.max(0, day - random.nextInt(4)));
+                v.debitCredit = "Credit";
+                v.chequeBank = a.bank;
+                v.amount = amount;
+                receipts.add(v);
+            }
+            b.receivedAmount = Math.max(amount, 0);
+            b.balanceAmount -= b.receivedAmount;
+            b.status = b.balanceAmount > 0 ? "pending" : "paid";
+            bills.add(b);
+        }
+        new BillDao(con).insert(bills);
+        result.bills += bills.size();
+        result.receipts += receipts.size();
+        return receipts;
+    }
+
+    /**
+     * Adds a bill's charge, first setting it against money paid ahead, as
+     * ReceivablesDao.charge does.
+     */
+    private static void charge(Account a, ReceivablesDao.Charge c) {
+        a.owed += c.amount;
+        if (a.credit == null) {
+            a.open.addLast(c);
+            return;
+        }
+        int net = c.amount + a.credit.amount;
+        if (net > 0) {
+            a.open.addLast(new ReceivablesDao.Charge(c.acCode, c.chargeDate, net));
+            a.credit = null;
+        } else if (net < 0) {
+            a.credit.amount = net;
+        } else {
+            a.credit = null;
+        }
+    }
+
+    /**
+     * Pays off the oldest charges, keeping what is left as money paid ahead,
+     * as ReceivablesDao.pay does.
+     */
+    private static void pay(Account a, java.sql.Date day, int amount) {
+        a.owed -= amount;
+        int left = amount;
+        while (left > 0 && !a.open.isEmpty()) {
+            ReceivablesDao.Charge c = a.open.peekFirst();
+            if (left >= c.amount) {
+                left -= c.amount;
+                a.open.removeFirst();
+            } else {
+                c.amount -= left;
+                left = 0;
+            }
+        }
+        if (left > 0) {
+            if (a.credit == null) {
+                a.credit = new ReceivablesDao.Charge(a.fid, day, 0);
+            }
+            a.credit.amount -= left;
+        }
+    }
+
+    /**
+     * The month's petty cash: mostly small expenses, now and then money
+     * drawn from the bank or taken in for the hall.
+     */
+    private void cashBook(Connection con, Calendar month) throws SQLException {
+        int count = settings.cashVouchersPerMonth >= 0 ? settings.cashVouchersPerMonth : Math.max(10, accounts.size() / 4);
+        int days = month.getActualMaximum(Calendar.DAY_OF_MONTH);
+        List<CashBookDao.Voucher> vouchers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CashBookDao.Voucher v = new CashBookDao.Voucher();
+            v.voucherDate = day(month, random.nextInt(days));
+            int kind = random.nextInt(100);
+            if (kind < 85) {
+                String[] head = ACCOUNT_CODES[7 + random.nextInt(3)];
+                v.accountCode = head[0];
+                v.particulars = head[1];
+                v.debitCredit = "Debit";
+                v.amount = amount(350, 0.9, 10, 25000);
+            } else {
+                String[] head = ACCOUNT_CODES[kind < 95 ? 11 : 10];
+                v.accountCode = head[0];
+                v.particulars = head[1];
+                v.debitCredit = "Credit";
+                v.amount = amount(3000, 0.6, 500, 50000);
+            }
+            vouchers.add(v);
+        }
+        Collections.sort(vouchers, new Comparator<CashBookDao.Voucher>() {
+            @Override
+            public int compare(CashBookDao.Voucher x, CashBookDao.Voucher y) {
+                return x.voucherDate.compareTo(y.voucherDate);
+            }
+        });
+        try (PreparedStatement ps = con.prepareStatement("insert into cash_book(voucher_no, voucher_date, account_code,"
+                + " particulars, debit_credit, amount) values(?,?,?,?,?,?)")) {
+            int pending = 0;
+            for (CashBookDao.Voucher v : vouchers) {
+                ps.setInt(1, nextCashVoucher++);
+                ps.setDate(2, v.voucherDate);
+                ps.setString(3, v.accountCode);
+                ps.setString(4, v.particulars);
+                ps.setString(5, v.debitCredit);
+                ps.setInt(6, v.amount);
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+        result.cashVouchers += vouchers.size();
+    }
+
+    /**
+     * The month's bank book: the maintenance cheques, the building's regular
+     * bills and whatever else was paid by cheque.
+     */
+    private void bankBook(Connection con, Calendar month, List<BankBookDao.Voucher> receipts) throws SQLException {
+        int flats = accounts.size();
+        int count = settings.bankVouchersPerMonth >= 0 ? settings.bankVouchersPerMonth : Math.max(8, flats / 20);
+        int days = month.getActualMaximum(Calendar.DAY_OF_MONTH);
+        List<BankBookDao.Voucher> vouchers = receipts;
+        int[] regular = {flats * 120, flats * 70, settings.wings * 22000, settings.wings * 15000, settings.wings * 3500, 0, 250};
+        for (int i = 0; i < count; i++) {
+            int head = i < regular.length ? i : 5;
+            BankBookDao.Voucher v = new BankBookDao.Voucher();
+            v.voucherDate = day(month, head == 6 ? days - 1 : random.nextInt(days));
+            v.accountCode = ACCOUNT_CODES[head][0];
+            v.particulars = ACCOUNT_CODES[head][1];
+            v.chequeNo = head == 6 ? 0 : 500000 + random.nextInt(100000);
+            v.chequeDate = v.voucherDate;
+            v.debitCredit = "Debit";
+            v.chequeBank = SOCIETY_BANK;
+            v.amount = regular[head] > 0 ? amount(regular[head], 0.1, 1, Integer.MAX_VALUE) : amount(8000, 1.0, 200, 500000);
+            vouchers.add(v);
+        }
+        Collections.sort(vouchers, new Comparator<BankBookDao.Voucher>() {
+            @Override
+            public int compare(BankBookDao.Voucher x, BankBookDao.Voucher y) {
+                return x.voucherDate.compareTo(y.voucherDate);
+            }
+        });
+        try (PreparedStatement ps = con.prepareStatement("insert into bank_book(voucher_no, voucher_date, account_code, particulars,"
+                + " cheque_no, cheque_date, debit_credit, cheque_bank, amount) values(?,?,?,?,?,?,?,?,?)")) {
+            int pending = 0;
+            for (BankBookDao.Voucher v : vouchers) {
+                ps.setInt(1, nextBankVoucher++);
+                ps.setDate(2, v.voucherDate);
+                ps.setString(3, v.accountCode);
+                ps.setString(4, v.particulars);
+                ps.setInt(5, v.chequeNo);
+                ps.setDate(6, v.chequeDate);
+                ps.setString(7, v.debitCredit);
+                ps.setString(8, v.chequeBank);
+                ps.setInt(9, v.amount);
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+        result.bankVouchers += vouchers.size();
+    }
+
+    /**
+     * Writes what every flat still owes, or has paid ahead.
+     */
+    private void receivables(Connection con) throws SQLException {
+        List<ReceivablesDao.Charge> rows = new ArrayList<>();
+        for (Account a : accounts) {
+            rows.addAll(a.open);
+            if (a.credit != null && a.credit.amount < 0) {
+                rows.add(a.credit);
+            }
+        }
+        new ReceivablesDao(con).charge(rows);
+    }
+
+    /**
+     * A head-and-shoulders picture, so photos have the size and detail of
+     * real ones.
+     */
+    private byte[] portrait() throws IOException {
+        BufferedImage image = new BufferedImage(480, 640, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(new Color(150 + random.nextInt(100), 150 + random.nextInt(100), 150 + random.nextInt(100)));
+        g.fillRect(0, 0, 480, 640);
+        for (int i = 0; i < 400; i++) {
+            g.setColor(new Color(random.nextInt(0x1000000) | 0x404040));
+            g.fillRect(random.nextInt(480), random.nextInt(640), 2 + random.nextInt(6), 2 + random.nextInt(6));
+        }
+        g.setColor(new Color(40 + random.nextInt(120), 40 + random.nextInt(120), 40 + random.nextInt(120)));
+        g.fillOval(60, 400, 360, 400);
+        int skin = 120 + random.nextInt(90);
+        g.setColor(new Color(skin + 30, skin, skin - 40));
+        g.fillOval(140, 140, 200, 260);
+        g.setColor(new Color(20 + random.nextInt(40), 15 + random.nextInt(30), 10 + random.nextInt(20)));
+        g.fillArc(130, 110, 220, 160, 0, 180);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private String name(boolean male) {
+        return male ? MALE[random.nextInt(MALE.length)] : FEMALE[random.nextInt(FEMALE.length)];
+    }
+
+    private String pan(String surname) {
+        StringBuilder pan = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            pan.append((char) ('A' + random.nextInt(26)));
+        }
+        pan.append('P').append(surname.charAt(0));
+        pan.append(String.format("%04d", random.nextInt(10000)));
+        return pan.append((char) ('A' + random.nextInt(26))).toString();
+    }
+
+    /**
+     * Index drawn with the given weights.
+     */
+    private int pick(int[] weights) {
+        int total = 0;
+        for (int w : weights) {
+            total += w;
+        }
+        int r = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * A rupee amount spread log-normally around {@code median}.
+     */
+    private int amount(int median, double spread, int min, int max) {
+        double a = median * Math.exp(spread * random.nextGaussian());
+        return (int) Math.max(min, Math.min(max, Math.round(a)));
+    }
+
+    private static java.sql.Date day(Calendar month, int offset) {
+        Calendar c = (Calendar) month.clone();
+        c.add(Calendar.DAY_OF_MONTH, offset);
+        return new java.sql.Date(c.getTimeInMillis());
+    }
+
+    private static void midnight(Calendar c) {
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+    }
+
+    /**
+     * Wing names A to Z, then AA, AB and so on.
+     */
+    static String wing(int index) {
+        return index < 26 ? String.valueOf((char) ('A' + index)) : wing(index / 26 - 1) + (char) ('A' + index % 26);
+    }
+
+    /**
+     * {@code Society_generator [--db directory] [--seed n] [--wings n] [--floors n] [--flats-per-floor n]
+     * [--years n] [--until yyyy-MM] [--photos share] [--cash-per-month n] [--bank-per-month n]}
+     */
+    public static void main(String args[]) throws ClassNotFoundException, SQLException, IOException {
+        Settings settings = new Settings();
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException(args[i] + " needs a value");
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--db":
+                        Others.Database.dbDirectory = value;
+                        break;
+                    case "--seed":
+                        settings.seed = Long.parseLong(value);
+                        break;
+                    case "--wings":
+                        settings.wings = Integer.parseInt(value);
+                        break;
+                    case "--floors":
+                        settings.floors = Integer.parseInt(value);
+                        break;
+                    case "--flats-per-floor":
+                        settings.flatsPerFloor = Integer.parseInt(value);
+                        break;
+                    case "--years":
+                        settings.years = Integer.parseInt(value);
+                        break;
+                    case "--until":
+                        settings.until = new SimpleDateFormat("yyyy-MM").parse(value);
+                        break;
+                    case "--photos":
+                        settings.photos = Double.parseDouble(value);
+                        break;
+                    case "--cash-per-month":
+                        settings.cashVouchersPerMonth = Integer.parseInt(value);
+                        break;
+                    case "--bank-per-month":
+                        settings.bankVouchersPerMonth = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ParseException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println("Usage: Society_generator [--db directory] [--seed n] [--wings n] [--floors n] [--flats-per-floor n]"
+                    + " [--years n] [--until yyyy-MM] [--photos share] [--cash-per-month n] [--bank-per-month n]");
+            System.exit(2);
+        }
+        try (Connection con = Others.Database.connect()) {
+            System.out.println(new Society_generator(settings).generate(con));
+        }
+        Others.Database.shutdown();
+    }
+}